@@ -5,12 +5,11 @@ import static org.folio.rest.util.Constants.TABLE_NAME_UDP;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.google.common.io.ByteStreams;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -28,12 +27,14 @@ import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.utils.BinaryOutStream;
 import org.folio.rest.tools.utils.ValidationHelper;
 import org.folio.rest.util.Constants;
 import org.folio.rest.util.ExportObject;
-import org.olf.erm.usage.counter.common.ExcelUtil;
+import org.folio.rest.util.TotalRecordsHelper;
+import org.folio.rest.util.XlsxCsvWriter;
 
 public class AggregatorSettingsAPI implements org.folio.rest.jaxrs.resource.AggregatorSettings {
 
@@ -83,27 +84,37 @@ public class AggregatorSettingsAPI implements org.folio.rest.jaxrs.resource.Aggr
       return;
     }
 
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .get(
-            TABLE_NAME_AGGREGATOR_SETTINGS,
-            AggregatorSetting.class,
-            cql,
-            true,
-            reply -> {
-              if (reply.succeeded()) {
-                AggregatorSettings aggregatorSettings = new AggregatorSettings();
-                List<AggregatorSetting> aggregatorSettingList = reply.result().getResults();
-                aggregatorSettings.setAggregatorSettings(aggregatorSettingList);
-                aggregatorSettings.setTotalRecords(
-                    reply.result().getResultInfo().getTotalRecords());
-                asyncResultHandler.handle(
-                    succeededFuture(
-                        GetAggregatorSettingsResponse.respond200WithApplicationJson(
-                            aggregatorSettings)));
-              } else {
-                ValidationHelper.handleError(reply.cause(), asyncResultHandler);
-              }
-            });
+    // counted by RMB unless totalRecords is none, estimated or exact
+    boolean rmbCount = !TotalRecordsHelper.isSupported(totalRecords);
+    PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    Future<Integer> count =
+        TotalRecordsHelper.count(
+            postgresClient, TABLE_NAME_AGGREGATOR_SETTINGS, query, totalRecords);
+    postgresClient.get(
+        TABLE_NAME_AGGREGATOR_SETTINGS,
+        AggregatorSetting.class,
+        cql,
+        rmbCount,
+        reply -> {
+          if (reply.succeeded()) {
+            count
+                .onSuccess(
+                    total -> {
+                      AggregatorSettings aggregatorSettings = new AggregatorSettings();
+                      List<AggregatorSetting> aggregatorSettingList = reply.result().getResults();
+                      aggregatorSettings.setAggregatorSettings(aggregatorSettingList);
+                      aggregatorSettings.setTotalRecords(
+                          rmbCount ? reply.result().getResultInfo().getTotalRecords() : total);
+                      asyncResultHandler.handle(
+                          succeededFuture(
+                              GetAggregatorSettingsResponse.respond200WithApplicationJson(
+                                  aggregatorSettings)));
+                    })
+                .onFailure(t -> ValidationHelper.handleError(t, asyncResultHandler));
+          } else {
+            ValidationHelper.handleError(reply.cause(), asyncResultHandler);
+          }
+        });
   }
 
   @Override
@@ -188,9 +199,8 @@ public class AggregatorSettingsAPI implements org.folio.rest.jaxrs.resource.Aggr
 
     if ("xlsx".equals(format)) {
       try {
-        InputStream in = ExcelUtil.fromCSV(csvString);
         BinaryOutStream bos = new BinaryOutStream();
-        bos.setData(ByteStreams.toByteArray(in));
+        bos.setData(XlsxCsvWriter.toXlsx(csvString));
         return GetAggregatorSettingsExportcredentialsByIdResponse
             .respond200WithApplicationVndOpenxmlformatsOfficedocumentSpreadsheetmlSheet(bos);
       } catch (IOException e) {
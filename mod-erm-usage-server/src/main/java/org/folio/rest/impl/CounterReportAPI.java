@@ -2,62 +2,91 @@ package org.folio.rest.impl;
 
 import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
-import static org.folio.rest.persist.PostgresClient.DEFAULT_JSONB_FIELD_NAME;
+import static java.util.stream.Collectors.toSet;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static org.folio.rest.util.Constants.FIELD_NAME_YEAR_MONTH;
+import static org.folio.rest.util.Constants.JSONB_WITH_REPORT;
 import static org.folio.rest.util.Constants.TABLE_NAME_COUNTER_REPORTS;
+import static org.folio.rest.util.Constants.TABLE_NAME_REPORT_UPLOAD_JOBS;
+import static org.folio.rest.util.Constants.VIEW_NAME_COUNTER_REPORTS_WITH_REPORT;
 import static org.folio.rest.util.ReportExportHelper.createDownloadResponseByReportVersion;
-import static org.folio.rest.util.ReportExportHelper.createExportMultipleMonthsResponseByReportVersion;
 import static org.folio.rest.util.ReportExportHelper.createExportResponseByFormat;
 import static org.folio.rest.util.ReportExportHelper.createGetMultipleReportsCQL;
 import static org.folio.rest.util.ReportUploadErrorCode.MAXIMUM_FILESIZE_EXCEEDED;
-import static org.folio.rest.util.ReportUploadErrorCode.MULTIPLE_FILES_NOT_SUPPORTED;
+import static org.folio.rest.util.ReportUploadErrorCode.MAXIMUM_FILES_EXCEEDED;
 import static org.folio.rest.util.ReportUploadErrorCode.REPORTS_ALREADY_PRESENT;
 import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_FILE_FORMAT;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
-import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerFileUpload;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
 import io.vertx.sqlclient.RowStream;
 import io.vertx.sqlclient.Tuple;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import javax.ws.rs.core.Response;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.CQL2PgJSONException;
 import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.model.SqlSelect;
+import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.CounterReports;
+import org.folio.rest.jaxrs.model.CounterReportsBulkExport;
 import org.folio.rest.jaxrs.model.CounterReportsGetOrder;
-import org.folio.rest.jaxrs.model.CounterReportsPerYear;
-import org.folio.rest.jaxrs.model.CounterReportsSorted;
 import org.folio.rest.jaxrs.model.ErrorCodes;
 import org.folio.rest.jaxrs.model.ReportReleases;
 import org.folio.rest.jaxrs.model.ReportTypes;
-import org.folio.rest.jaxrs.model.ReportsPerType;
-import org.folio.rest.persist.Criteria.Criteria;
-import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.jaxrs.model.ReportUploadError;
+import org.folio.rest.jaxrs.model.ReportUploadFileResult;
+import org.folio.rest.jaxrs.model.ReportUploadJob;
+import org.folio.rest.jaxrs.model.ReportUploadResults;
 import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.utils.ValidationHelper;
+import org.folio.rest.util.BulkExportHelper;
+import org.folio.rest.util.CounterReportCursor;
+import org.folio.rest.util.CounterReportsSaveResult;
+import org.folio.rest.util.ExportCache;
+import org.folio.rest.util.FacetCache;
 import org.folio.rest.util.PgHelper;
+import org.folio.rest.util.ReportExportHelper;
 import org.folio.rest.util.ReportFileFormat;
-import org.folio.rest.util.ReportUploadErrorCode;
 import org.folio.rest.util.ReportUploadErrorFactory;
 import org.folio.rest.util.ReportUploadException;
+import org.folio.rest.util.ReportUploadJobHelper;
+import org.folio.rest.util.ResponseCompression;
+import org.folio.rest.util.StandardViewHelper;
+import org.folio.rest.util.TotalRecordsHelper;
 import org.folio.rest.util.UploadHelper;
 import org.folio.rest.util.VertxUtil;
 
@@ -65,14 +94,36 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
 
   public static final String FORM_ATTR_EDITED = "reportEditedManually";
   public static final String FORM_ATTR_REASON = "editReason";
-  private static final int MAX_FILES = 1;
+  private static final int MAX_FILES = 24;
   private static final int MAX_FILE_SIZE_IN_BYTES = 200 * 1024 * 1024; // 200 MB
+  private static final int MAX_TOTAL_SIZE_IN_BYTES = 500 * 1024 * 1024; // 500 MB
+  private static final String TEMP_FILE_PREFIX = "erm-usage-upload-";
   private static final String MAXIMUM_FILESIZE_DETAILS =
       "The maximum file size is " + MAX_FILE_SIZE_IN_BYTES + " bytes.";
-  static final String CONTEXT_FILENAME_KEY = "uploadedFilename";
+  private static final String MAXIMUM_FILES_DETAILS =
+      "The maximum number of files is " + MAX_FILES + ".";
+  private static final String MAXIMUM_TOTAL_SIZE_DETAILS =
+      "The maximum total size of all files is " + MAX_TOTAL_SIZE_IN_BYTES + " bytes.";
+  // yearMonth of the keyset pagination, see counter_reports_custom_yearmonth_id_idx
+  private static final String YEAR_MONTH_ORDER =
+      "COALESCE(counter_reports.jsonb->>'yearMonth', '')";
+  // counterReportsSorted of a provider, reports are grouped by year and report name; reports whose
+  // yearMonth does not start with a year are left out, as their year can't be cast to int
+  private static final String SELECT_SORTED_BY_YEAR_AND_TYPE =
+      "SELECT json_build_object('counterReportsPerYear',"
+          + " COALESCE(json_agg(json_build_object('year', year, 'reportsPerType', per_type)"
+          + " ORDER BY year), '[]'))::text"
+          + " FROM (SELECT year, json_agg(json_build_object('reportType', report_type,"
+          + " 'counterReports', reports) ORDER BY report_type) AS per_type"
+          + " FROM (SELECT substring(jsonb->>'yearMonth', 1, 4)::int AS year,"
+          + " jsonb->>'reportName' AS report_type,"
+          + " jsonb_agg(jsonb ORDER BY jsonb->>'yearMonth', id) AS reports"
+          + " FROM "
+          + TABLE_NAME_COUNTER_REPORTS
+          + " WHERE jsonb->>'providerId' = $1 AND jsonb->>'yearMonth' ~ '^[0-9]{4}-'"
+          + " GROUP BY 1, 2) AS per_year_and_type"
+          + " GROUP BY year) AS per_year";
   private final Logger logger = LogManager.getLogger(CounterReportAPI.class);
-  private final Comparator<CounterReportsPerYear> compareByYear =
-      Comparator.comparing(CounterReportsPerYear::getYear);
 
   private CQLWrapper getCQL(String query, int limit, int offset) throws FieldException {
     return new CQLWrapper(
@@ -83,6 +134,7 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
   @Override
   public void getCounterReports(
       boolean tiny,
+      String cursor,
       String query,
       String orderBy,
       CounterReportsGetOrder order,
@@ -95,6 +147,12 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
     logger.debug("Getting counter reports");
     logger.debug("Headers present are: {}", okapiHeaders);
 
+    if (cursor != null) {
+      getCounterReportsByCursor(
+          tiny, cursor, query, totalRecords, limit, okapiHeaders, asyncResultHandler, vertxContext);
+      return;
+    }
+
     CQLWrapper cql;
     try {
       cql = getCQL(query, limit, offset);
@@ -103,30 +161,132 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
       return;
     }
 
-    String field = (tiny) ? "jsonb - 'report' AS jsonb" : "*";
+    // the report data is stored in its own column, tiny listings don't read it
+    String field = (tiny) ? "jsonb" : JSONB_WITH_REPORT + " AS jsonb";
     String[] fieldList = {field};
 
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .get(
-            TABLE_NAME_COUNTER_REPORTS,
-            CounterReport.class,
-            fieldList,
-            cql,
-            true,
-            false,
-            ar -> {
-              if (ar.succeeded()) {
-                CounterReports counterReports = new CounterReports();
-                List<CounterReport> reportList = ar.result().getResults();
-                counterReports.setCounterReports(reportList);
-                counterReports.setTotalRecords(ar.result().getResultInfo().getTotalRecords());
+    // counted by RMB unless totalRecords is none, estimated or exact
+    boolean rmbCount = !TotalRecordsHelper.isSupported(totalRecords);
+    PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    Future<Integer> count =
+        TotalRecordsHelper.count(postgresClient, TABLE_NAME_COUNTER_REPORTS, query, totalRecords);
+    postgresClient.get(
+        TABLE_NAME_COUNTER_REPORTS,
+        CounterReport.class,
+        fieldList,
+        cql,
+        rmbCount,
+        false,
+        ar -> {
+          if (ar.succeeded()) {
+            count
+                .onSuccess(
+                    total -> {
+                      CounterReports counterReports = new CounterReports();
+                      List<CounterReport> reportList = ar.result().getResults();
+                      counterReports.setCounterReports(reportList);
+                      counterReports.setTotalRecords(
+                          rmbCount ? ar.result().getResultInfo().getTotalRecords() : total);
+                      asyncResultHandler.handle(
+                          succeededFuture(
+                              GetCounterReportsResponse.respond200WithApplicationJson(
+                                  counterReports)));
+                    })
+                .onFailure(t -> ValidationHelper.handleError(t, asyncResultHandler));
+          } else {
+            ValidationHelper.handleError(ar.cause(), asyncResultHandler);
+          }
+        });
+  }
+
+  /**
+   * Gets a page of counter reports by keyset pagination. Reports are ordered by {@code (yearMonth,
+   * id)}, a page starts after the report encoded in the {@code cursor}, so that Postgres only reads
+   * the rows of the page from {@code counter_reports_custom_yearmonth_id_idx} whatever the depth of
+   * the page. One more report than {@code limit} is read to find out if there is a next page.
+   * Reports without yearMonth are ordered by an empty yearMonth, i.e. first.
+   */
+  private void getCounterReportsByCursor(
+      boolean tiny,
+      String cursor,
+      String query,
+      String totalRecords,
+      int limit,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    CounterReportCursor after;
+    SqlSelect sqlSelect;
+    try {
+      after = CounterReportCursor.decode(cursor);
+      sqlSelect =
+          new CQL2PgJSON(TABLE_NAME_COUNTER_REPORTS + ".jsonb")
+              .toSql(StringUtils.defaultIfBlank(query, "cql.allRecords=1"));
+    } catch (IllegalArgumentException | CQL2PgJSONException e) {
+      asyncResultHandler.handle(
+          succeededFuture(GetCounterReportsResponse.respond400WithTextPlain(e.getMessage())));
+      return;
+    }
+    if (StringUtils.isNotBlank(sqlSelect.getOrderBy())) {
+      asyncResultHandler.handle(
+          succeededFuture(
+              GetCounterReportsResponse.respond400WithTextPlain(
+                  "sortBy is not supported with cursor")));
+      return;
+    }
+
+    String where = "(" + sqlSelect.getWhere() + ")";
+    Tuple params = Tuple.tuple();
+    if (after != null) {
+      where += " AND (" + YEAR_MONTH_ORDER + ", counter_reports.id) > ($1, $2)";
+      params.addString(after.yearMonth()).addUUID(after.id());
+    }
+    String sql =
+        "SELECT "
+            + (tiny ? "jsonb" : JSONB_WITH_REPORT)
+            + " FROM "
+            + TABLE_NAME_COUNTER_REPORTS
+            + " WHERE "
+            + where
+            + " ORDER BY "
+            + YEAR_MONTH_ORDER
+            + ", counter_reports.id LIMIT "
+            + ((long) limit + 1);
+    PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    Future<Integer> count =
+        TotalRecordsHelper.isCounted(totalRecords)
+            ? TotalRecordsHelper.count(
+                postgresClient,
+                TABLE_NAME_COUNTER_REPORTS,
+                sqlSelect.getWhere(),
+                TotalRecordsHelper.ESTIMATED.equals(totalRecords))
+            : succeededFuture(null);
+    postgresClient
+        .execute(sql, params)
+        .compose(rowSet -> count.map(total -> toCounterReportsPage(rowSet, limit, total)))
+        .onSuccess(
+            counterReports ->
                 asyncResultHandler.handle(
                     succeededFuture(
-                        GetCounterReportsResponse.respond200WithApplicationJson(counterReports)));
-              } else {
-                ValidationHelper.handleError(ar.cause(), asyncResultHandler);
-              }
-            });
+                        GetCounterReportsResponse.respond200WithApplicationJson(counterReports))))
+        .onFailure(t -> ValidationHelper.handleError(t, asyncResultHandler));
+  }
+
+  private static CounterReports toCounterReportsPage(
+      RowSet<Row> rowSet, int limit, Integer totalRecords) {
+    List<CounterReport> reports = new ArrayList<>();
+    for (Row row : rowSet) {
+      reports.add(row.getJsonObject(0).mapTo(CounterReport.class));
+    }
+    CounterReports counterReports = new CounterReports().withTotalRecords(totalRecords);
+    if (reports.size() > limit) {
+      reports = reports.subList(0, limit);
+      if (!reports.isEmpty()) {
+        CounterReport last = reports.get(reports.size() - 1);
+        counterReports.setNextCursor(CounterReportCursor.encode(last.getYearMonth(), last.getId()));
+      }
+    }
+    return counterReports.withCounterReports(reports);
   }
 
   @Override
@@ -143,7 +303,7 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
         okapiHeaders,
         vertxContext,
         PostCounterReportsResponse.class,
-        asyncResultHandler);
+        materializeOnSuccess(entity, okapiHeaders, asyncResultHandler, vertxContext));
   }
 
   @Override
@@ -155,7 +315,7 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
       Context vertxContext) {
 
     PgUtil.getById(
-        TABLE_NAME_COUNTER_REPORTS,
+        VIEW_NAME_COUNTER_REPORTS_WITH_REPORT,
         CounterReport.class,
         id,
         okapiHeaders,
@@ -178,7 +338,7 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
         okapiHeaders,
         vertxContext,
         DeleteCounterReportsByIdResponse.class,
-        asyncResultHandler);
+        FacetCache.invalidateOnSuccess(okapiHeaders, asyncResultHandler));
   }
 
   @Override
@@ -197,12 +357,33 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
         okapiHeaders,
         vertxContext,
         PutCounterReportsByIdResponse.class,
-        asyncResultHandler);
+        materializeOnSuccess(entity.withId(id), okapiHeaders, asyncResultHandler, vertxContext));
+  }
+
+  /**
+   * Wraps the handler of a POST or PUT of a CounterReport, so that the Standard Views of the saved
+   * report are stored in the background once the response is handled.
+   */
+  private static Handler<AsyncResult<Response>> materializeOnSuccess(
+      CounterReport entity,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    return FacetCache.invalidateOnSuccess(
+        okapiHeaders,
+        ar -> {
+          asyncResultHandler.handle(ar);
+          if (ar.succeeded() && ar.result().getStatus() < 300 && entity.getId() != null) {
+            StandardViewHelper.materializeOnIngest(
+                vertxContext, okapiHeaders, List.of(entity.getId()));
+          }
+        });
   }
 
   @Override
   public void getCounterReportsDownloadById(
       String id,
+      boolean pretty,
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
@@ -215,7 +396,7 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
               if (entity instanceof CounterReport report) {
                 return vertxContext.executeBlocking(
                     () ->
-                        Optional.ofNullable(createDownloadResponseByReportVersion(report))
+                        Optional.ofNullable(createDownloadResponseByReportVersion(report, pretty))
                             .orElse(
                                 GetCounterReportsDownloadByIdResponse.respond500WithTextPlain(
                                     "Error while downloading report")));
@@ -237,163 +418,501 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
     logger.debug("Getting sorted counter reports");
     logger.debug("Headers present are: {}", okapiHeaders);
 
-    Criteria updCrit = new Criteria();
-    updCrit.addField("'providerId'").setOperation("=").setVal(udpId).setJSONB(true);
-    Criterion criterion = new Criterion(updCrit);
-    CQLWrapper cql = new CQLWrapper(criterion);
-
+    // grouped and ordered by the database, the document is passed on without decoding it
     PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .get(
-            TABLE_NAME_COUNTER_REPORTS,
-            CounterReport.class,
-            new String[] {"jsonb - 'report' AS jsonb"},
-            cql,
-            true,
-            false,
-            reply -> {
-              if (reply.succeeded()) {
-                List<CounterReport> reports = reply.result().getResults();
-                CounterReportsSorted counterReportsSorted = sortByYearAndType(reports);
+        .execute(SELECT_SORTED_BY_YEAR_AND_TYPE, Tuple.of(udpId))
+        .onSuccess(
+            rowSet ->
                 asyncResultHandler.handle(
                     succeededFuture(
-                        GetCounterReportsSortedByUdpIdResponse.respond200WithApplicationJson(
-                            counterReportsSorted)));
+                        Response.ok(rowSet.iterator().next().getString(0), APPLICATION_JSON)
+                            .build())))
+        .onFailure(t -> ValidationHelper.handleError(t, asyncResultHandler));
+  }
+
+  /** A file of a multipart upload, spooled to a temporary file, and the reports parsed from it. */
+  private static final class FileUpload {
+
+    private final String fileName;
+    private final Promise<String> spooledFile = Promise.promise();
+    private List<CounterReport> counterReports = List.of();
+    private Throwable failure;
+
+    private FileUpload(String fileName) {
+      this.fileName = fileName;
+    }
+
+    private boolean succeeded() {
+      return failure == null;
+    }
+
+    private ReportUploadFileResult toResult(CounterReportsSaveResult saveResult) {
+      if (!succeeded()) {
+        return new ReportUploadFileResult()
+            .withFileName(fileName)
+            .withReportIds(List.of())
+            .withError(ReportUploadJobHelper.toReportUploadError(failure));
+      }
+      return new ReportUploadFileResult()
+          .withFileName(fileName)
+          .withReportIds(counterReports.stream().map(CounterReport::getId).toList())
+          .withNewMonths(getMonths(saveResult, CounterReportsSaveResult.Status.NEW))
+          .withChangedMonths(getMonths(saveResult, CounterReportsSaveResult.Status.CHANGED))
+          .withUnchangedMonths(getMonths(saveResult, CounterReportsSaveResult.Status.UNCHANGED));
+    }
+
+    private List<String> getMonths(
+        CounterReportsSaveResult saveResult, CounterReportsSaveResult.Status status) {
+      return counterReports.stream()
+          .filter(cr -> saveResult.getStatus(cr.getId()) == status)
+          .map(CounterReport::getYearMonth)
+          .sorted()
+          .toList();
+    }
+  }
+
+  private ReportFileFormat getReportFileFormat(String fileName) {
+    try {
+      return ReportFileFormat.fromFilename(fileName);
+    } catch (Exception e) {
+      throw new ReportUploadException(UNSUPPORTED_FILE_FORMAT, e);
+    }
+  }
+
+  private List<CounterReport> parseUpload(String fileName, String file) {
+    return UploadHelper.getCounterReportsFromFile(getReportFileFormat(fileName), Path.of(file));
+  }
+
+  /**
+   * Parses the uploaded files concurrently using {@code blockingExecutor}. The result or failure
+   * of each file is set on its {@link FileUpload}.
+   */
+  private Future<Void> parseUploads(
+      List<FileUpload> uploads,
+      Function<Callable<List<CounterReport>>, Future<List<CounterReport>>> blockingExecutor) {
+    return Future.join(
+            uploads.stream()
+                .map(
+                    upload ->
+                        upload
+                            .spooledFile
+                            .future()
+                            .compose(
+                                file ->
+                                    blockingExecutor.apply(
+                                        () -> parseUpload(upload.fileName, file)))
+                            .onSuccess(counterReports -> upload.counterReports = counterReports)
+                            .onFailure(throwable -> upload.failure = throwable))
+                .toList())
+        .transform(ar -> succeededFuture());
+  }
+
+  /**
+   * Fails uploaded files containing months that are contained in a previous file, the months of
+   * all files are saved at once.
+   */
+  private void rejectDuplicateMonths(List<FileUpload> uploads) {
+    Set<List<String>> months = new HashSet<>();
+    uploads.stream()
+        .filter(FileUpload::succeeded)
+        .forEach(
+            upload -> {
+              List<String> duplicateMonths =
+                  upload.counterReports.stream()
+                      .filter(cr -> months.contains(getMonthKey(cr)))
+                      .map(CounterReport::getYearMonth)
+                      .sorted()
+                      .toList();
+              if (duplicateMonths.isEmpty()) {
+                upload.counterReports.forEach(cr -> months.add(getMonthKey(cr)));
               } else {
-                ValidationHelper.handleError(reply.cause(), asyncResultHandler);
+                upload.failure =
+                    new ReportUploadException(
+                        REPORTS_ALREADY_PRESENT,
+                        "Reports for months "
+                            + String.join(", ", duplicateMonths)
+                            + " are contained in another uploaded file.");
               }
             });
   }
 
-  private CounterReportsSorted sortByYearAndType(List<CounterReport> reports) {
-    CounterReportsSorted result = new CounterReportsSorted();
-
-    Map<String, List<CounterReport>> groupedPerYear =
-        reports.stream()
-            .collect(Collectors.groupingBy(report -> report.getYearMonth().substring(0, 4)));
-
-    List<CounterReportsPerYear> reportsYear = new ArrayList<>();
-    groupedPerYear.forEach(
-        (year, reportsOfYear) -> {
-          CounterReportsPerYear counterReportsPerYear = new CounterReportsPerYear();
-          counterReportsPerYear.setYear(Integer.parseInt(year));
-
-          Map<String, List<CounterReport>> groupedPerType =
-              reportsOfYear.stream().collect(Collectors.groupingBy(CounterReport::getReportName));
-          List<ReportsPerType> typedReports = new ArrayList<>();
-          groupedPerType.forEach(
-              (type, reportsTyped) -> {
-                ReportsPerType reportsPerType = new ReportsPerType();
-                reportsPerType.setReportType(type);
-                reportsPerType.setCounterReports(reportsTyped);
-                typedReports.add(reportsPerType);
-              });
-          counterReportsPerYear.setReportsPerType(typedReports);
-          reportsYear.add(counterReportsPerYear);
+  /**
+   * Fails uploaded files containing months that already exist in the database, the other files are
+   * saved. Used if existing reports must not be overwritten.
+   */
+  private Future<Void> rejectExistingMonths(
+      String id, List<FileUpload> uploads, Context vertxContext, Map<String, String> okapiHeaders) {
+    List<CounterReport> counterReports =
+        uploads.stream()
+            .filter(FileUpload::succeeded)
+            .flatMap(upload -> upload.counterReports.stream())
+            .map(cr -> cr.withProviderId(id))
+            .toList();
+    return PgHelper.getExistingReports(vertxContext, okapiHeaders, counterReports)
+        .map(
+            existingReports -> {
+              Set<List<String>> existingMonths =
+                  existingReports.stream().map(this::getMonthKey).collect(toSet());
+              uploads.stream()
+                  .filter(FileUpload::succeeded)
+                  .forEach(
+                      upload -> {
+                        List<String> months =
+                            upload.counterReports.stream()
+                                .filter(cr -> existingMonths.contains(getMonthKey(cr)))
+                                .map(CounterReport::getYearMonth)
+                                .distinct()
+                                .sorted()
+                                .toList();
+                        if (!months.isEmpty()) {
+                          upload.failure =
+                              new ReportUploadException(
+                                  REPORTS_ALREADY_PRESENT,
+                                  "Report already existing for months: "
+                                      + String.join(", ", months));
+                        }
+                      });
+              return null;
+            });
+  }
+
+  private List<String> getMonthKey(CounterReport counterReport) {
+    return Arrays.asList(
+        counterReport.getReportName(), counterReport.getRelease(), counterReport.getYearMonth());
+  }
+
+  /**
+   * Saves the reports of all successfully parsed files with a single write. If {@code overwrite} is
+   * false, files containing existing months fail and the other files are saved. Fails with the
+   * failure of the first file if no file could be parsed or saved.
+   */
+  private Future<CounterReportsSaveResult> saveUploads(
+      String id,
+      boolean overwrite,
+      List<FileUpload> uploads,
+      boolean reportEditedManually,
+      String editReason,
+      Context vertxContext,
+      Map<String, String> okapiHeaders) {
+    rejectDuplicateMonths(uploads);
+    if (uploads.stream().noneMatch(FileUpload::succeeded)) {
+      return failedFuture(uploads.get(0).failure);
+    }
+    Future<Void> rejected =
+        overwrite
+            ? succeededFuture()
+            : rejectExistingMonths(id, uploads, vertxContext, okapiHeaders);
+    return rejected.compose(
+        v -> {
+          if (uploads.stream().noneMatch(FileUpload::succeeded)) {
+            return failedFuture(uploads.get(0).failure);
+          }
+          List<CounterReport> counterReports =
+              uploads.stream()
+                  .filter(FileUpload::succeeded)
+                  .flatMap(upload -> upload.counterReports.stream())
+                  .toList();
+          return saveUpload(
+              id,
+              overwrite,
+              counterReports,
+              reportEditedManually,
+              editReason,
+              vertxContext,
+              okapiHeaders);
         });
-    reportsYear.sort(compareByYear);
-    result.setCounterReportsPerYear(reportsYear);
-    return result;
   }
 
-  private void processUpload(
+  private Future<CounterReportsSaveResult> saveUpload(
       String id,
       boolean overwrite,
-      Buffer buffer,
-      RoutingContext routingContext,
+      List<CounterReport> counterReports,
+      boolean reportEditedManually,
+      String editReason,
       Context vertxContext,
-      Map<String, String> okapiHeaders,
-      Handler<AsyncResult<Response>> asyncResultHandler) {
-    vertxContext
-        .executeBlocking(
-            () -> {
-              ReportFileFormat reportFileFormat;
-              try {
-                reportFileFormat =
-                    ReportFileFormat.fromFilename(routingContext.get(CONTEXT_FILENAME_KEY));
-              } catch (Exception e) {
-                throw new ReportUploadException(UNSUPPORTED_FILE_FORMAT, e);
-              }
-              return UploadHelper.getCounterReportsFromBuffer(reportFileFormat, buffer);
-            },
-            true)
-        .compose(
-            counterReports ->
-                PgHelper.getUDPfromDbById(vertxContext, okapiHeaders, id)
-                    .map(
-                        udp -> {
-                          boolean reportEditedManually =
-                              Optional.ofNullable(
-                                      routingContext.request().getFormAttribute(FORM_ATTR_EDITED))
-                                  .map(s -> s.equals("true"))
-                                  .orElse(false);
-                          String editReason =
-                              routingContext.request().getFormAttribute(FORM_ATTR_REASON);
-                          Date date = Date.from(Instant.now());
-                          counterReports.forEach(
-                              cr -> {
-                                cr.setEditReason(editReason);
-                                cr.setReportEditedManually(reportEditedManually);
-                                cr.withProviderId(udp.getId()).withDownloadTime(date);
-                              });
-                          return counterReports;
-                        }))
+      Map<String, String> okapiHeaders) {
+    return PgHelper.getUDPfromDbById(vertxContext, okapiHeaders, id)
+        .map(
+            udp -> {
+              Date date = Date.from(Instant.now());
+              counterReports.forEach(
+                  cr -> {
+                    cr.setEditReason(editReason);
+                    cr.setReportEditedManually(reportEditedManually);
+                    cr.withProviderId(udp.getId()).withDownloadTime(date);
+                  });
+              return counterReports;
+            })
         .compose(
             crs ->
                 PgHelper.saveCounterReportsToDb(vertxContext, okapiHeaders, crs, overwrite)
                     .recover(
                         throwable ->
                             failedFuture(
-                                new ReportUploadException(REPORTS_ALREADY_PRESENT, throwable))))
-        .onSuccess(reportIds -> handleReportUploadSuccess(reportIds, asyncResultHandler))
+                                new ReportUploadException(REPORTS_ALREADY_PRESENT, throwable))));
+  }
+
+  private boolean isReportEditedManually(RoutingContext routingContext) {
+    return Optional.ofNullable(routingContext.request().getFormAttribute(FORM_ATTR_EDITED))
+        .map(s -> s.equals("true"))
+        .orElse(false);
+  }
+
+  private void processUpload(
+      String id,
+      boolean overwrite,
+      List<FileUpload> uploads,
+      RoutingContext routingContext,
+      Context vertxContext,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    parseUploads(uploads, callable -> vertxContext.executeBlocking(callable, false))
+        .compose(
+            v ->
+                saveUploads(
+                    id,
+                    overwrite,
+                    uploads,
+                    isReportEditedManually(routingContext),
+                    routingContext.request().getFormAttribute(FORM_ATTR_REASON),
+                    vertxContext,
+                    okapiHeaders))
+        .onComplete(ar -> deleteSpooledFiles(vertxContext, uploads))
+        .onSuccess(
+            saveResult ->
+                handleReportUploadSuccess(
+                    uploads, saveResult, routingContext, asyncResultHandler))
         .onFailure(throwable -> handleReportUploadFailure(throwable, asyncResultHandler));
   }
 
+  /**
+   * Creates a {@link ReportUploadJob} for the spooled files and responds with it as soon as it is
+   * persisted. Parsing and saving continue in the background, the job is updated with the progress
+   * and the final result.
+   */
+  private void submitUploadJob(
+      String id,
+      boolean overwrite,
+      List<FileUpload> uploads,
+      RoutingContext routingContext,
+      Context vertxContext,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    boolean reportEditedManually = isReportEditedManually(routingContext);
+    String editReason = routingContext.request().getFormAttribute(FORM_ATTR_REASON);
+    ReportUploadJob job =
+        new ReportUploadJob()
+            .withId(UUID.randomUUID().toString())
+            .withProviderId(id)
+            .withFileNames(uploads.stream().map(upload -> upload.fileName).toList())
+            .withOverwrite(overwrite)
+            .withStatus(ReportUploadJob.Status.PENDING)
+            .withMonthsParsed(0)
+            .withMonthsSaved(0);
+
+    Future.all(uploads.stream().map(upload -> upload.spooledFile.future()).toList())
+        .compose(
+            v -> {
+              // reject the upload before accepting the job if no file has a supported format
+              if (uploads.stream().allMatch(upload -> hasUnsupportedFormat(upload.fileName))) {
+                getReportFileFormat(uploads.get(0).fileName);
+              }
+              return ReportUploadJobHelper.saveJob(vertxContext, okapiHeaders, job);
+            })
+        .onSuccess(
+            savedJob -> {
+              asyncResultHandler.handle(
+                  succeededFuture(
+                      PostCounterReportsMultipartuploadProviderByIdResponse
+                          .respond202WithApplicationJson(savedJob)));
+              runUploadJob(
+                  job, uploads, reportEditedManually, editReason, vertxContext, okapiHeaders);
+              ReportUploadJobHelper.cleanUpJobs(vertxContext, okapiHeaders)
+                  .onFailure(t -> logger.warn("Unable to clean up upload jobs", t));
+            })
+        .onFailure(
+            throwable -> {
+              deleteSpooledFiles(vertxContext, uploads);
+              handleReportUploadFailure(throwable, asyncResultHandler);
+            });
+  }
+
+  private boolean hasUnsupportedFormat(String fileName) {
+    try {
+      getReportFileFormat(fileName);
+      return false;
+    } catch (ReportUploadException e) {
+      return true;
+    }
+  }
+
+  private void runUploadJob(
+      ReportUploadJob job,
+      List<FileUpload> uploads,
+      boolean reportEditedManually,
+      String editReason,
+      Context vertxContext,
+      Map<String, String> okapiHeaders) {
+    long heartbeat = ReportUploadJobHelper.startHeartbeat(vertxContext, okapiHeaders, job);
+    ReportUploadJobHelper.saveJob(
+            vertxContext, okapiHeaders, job.withStatus(ReportUploadJob.Status.IN_PROGRESS))
+        .compose(
+            v ->
+                parseUploads(
+                    uploads,
+                    callable -> ReportUploadJobHelper.executeBlocking(vertxContext, callable)))
+        .compose(
+            v ->
+                ReportUploadJobHelper.saveJob(
+                    vertxContext,
+                    okapiHeaders,
+                    job.withMonthsParsed(
+                        uploads.stream()
+                            .filter(FileUpload::succeeded)
+                            .mapToInt(upload -> upload.counterReports.size())
+                            .sum())))
+        .compose(
+            v ->
+                saveUploads(
+                    job.getProviderId(),
+                    job.getOverwrite(),
+                    uploads,
+                    reportEditedManually,
+                    editReason,
+                    vertxContext,
+                    okapiHeaders))
+        .compose(
+            saveResult ->
+                ReportUploadJobHelper.saveJob(
+                    vertxContext,
+                    okapiHeaders,
+                    job.withStatus(ReportUploadJob.Status.COMPLETED)
+                        .withMonthsSaved(saveResult.getNewOrChangedCount())
+                        .withReportIds(saveResult.getIds())
+                        .withResults(
+                            uploads.stream().map(upload -> upload.toResult(saveResult)).toList())))
+        .recover(
+            throwable ->
+                ReportUploadJobHelper.saveJob(
+                    vertxContext,
+                    okapiHeaders,
+                    job.withStatus(ReportUploadJob.Status.FAILED)
+                        .withError(ReportUploadJobHelper.toReportUploadError(throwable))))
+        .onComplete(
+            ar -> {
+              vertxContext.owner().cancelTimer(heartbeat);
+              deleteSpooledFiles(vertxContext, uploads);
+            })
+        .onFailure(t -> logger.error("Unable to update upload job {}", job.getId(), t));
+  }
+
+  private void deleteSpooledFiles(Context vertxContext, List<FileUpload> uploads) {
+    uploads.forEach(
+        upload ->
+            upload
+                .spooledFile
+                .future()
+                .onSuccess(
+                    file -> {
+                      if (file != null) {
+                        vertxContext
+                            .owner()
+                            .fileSystem()
+                            .delete(file)
+                            .onFailure(
+                                t -> logger.warn("Unable to delete spooled upload {}", file, t));
+                      }
+                    }));
+  }
+
+  /**
+   * Responds with the per-file results if multiple files were uploaded or the client accepts JSON,
+   * with the ids of the saved reports as plain text otherwise.
+   */
   private void handleReportUploadSuccess(
-      List<String> reportIds, Handler<AsyncResult<Response>> asyncResultHandler) {
-    asyncResultHandler.handle(
-        succeededFuture(
-            PostCounterReportsMultipartuploadProviderByIdResponse.respond200WithTextPlain(
-                String.format("Saved report with ids: %s", String.join(",", reportIds)))));
+      List<FileUpload> uploads,
+      CounterReportsSaveResult saveResult,
+      RoutingContext routingContext,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    String accept = routingContext.request().getHeader(HttpHeaders.ACCEPT);
+    boolean acceptsJson = accept != null && accept.contains(APPLICATION_JSON);
+    Response response =
+        (uploads.size() == 1 && !acceptsJson)
+            ? PostCounterReportsMultipartuploadProviderByIdResponse.respond200WithTextPlain(
+                String.format(
+                    "Saved report with ids: %s", String.join(",", saveResult.getIds())))
+            : PostCounterReportsMultipartuploadProviderByIdResponse.respond200WithApplicationJson(
+                new ReportUploadResults()
+                    .withResults(
+                        uploads.stream().map(upload -> upload.toResult(saveResult)).toList()));
+    asyncResultHandler.handle(succeededFuture(response));
   }
 
   private void handleReportUploadFailure(
       Throwable throwable, Handler<AsyncResult<Response>> asyncResultHandler) {
-    Response response;
-    if (throwable instanceof ReportUploadException e) {
-      response =
-          PostCounterReportsMultipartuploadProviderByIdResponse.respond400WithApplicationJson(
-              e.getReportUploadError());
-    } else {
-      response =
-          PostCounterReportsMultipartuploadProviderByIdResponse.respond500WithApplicationJson(
-              ReportUploadErrorFactory.create(ReportUploadErrorCode.OTHER, throwable));
-    }
+    ReportUploadError error = ReportUploadJobHelper.toReportUploadError(throwable);
+    Response response =
+        (throwable instanceof ReportUploadException)
+            ? PostCounterReportsMultipartuploadProviderByIdResponse.respond400WithApplicationJson(
+                error)
+            : PostCounterReportsMultipartuploadProviderByIdResponse.respond500WithApplicationJson(
+                error);
     asyncResultHandler.handle(succeededFuture(response));
   }
 
-  /** Method gets called by the route/handler that is set up in PostDeployImpl */
+  /**
+   * Method gets called by the route/handler that is set up in PostDeployImpl.
+   *
+   * <p>The uploaded files are spooled to temporary files instead of being collected in memory. The
+   * request is paused while the write queue of a temporary file is full. Up to {@value MAX_FILES}
+   * files with a total size of up to {@value MAX_TOTAL_SIZE_IN_BYTES} bytes are parsed
+   * concurrently and their reports are saved at once.
+   *
+   * <p>If {@code async} is true, a {@link ReportUploadJob} is returned once the files are spooled
+   * and the upload is processed in the background.
+   */
   @Override
   public void postCounterReportsMultipartuploadProviderById(
       String id,
       boolean overwrite,
+      boolean async,
       Object entity,
       RoutingContext routingContext,
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
-    Buffer buffer = Buffer.buffer();
-    AtomicInteger fileCount = new AtomicInteger();
+    List<FileUpload> uploads = new ArrayList<>();
+    AtomicLong totalSize = new AtomicLong();
     routingContext
         .request()
         .setExpectMultipart(true)
-        .uploadHandler(fileUploadHandler(fileCount, buffer, routingContext, asyncResultHandler))
+        .uploadHandler(
+            fileUploadHandler(
+                uploads, totalSize, routingContext, vertxContext, asyncResultHandler))
         .endHandler(
             v -> {
-              if (!routingContext.response().ended()) {
+              if (uploads.isEmpty()) {
+                // no file was uploaded, fails with UNSUPPORTED_FILE_FORMAT
+                FileUpload noUpload = new FileUpload(null);
+                noUpload.spooledFile.complete(null);
+                uploads.add(noUpload);
+              }
+              if (routingContext.response().ended()) {
+                deleteSpooledFiles(vertxContext, uploads);
+              } else if (async) {
+                submitUploadJob(
+                    id,
+                    overwrite,
+                    uploads,
+                    routingContext,
+                    vertxContext,
+                    okapiHeaders,
+                    asyncResultHandler);
+              } else {
                 processUpload(
                     id,
                     overwrite,
-                    buffer,
+                    uploads,
                     routingContext,
                     vertxContext,
                     okapiHeaders,
@@ -403,42 +922,145 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
   }
 
   private Handler<HttpServerFileUpload> fileUploadHandler(
-      AtomicInteger fileCount,
-      Buffer buffer,
+      List<FileUpload> uploads,
+      AtomicLong totalSize,
       RoutingContext routingContext,
+      Context vertxContext,
       Handler<AsyncResult<Response>> asyncResultHandler) {
     return fileUpload -> {
-      if (fileCount.incrementAndGet() > MAX_FILES) {
+      if (routingContext.response().ended()) {
+        return;
+      }
+      if (uploads.size() >= MAX_FILES) {
         routingContext.cancelAndCleanupFileUploads();
+        ReportUploadError error =
+            ReportUploadErrorFactory.create(MAXIMUM_FILES_EXCEEDED, MAXIMUM_FILES_DETAILS);
         asyncResultHandler.handle(
             succeededFuture(
                 PostCounterReportsMultipartuploadProviderByIdResponse.respond400WithApplicationJson(
-                    ReportUploadErrorFactory.create(MULTIPLE_FILES_NOT_SUPPORTED))));
+                    error)));
       } else {
-        routingContext.put(CONTEXT_FILENAME_KEY, fileUpload.filename());
-        fileUpload.handler(
+        FileUpload upload = new FileUpload(fileUpload.filename());
+        uploads.add(upload);
+        Promise<String> spoolPromise = upload.spooledFile;
+        // pause until the temporary file is opened, so no chunks are lost
+        fileUpload.pause();
+        FileSystem fileSystem = vertxContext.owner().fileSystem();
+        fileSystem
+            .createTempFile(TEMP_FILE_PREFIX, null)
+            .onSuccess(
+                file ->
+                    fileSystem
+                        .open(file, new OpenOptions().setWrite(true))
+                        .onSuccess(
+                            asyncFile ->
+                                spoolFileUpload(
+                                    fileUpload,
+                                    asyncFile,
+                                    file,
+                                    totalSize,
+                                    spoolPromise,
+                                    routingContext,
+                                    asyncResultHandler))
+                        .onFailure(
+                            t -> {
+                              fileSystem.delete(file);
+                              routingContext.cancelAndCleanupFileUploads();
+                              spoolPromise.tryFail(t);
+                            }))
+            .onFailure(
+                t -> {
+                  routingContext.cancelAndCleanupFileUploads();
+                  spoolPromise.tryFail(t);
+                });
+      }
+    };
+  }
+
+  private void spoolFileUpload(
+      HttpServerFileUpload fileUpload,
+      AsyncFile asyncFile,
+      String file,
+      AtomicLong totalSize,
+      Promise<String> spoolPromise,
+      RoutingContext routingContext,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    AtomicLong size = new AtomicLong();
+    Handler<Throwable> failHandler =
+        t ->
+            asyncFile
+                .close()
+                .onComplete(
+                    v -> {
+                      routingContext.vertx().fileSystem().delete(file);
+                      spoolPromise.tryFail(t);
+                    });
+    asyncFile.exceptionHandler(failHandler);
+    fileUpload
+        .handler(
             buf -> {
               // Check if response is already ended to prevent multiple handler invocations.
               // cancelAndCleanupFileUploads() is asynchronous, so buffered chunks may still
               // arrive after an error response is sent. This prevents completing the Promise
               // multiple times, which would cause "Result is already complete" errors.
               if (!routingContext.response().ended()) {
-                // Check size before appending to prevent buffer from ever exceeding the limit
-                if (buffer.length() + buf.length() > MAX_FILE_SIZE_IN_BYTES) {
+                // Check sizes before writing to prevent the files from ever exceeding the limits
+                boolean fileTooLarge = size.addAndGet(buf.length()) > MAX_FILE_SIZE_IN_BYTES;
+                if (fileTooLarge || totalSize.addAndGet(buf.length()) > MAX_TOTAL_SIZE_IN_BYTES) {
                   routingContext.cancelAndCleanupFileUploads();
+                  asyncFile.close().onComplete(v -> spoolPromise.tryComplete(file));
                   asyncResultHandler.handle(
                       succeededFuture(
                           PostCounterReportsMultipartuploadProviderByIdResponse
                               .respond400WithApplicationJson(
                                   ReportUploadErrorFactory.create(
-                                      MAXIMUM_FILESIZE_EXCEEDED, MAXIMUM_FILESIZE_DETAILS))));
+                                      MAXIMUM_FILESIZE_EXCEEDED,
+                                      fileTooLarge
+                                          ? MAXIMUM_FILESIZE_DETAILS
+                                          : MAXIMUM_TOTAL_SIZE_DETAILS))));
                 } else {
-                  buffer.appendBuffer(buf);
+                  asyncFile.write(buf);
+                  if (asyncFile.writeQueueFull()) {
+                    fileUpload.pause();
+                    asyncFile.drainHandler(v -> fileUpload.resume());
+                  }
                 }
               }
+            })
+        .exceptionHandler(failHandler)
+        .endHandler(
+            v ->
+                asyncFile
+                    .close()
+                    .onSuccess(v2 -> spoolPromise.tryComplete(file))
+                    .onFailure(failHandler));
+    fileUpload.resume();
+  }
+
+  @Override
+  @Validate
+  public void getCounterReportsUploadJobsById(
+      String id,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+
+    // fails the job first if it has been interrupted
+    ReportUploadJobHelper.cleanUpJobs(vertxContext, okapiHeaders)
+        .onComplete(
+            ar -> {
+              if (ar.failed()) {
+                logger.warn("Unable to clean up upload jobs", ar.cause());
+              }
+              PgUtil.getById(
+                  TABLE_NAME_REPORT_UPLOAD_JOBS,
+                  ReportUploadJob.class,
+                  id,
+                  okapiHeaders,
+                  vertxContext,
+                  GetCounterReportsUploadJobsByIdResponse.class,
+                  asyncResultHandler);
             });
-      }
-    };
   }
 
   @Override
@@ -508,6 +1130,17 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
             });
   }
 
+  @Override
+  public void getCounterReportsReportsFacetsStats(
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    asyncResultHandler.handle(
+        succeededFuture(
+            GetCounterReportsReportsFacetsStatsResponse.respond200WithApplicationJson(
+                FacetCache.getStats())));
+  }
+
   @Override
   public void postCounterReportsReportsDelete(
       List<String> entity,
@@ -531,6 +1164,7 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
             Tuple.of(uuids),
             h -> {
               if (h.succeeded()) {
+                FacetCache.invalidate(okapiHeaders);
                 asyncResultHandler.handle(
                     succeededFuture(PostCounterReportsReportsDeleteResponse.respond204()));
               } else {
@@ -552,7 +1186,7 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
 
     PgUtil.postgresClient(vertxContext, okapiHeaders)
         .getById(
-            TABLE_NAME_COUNTER_REPORTS,
+            VIEW_NAME_COUNTER_REPORTS_WITH_REPORT,
             id,
             CounterReport.class,
             ar -> {
@@ -585,27 +1219,30 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
           Handler<AsyncResult<Response>> asyncResultHandler,
           Context vertxContext) {
 
-    CQLWrapper cql = createGetMultipleReportsCQL(id, name, aversion, begin, end);
-    Promise<RowStream<Row>> rowStreamPromise = Promise.promise();
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .selectReadStream(
-            "SELECT "
-                + DEFAULT_JSONB_FIELD_NAME
-                + " FROM "
-                + TABLE_NAME_COUNTER_REPORTS
-                + " "
-                + cql,
-            Tuple.tuple(),
-            1,
-            rowStreamPromise::complete)
-        .onFailure(rowStreamPromise::fail);
+    if (!ReportExportHelper.SUPPORTED_FORMATS.contains(format)) {
+      asyncResultHandler.handle(
+          succeededFuture(
+              GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
+                  .respond400WithTextPlain(
+                      String.format(ReportExportHelper.UNSUPPORTED_FORMAT_MSG, format))));
+      return;
+    }
+    if (!ReportExportHelper.STREAMING_EXPORT_VERSIONS.contains(aversion)) {
+      asyncResultHandler.handle(
+          succeededFuture(
+              GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
+                  .respond400WithTextPlain(
+                      String.format(
+                          ReportExportHelper.UNSUPPORTED_COUNTER_VERSION_MSG, aversion))));
+      return;
+    }
 
-    rowStreamPromise
-        .future()
+    // supported requests are streamed by the route set up in PostDeployImpl
+    selectReportsReadStream(id, name, aversion, begin, end, okapiHeaders, vertxContext)
         .compose(
             rowStream ->
-                createExportMultipleMonthsResponseByReportVersion(
-                    vertxContext, rowStream, name, format, aversion))
+                ReportExportHelper.createExportMultipleMonthsResponse(
+                    vertxContext, rowStream, name, aversion, format))
         .transform(
             ar ->
                 (ar.succeeded())
@@ -615,4 +1252,170 @@ public class CounterReportAPI implements org.folio.rest.jaxrs.resource.CounterRe
                             .respond500WithTextPlain(ar.cause().getMessage())))
         .onComplete(asyncResultHandler);
   }
+
+  /**
+   * Streams the CSV or XLSX export of multiple months of a report to {@code response}. Called by
+   * the route set up in PostDeployImpl, see {@link ReportExportHelper#writeExportMultipleMonths}.
+   *
+   * @return a Future that completes once the response has been ended
+   */
+  public Future<Void> writeCounterReportsExport(
+      String id,
+      String name,
+      String aversion,
+      String begin,
+      String end,
+      String format,
+      Map<String, String> okapiHeaders,
+      HttpServerResponse response,
+      Context vertxContext) {
+    ExportCache.Key key =
+        ExportCache.createKey(okapiHeaders, id, name, aversion, begin, end, format);
+    // the change counter is read before the reports, see ExportCache#getProviderVersion
+    return ExportCache.getProviderVersion(vertxContext, okapiHeaders, id)
+        .compose(
+            providerVersion -> {
+              byte[] cachedExport = ExportCache.get(key, providerVersion);
+              if (cachedExport != null) {
+                return ReportExportHelper.writeCachedExportMultipleMonths(
+                    vertxContext, cachedExport, aversion, format, response);
+              }
+              return selectReportsReadStream(
+                      id, name, aversion, begin, end, okapiHeaders, vertxContext)
+                  .compose(
+                      rowStream ->
+                          ReportExportHelper.writeExportMultipleMonths(
+                              vertxContext,
+                              rowStream,
+                              name,
+                              aversion,
+                              format,
+                              response,
+                              out -> ExportCache.capture(key, providerVersion, out)));
+            });
+  }
+
+  /**
+   * Streams the download of a report to the response of {@code request}, compressed if the client
+   * accepts it. Called by the route set up in PostDeployImpl, see {@link
+   * ReportExportHelper#writeDownload}.
+   *
+   * @param id the id of the report, a UUID
+   * @param pretty whether to pretty print JSON reports
+   * @return a Future that completes once the response has been ended
+   */
+  public Future<Void> writeCounterReportDownload(
+      String id,
+      boolean pretty,
+      Map<String, String> okapiHeaders,
+      HttpServerRequest request,
+      Context vertxContext) {
+    HttpServerResponse response = request.response();
+    // the report is selected as text, JSON reports are written without decoding them
+    String sql =
+        "SELECT jsonb->>'release', report::text FROM "
+            + TABLE_NAME_COUNTER_REPORTS
+            + " WHERE id = $1";
+    return PgUtil.postgresClient(vertxContext, okapiHeaders)
+        .execute(sql, Tuple.of(UUID.fromString(id)))
+        .compose(
+            rowSet -> {
+              Row row = rowSet.iterator().hasNext() ? rowSet.iterator().next() : null;
+              if (row == null) {
+                return response
+                    .setStatusCode(404)
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain")
+                    .end("Not found");
+              }
+              if (row.getString(1) == null) {
+                return failedFuture("Error while downloading report");
+              }
+              ResponseCompression.negotiate(request);
+              return ReportExportHelper.writeDownload(
+                  vertxContext, row.getString(0), row.getString(1), pretty, response);
+            });
+  }
+
+  @Override
+  public void postCounterReportsExportBulk(
+      CounterReportsBulkExport entity,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    // bulk exports are streamed by the route set up in PostDeployImpl, which only passes on
+    // requests without tenant
+    asyncResultHandler.handle(
+        succeededFuture(
+            PostCounterReportsExportBulkResponse.respond400WithTextPlain(
+                "Request is missing the %s header.".formatted(XOkapiHeaders.TENANT))));
+  }
+
+  /**
+   * Streams a bulk export of multiple providers as a ZIP archive to {@code response}. Called by the
+   * route set up in PostDeployImpl, see {@link BulkExportHelper#writeBulkExport}.
+   *
+   * @param request the bulk export request, validated by {@link BulkExportHelper#validate}
+   * @return a Future that completes once the response has been ended
+   */
+  public Future<Void> writeCounterReportsBulkExport(
+      CounterReportsBulkExport request,
+      Map<String, String> okapiHeaders,
+      HttpServerResponse response,
+      Context vertxContext) {
+    String aggregatorId = StringUtils.trimToNull(request.getAggregatorId());
+    return PgHelper.getUsageDataProviderLabels(
+            vertxContext, okapiHeaders, BulkExportHelper.getProviderIds(request), aggregatorId)
+        .compose(
+            providerLabels -> {
+              if (providerLabels.isEmpty()) {
+                return response
+                    .setStatusCode(400)
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain")
+                    .end("No usage data providers found for aggregator " + aggregatorId);
+              }
+              return BulkExportHelper.writeBulkExport(
+                  vertxContext,
+                  request,
+                  providerLabels,
+                  providerId ->
+                      selectReportsReadStream(
+                          providerId,
+                          request.getReportName(),
+                          request.getVersion(),
+                          request.getBegin(),
+                          request.getEnd(),
+                          okapiHeaders,
+                          vertxContext),
+                  response);
+            });
+  }
+
+  private Future<RowStream<Row>> selectReportsReadStream(
+      String id,
+      String name,
+      String aversion,
+      String begin,
+      String end,
+      Map<String, String> okapiHeaders,
+      Context vertxContext) {
+    CQLWrapper cql = createGetMultipleReportsCQL(id, name, aversion, begin, end);
+    String masterReportName = name.split("_", 2)[0];
+    String where = cql + " AND " + TABLE_NAME_COUNTER_REPORTS + ".report IS NOT NULL";
+    // only the report data is selected, as text that is decoded once into the COUNTER model;
+    // Standard Views are read from counter_report_views where stored
+    String sql =
+        StandardViewHelper.getViewNames(aversion, masterReportName).contains(name.toUpperCase())
+            ? StandardViewHelper.createSelectViewSql(where, name)
+            : "SELECT report::text FROM " + TABLE_NAME_COUNTER_REPORTS + " " + where;
+    Promise<RowStream<Row>> rowStreamPromise = Promise.promise();
+    // months are merged in the order of the stream
+    PgUtil.postgresClient(vertxContext, okapiHeaders)
+        .selectReadStream(
+            sql + " ORDER BY jsonb->>" + FIELD_NAME_YEAR_MONTH,
+            Tuple.tuple(),
+            ReportExportHelper.EXPORT_FETCH_SIZE,
+            rowStreamPromise::complete)
+        .onFailure(rowStreamPromise::fail);
+    return rowStreamPromise.future();
+  }
 }
@@ -6,31 +6,44 @@ import static org.folio.rest.RestVerticle.OKAPI_HEADER_PREFIX;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.impl.VertxImpl;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.Json;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.impl.RouterImpl;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.ws.rs.core.Response;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.rest.jaxrs.model.CounterReportsBulkExport;
 import org.folio.rest.jaxrs.model.ReportUploadError;
+import org.folio.rest.jaxrs.model.ReportUploadJob;
+import org.folio.rest.jaxrs.model.ReportUploadResults;
 import org.folio.rest.jaxrs.resource.CounterReports.PostCounterReportsMultipartuploadProviderByIdResponse;
 import org.folio.rest.resource.interfaces.PostDeployVerticle;
+import org.folio.rest.util.BulkExportHelper;
+import org.folio.rest.util.ExportCache;
+import org.folio.rest.util.FacetCache;
+import org.folio.rest.util.ReportExportHelper;
 import org.folio.rest.util.ReportUploadErrorCode;
 import org.folio.rest.util.ReportUploadErrorFactory;
+import org.folio.rest.util.ResponseCompression;
 import org.folio.rest.util.VertxUtil;
 
 public class PostDeployImpl implements PostDeployVerticle {
 
   private static final Logger log = LogManager.getLogger();
+  private static final long EXPORT_CACHE_STATS_INTERVAL_MS = 5 * 60 * 1000L;
 
   private static CaseInsensitiveMap<String, String> getOkapiHeadersFromRoutingContext(
       RoutingContext rctx) {
@@ -74,6 +87,11 @@ public class PostDeployImpl implements PostDeployVerticle {
                       .findFirst()
                       .map(s -> s.equals("true"))
                       .orElse(false);
+              Boolean async =
+                  rctx.queryParam("async").stream()
+                      .findFirst()
+                      .map(s -> s.equals("true"))
+                      .orElse(false);
               CaseInsensitiveMap<String, String> okapiHeaders =
                   getOkapiHeadersFromRoutingContext(rctx);
 
@@ -91,6 +109,7 @@ public class PostDeployImpl implements PostDeployVerticle {
                               .postCounterReportsMultipartuploadProviderById(
                                   id,
                                   overwrite,
+                                  async,
                                   null,
                                   rctx,
                                   okapiHeaders,
@@ -103,9 +122,153 @@ public class PostDeployImpl implements PostDeployVerticle {
                               rctx, ReportUploadErrorCode.OTHER, t.toString()));
             });
 
+    // Setup a custom route handler for CSV and XLSX exports of multiple months.
+    // RMB's generated handler expects the whole response entity, this handler writes the export to
+    // a chunked response while it is created. CSV exports are compressed with gzip if the client
+    // accepts it, XLSX files are compressed already. Requests this handler does not support are
+    // passed on to RMB's generated handler.
+    router
+        .getWithRegex(
+            "/counter-reports/export/provider/([^/]+)/report/([^/]+)/version/([^/]+)/from/([^/]+)"
+                + "/to/([^/]+)/?")
+        .order(0)
+        .handler(
+            rctx -> {
+              String format = rctx.queryParam("format").stream().findFirst().orElse("csv");
+              String version = rctx.pathParam("param2");
+              CaseInsensitiveMap<String, String> okapiHeaders =
+                  getOkapiHeadersFromRoutingContext(rctx);
+              if (!ReportExportHelper.SUPPORTED_FORMATS.contains(format)
+                  || !ReportExportHelper.STREAMING_EXPORT_VERSIONS.contains(version)
+                  || okapiHeaders.get(XOkapiHeaders.TENANT) == null) {
+                rctx.next();
+                return;
+              }
+
+              if ("csv".equals(format)) {
+                ResponseCompression.negotiate(rctx.request());
+              }
+              log.info("invoking writeCounterReportsExport");
+              new CounterReportAPI()
+                  .writeCounterReportsExport(
+                      rctx.pathParam("param0"),
+                      rctx.pathParam("param1"),
+                      version,
+                      rctx.pathParam("param3"),
+                      rctx.pathParam("param4"),
+                      format,
+                      okapiHeaders,
+                      rctx.response(),
+                      rctx.vertx().getOrCreateContext())
+                  .onFailure(t -> endResponseWithExportError(rctx, t));
+            });
+
+    // Setup a custom route handler for bulk exports of multiple providers as a ZIP archive.
+    // Like the export route above, this handler writes the archive to a chunked response while it
+    // is created. The request body is decoded and validated here, as RMB's handler is bypassed.
+    router
+        .postWithRegex("/counter-reports/export/bulk/?")
+        .order(0)
+        .handler(
+            rctx -> {
+              CaseInsensitiveMap<String, String> okapiHeaders =
+                  getOkapiHeadersFromRoutingContext(rctx);
+              if (okapiHeaders.get(XOkapiHeaders.TENANT) == null) {
+                rctx.next();
+                return;
+              }
+
+              rctx.request()
+                  .body()
+                  .compose(
+                      body -> {
+                        CounterReportsBulkExport request;
+                        try {
+                          request = Json.decodeValue(body, CounterReportsBulkExport.class);
+                        } catch (DecodeException e) {
+                          return endResponseWithBadRequest(rctx, e.getMessage());
+                        }
+                        String error = BulkExportHelper.validate(request);
+                        if (error != null) {
+                          return endResponseWithBadRequest(rctx, error);
+                        }
+                        log.info("invoking writeCounterReportsBulkExport");
+                        return new CounterReportAPI()
+                            .writeCounterReportsBulkExport(
+                                request,
+                                okapiHeaders,
+                                rctx.response(),
+                                rctx.vertx().getOrCreateContext());
+                      })
+                  .onFailure(t -> endResponseWithExportError(rctx, t));
+            });
+
+    // Setup a custom route handler for report downloads.
+    // The report is written as it is read from the database to a chunked response, compressed
+    // with gzip if the client accepts it. Requests with an invalid id are passed on to RMB's
+    // generated handler.
+    router
+        .getWithRegex("/counter-reports/([^/]+)/download/?")
+        .order(0)
+        .handler(
+            rctx -> {
+              String id = rctx.pathParam("param0");
+              boolean pretty =
+                  rctx.queryParam("pretty").stream().findFirst().map("true"::equals).orElse(false);
+              CaseInsensitiveMap<String, String> okapiHeaders =
+                  getOkapiHeadersFromRoutingContext(rctx);
+              if (!isUuid(id) || okapiHeaders.get(XOkapiHeaders.TENANT) == null) {
+                rctx.next();
+                return;
+              }
+
+              log.info("invoking writeCounterReportDownload");
+              new CounterReportAPI()
+                  .writeCounterReportDownload(
+                      id, pretty, okapiHeaders, rctx.request(), rctx.vertx().getOrCreateContext())
+                  .onFailure(t -> endResponseWithExportError(rctx, t));
+            });
+
+    // Log the hit and miss counts of the export and facet caches periodically
+    vertx.setPeriodic(
+        EXPORT_CACHE_STATS_INTERVAL_MS,
+        id -> {
+          ExportCache.logStats();
+          FacetCache.logStats();
+        });
+
     resultHandler.handle(succeededFuture(true));
   }
 
+  private Future<Void> endResponseWithBadRequest(RoutingContext rctx, String message) {
+    return rctx.response()
+        .setStatusCode(400)
+        .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain")
+        .end(message);
+  }
+
+  private void endResponseWithExportError(RoutingContext rctx, Throwable t) {
+    if (rctx.response().headWritten()) {
+      // the export is incomplete, reset the response so the client does not take it for complete
+      log.error("Error while writing export", t);
+      rctx.response().reset();
+    } else {
+      ResponseCompression.reset(rctx.response());
+      rctx.response()
+          .setStatusCode(500)
+          .putHeader(HttpHeaders.CONTENT_TYPE, "text/plain")
+          .end(String.valueOf(t.getMessage()));
+    }
+  }
+
+  private static boolean isUuid(String id) {
+    try {
+      return UUID.fromString(id).toString().equalsIgnoreCase(id);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
   @SuppressWarnings(
       "java:S6880") // can't replace if with a switch statement because aspectj-maven-plugin:1.14
   // does not support java21 features
@@ -117,6 +280,10 @@ public class PostDeployImpl implements PostDeployVerticle {
       rctx.response().end(entity);
     } else if (responseEntity instanceof ReportUploadError entity) {
       rctx.response().end(Json.encode(entity));
+    } else if (responseEntity instanceof ReportUploadJob entity) {
+      rctx.response().end(Json.encode(entity));
+    } else if (responseEntity instanceof ReportUploadResults entity) {
+      rctx.response().end(Json.encode(entity));
     } else {
       rctx.response().end();
     }
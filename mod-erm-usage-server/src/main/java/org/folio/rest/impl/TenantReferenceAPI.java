@@ -6,11 +6,18 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import java.util.Map;
 import javax.ws.rs.core.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.folio.rest.jaxrs.model.TenantAttributes;
 import org.folio.rest.tools.utils.TenantLoading;
+import org.folio.rest.util.FacetCache;
+import org.folio.rest.util.ReportUploadJobHelper;
+import org.folio.rest.util.StandardViewHelper;
 
 public class TenantReferenceAPI extends TenantAPI {
 
+  private static final Logger log = LogManager.getLogger();
+
   @Override
   Future<Integer> loadData(
       TenantAttributes attributes,
@@ -26,7 +33,40 @@ public class TenantReferenceAPI extends TenantAPI {
                     .withLead("sample-data")
                     .add("usage-data-providers")
                     .add("counter-reports")
-                    .perform(attributes, headers, vertxContext, i));
+                    .perform(attributes, headers, vertxContext, i))
+        .onSuccess(i -> refreshFacets(tenantId, headers, vertxContext))
+        .onSuccess(i -> backfillStandardViews(tenantId, headers, vertxContext))
+        .onSuccess(i -> cleanUpUploadJobs(tenantId, headers, vertxContext));
+  }
+
+  /** Reloads the cached facets of the tenant's counter reports in the background. */
+  private static void refreshFacets(
+      String tenantId, Map<String, String> headers, Context vertxContext) {
+    FacetCache.refresh(vertxContext, headers)
+        .onFailure(t -> log.error("Error refreshing facets for tenant {}", tenantId, t));
+  }
+
+  /**
+   * Fails upload jobs interrupted by a restart of the module and deletes expired ones in the
+   * background.
+   */
+  private static void cleanUpUploadJobs(
+      String tenantId, Map<String, String> headers, Context vertxContext) {
+    ReportUploadJobHelper.cleanUpJobs(vertxContext, headers)
+        .onSuccess(n -> log.info("Cleaned up {} upload jobs for tenant {}", n, tenantId))
+        .onFailure(t -> log.error("Error cleaning up upload jobs for tenant {}", tenantId, t));
+  }
+
+  /**
+   * Stores the Standard Views of existing reports in the background, if {@code
+   * MATERIALIZE_STANDARD_VIEWS} is enabled and views are missing, see {@link
+   * StandardViewHelper#backfill}. Views of reports not processed yet are derived on request.
+   */
+  private static void backfillStandardViews(
+      String tenantId, Map<String, String> headers, Context vertxContext) {
+    StandardViewHelper.backfill(vertxContext, headers)
+        .onSuccess(n -> log.info("Stored {} Standard Views for tenant {}", n, tenantId))
+        .onFailure(t -> log.error("Error storing Standard Views for tenant {}", tenantId, t));
   }
 
   @Override
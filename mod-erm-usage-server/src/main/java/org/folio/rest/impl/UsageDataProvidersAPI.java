@@ -5,6 +5,7 @@ import static org.folio.rest.util.Constants.TABLE_NAME_UDP;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import java.util.List;
 import java.util.Map;
@@ -18,8 +19,11 @@ import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.folio.rest.jaxrs.model.UsageDataProviders;
 import org.folio.rest.jaxrs.model.UsageDataProvidersGetOrder;
 import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.utils.ValidationHelper;
+import org.folio.rest.util.FacetCache;
+import org.folio.rest.util.TotalRecordsHelper;
 
 public class UsageDataProvidersAPI implements org.folio.rest.jaxrs.resource.UsageDataProviders {
 
@@ -52,27 +56,36 @@ public class UsageDataProvidersAPI implements org.folio.rest.jaxrs.resource.Usag
       return;
     }
 
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .get(
-            TABLE_NAME_UDP,
-            UsageDataProvider.class,
-            cql,
-            true,
-            reply -> {
-              if (reply.succeeded()) {
-                UsageDataProviders udProvidersDataCollection = new UsageDataProviders();
-                List<UsageDataProvider> dataProviders = reply.result().getResults();
-                udProvidersDataCollection.setUsageDataProviders(dataProviders);
-                udProvidersDataCollection.setTotalRecords(
-                    reply.result().getResultInfo().getTotalRecords());
-                asyncResultHandler.handle(
-                    succeededFuture(
-                        GetUsageDataProvidersResponse.respond200WithApplicationJson(
-                            udProvidersDataCollection)));
-              } else {
-                ValidationHelper.handleError(reply.cause(), asyncResultHandler);
-              }
-            });
+    // counted by RMB unless totalRecords is none, estimated or exact
+    boolean rmbCount = !TotalRecordsHelper.isSupported(totalRecords);
+    PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    Future<Integer> count =
+        TotalRecordsHelper.count(postgresClient, TABLE_NAME_UDP, query, totalRecords);
+    postgresClient.get(
+        TABLE_NAME_UDP,
+        UsageDataProvider.class,
+        cql,
+        rmbCount,
+        reply -> {
+          if (reply.succeeded()) {
+            count
+                .onSuccess(
+                    total -> {
+                      UsageDataProviders udProvidersDataCollection = new UsageDataProviders();
+                      List<UsageDataProvider> dataProviders = reply.result().getResults();
+                      udProvidersDataCollection.setUsageDataProviders(dataProviders);
+                      udProvidersDataCollection.setTotalRecords(
+                          rmbCount ? reply.result().getResultInfo().getTotalRecords() : total);
+                      asyncResultHandler.handle(
+                          succeededFuture(
+                              GetUsageDataProvidersResponse.respond200WithApplicationJson(
+                                  udProvidersDataCollection)));
+                    })
+                .onFailure(t -> ValidationHelper.handleError(t, asyncResultHandler));
+          } else {
+            ValidationHelper.handleError(reply.cause(), asyncResultHandler);
+          }
+        });
   }
 
   @Override
@@ -124,7 +137,8 @@ public class UsageDataProvidersAPI implements org.folio.rest.jaxrs.resource.Usag
         okapiHeaders,
         vertxContext,
         DeleteUsageDataProvidersByIdResponse.class,
-        asyncResultHandler);
+        // deletes the provider's counter reports, see usagedataproviders_triggers.sql
+        FacetCache.invalidateOnSuccess(okapiHeaders, asyncResultHandler));
   }
 
   @Override
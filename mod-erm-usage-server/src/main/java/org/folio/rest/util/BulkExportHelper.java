@@ -0,0 +1,350 @@
+package org.folio.rest.util;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.CounterReportsBulkExport;
+import org.folio.rest.util.ReportExportHelper.CsvContent;
+
+/**
+ * Helper for bulk exports, which export the same report and range of months for multiple usage
+ * data providers as a ZIP archive with one entry per provider.
+ *
+ * <p>At most {@code EXPORT_BULK_CONCURRENCY} providers are exported at a time. The months of each
+ * provider are merged like in a single export, the merged report is then written as a ZIP entry to
+ * a chunked response. Entries are written one at a time in the order the providers finish, a
+ * provider is only done once its entry is written. Providers whose export fails, e.g. because they
+ * have no reports in the range, are listed in a final {@value #ERRORS_ENTRY_NAME} entry instead of
+ * failing the whole archive.
+ */
+public class BulkExportHelper {
+
+  public static final int EXPORT_BULK_CONCURRENCY =
+      ConfigUtil.getPositiveIntFromEnv("EXPORT_BULK_CONCURRENCY", 4);
+  static final String ERRORS_ENTRY_NAME = "errors.txt";
+  private static final String ZIP_CONTENT_TYPE = "application/zip";
+  private static final Logger log = LogManager.getLogger();
+
+  private BulkExportHelper() {}
+
+  /**
+   * Validates a bulk export request.
+   *
+   * @param request the request
+   * @return an error message, or {@code null} if the request is valid
+   */
+  public static String validate(CounterReportsBulkExport request) {
+    boolean hasProviderIds = !request.getProviderIds().isEmpty();
+    boolean hasAggregatorId = StringUtils.isNotBlank(request.getAggregatorId());
+    if (hasProviderIds == hasAggregatorId) {
+      return "Either providerIds or aggregatorId is required.";
+    }
+    if (hasProviderIds && !request.getProviderIds().stream().allMatch(BulkExportHelper::isUuid)) {
+      return "providerIds must be UUIDs.";
+    }
+    if (StringUtils.isBlank(request.getReportName())) {
+      return "reportName is required.";
+    }
+    if (!ReportExportHelper.STREAMING_EXPORT_VERSIONS.contains(request.getVersion())) {
+      return String.format(
+          ReportExportHelper.UNSUPPORTED_COUNTER_VERSION_MSG, request.getVersion());
+    }
+    if (!ReportExportHelper.SUPPORTED_FORMATS.contains(request.getFormat())) {
+      return String.format(ReportExportHelper.UNSUPPORTED_FORMAT_MSG, request.getFormat());
+    }
+    if (request.getBegin() == null || request.getEnd() == null) {
+      return "begin and end are required.";
+    }
+    try {
+      if (YearMonth.parse(request.getBegin()).isAfter(YearMonth.parse(request.getEnd()))) {
+        return "begin must not be after end.";
+      }
+    } catch (DateTimeParseException e) {
+      return "begin and end must be months formatted as yyyy-MM.";
+    }
+    return null;
+  }
+
+  /**
+   * Returns the distinct provider ids of a valid request in their canonical form.
+   *
+   * @param request the request
+   * @return the provider ids
+   */
+  public static List<String> getProviderIds(CounterReportsBulkExport request) {
+    return request.getProviderIds().stream()
+        .map(id -> UUID.fromString(id).toString())
+        .distinct()
+        .toList();
+  }
+
+  /**
+   * Writes a bulk export as a ZIP archive to a chunked {@code response}.
+   *
+   * <p>If the returned Future fails and the response head was already written, the response can't
+   * be turned into an error response anymore and should be reset.
+   *
+   * @param vertxContext Vertx context
+   * @param request the validated request
+   * @param providerLabels the labels of the providers to export by provider id, in the order of the
+   *     entry names, must not be empty
+   * @param selectRowStream selects the months of the report of a provider, see {@link
+   *     ReportExportHelper#mergeExportMultipleMonths}
+   * @param response the response to write to
+   * @return a Future that completes once the response has been ended
+   */
+  public static Future<Void> writeBulkExport(
+      Context vertxContext,
+      CounterReportsBulkExport request,
+      Map<String, String> providerLabels,
+      Function<String, Future<RowStream<Row>>> selectRowStream,
+      HttpServerResponse response) {
+    return new BulkExport(vertxContext, request, providerLabels, selectRowStream, response).run();
+  }
+
+  /**
+   * Creates the names of the ZIP entries. Entries are named after the provider label, or the
+   * provider id if the label is missing or not unique.
+   *
+   * @param request the request
+   * @param providerLabels the labels of the providers by provider id
+   * @return the entry names by provider id
+   */
+  static Map<String, String> createEntryNames(
+      CounterReportsBulkExport request, Map<String, String> providerLabels) {
+    String suffix =
+        "_"
+            + request.getReportName()
+            + "_"
+            + request.getBegin()
+            + "_"
+            + request.getEnd()
+            + "."
+            + request.getFormat();
+    Map<String, String> entryNames = new LinkedHashMap<>();
+    Set<String> usedNames = new HashSet<>(Set.of(ERRORS_ENTRY_NAME));
+    providerLabels.forEach(
+        (providerId, label) -> {
+          String name = sanitize((StringUtils.isBlank(label) ? providerId : label) + suffix);
+          if (!usedNames.add(name)) {
+            name = sanitize(label + "_" + providerId + suffix);
+            usedNames.add(name);
+          }
+          entryNames.put(providerId, name);
+        });
+    return entryNames;
+  }
+
+  private static String sanitize(String name) {
+    return name.replaceAll("[^\\p{L}\\p{N}._ -]+", "_");
+  }
+
+  private static boolean isUuid(String id) {
+    if (id == null) {
+      return false;
+    }
+    try {
+      UUID.fromString(id);
+      return id.length() == 36;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /** State of a single bulk export, only accessed on the context thread except for the ZIP. */
+  private static final class BulkExport {
+
+    private final Context vertxContext;
+    private final CounterReportsBulkExport request;
+    private final Map<String, String> providerLabels;
+    private final Map<String, String> entryNames;
+    private final Iterator<String> providerIds;
+    private final Function<String, Future<RowStream<Row>>> selectRowStream;
+    private final ZipOutputStream zip;
+    private final List<String> errors = new ArrayList<>();
+    // entries are written one at a time, each write is chained to the previous one
+    private Future<Void> lastWrite = succeededFuture();
+
+    BulkExport(
+        Context vertxContext,
+        CounterReportsBulkExport request,
+        Map<String, String> providerLabels,
+        Function<String, Future<RowStream<Row>>> selectRowStream,
+        HttpServerResponse response) {
+      this.vertxContext = vertxContext;
+      this.request = request;
+      this.providerLabels = providerLabels;
+      this.entryNames = createEntryNames(request, providerLabels);
+      this.providerIds = providerLabels.keySet().iterator();
+      this.selectRowStream = selectRowStream;
+      this.zip = new ZipOutputStream(new ChunkedResponseOutputStream(response, ZIP_CONTENT_TYPE));
+    }
+
+    Future<Void> run() {
+      List<Future<Void>> workers =
+          IntStream.range(0, Math.min(EXPORT_BULK_CONCURRENCY, providerLabels.size()))
+              .mapToObj(i -> exportNext())
+              .toList();
+      return Future.all(workers)
+          .compose(v -> lastWrite)
+          .compose(v -> vertxContext.executeBlocking(this::finish));
+    }
+
+    private Future<Void> exportNext() {
+      if (!providerIds.hasNext() || lastWrite.failed()) {
+        return succeededFuture();
+      }
+      String providerId = providerIds.next();
+      if (providerLabels.get(providerId) == null) {
+        // labels are required, requested providers without label don't exist
+        errors.add(providerId + ": Usage data provider not found");
+        return exportNext();
+      }
+      return selectRowStream
+          .apply(providerId)
+          .compose(
+              rowStream ->
+                  ReportExportHelper.mergeExportMultipleMonths(
+                      vertxContext, rowStream, request.getReportName(), request.getVersion()))
+          .transform(
+              ar -> {
+                if (ar.failed()) {
+                  log.warn("Error exporting provider {} in bulk export", providerId, ar.cause());
+                  errors.add(providerLabel(providerId) + ": " + ar.cause().getMessage());
+                  return succeededFuture();
+                }
+                lastWrite =
+                    lastWrite
+                        .compose(
+                            v ->
+                                vertxContext.executeBlocking(
+                                    () -> writeEntry(providerId, ar.result())))
+                        .map(
+                            error -> {
+                              if (error != null) {
+                                errors.add(error);
+                              }
+                              return null;
+                            });
+                return lastWrite;
+              })
+          .compose(v -> exportNext());
+    }
+
+    /**
+     * Writes the entry of a provider. If the report can't be written, the incomplete entry is
+     * closed and the archive continued, only failures of the response fail the archive.
+     *
+     * @return an error to list in {@value #ERRORS_ENTRY_NAME}, or {@code null} on success
+     */
+    private String writeEntry(String providerId, CsvContent content) throws IOException {
+      EntryOutputStream entry = new EntryOutputStream(zip);
+      zip.putNextEntry(new ZipEntry(entryNames.get(providerId)));
+      try {
+        ReportExportHelper.writeExport(
+            entry, request.getFormat(), !"4".equals(request.getVersion()), content);
+        return null;
+      } catch (IOException | RuntimeException e) {
+        if (entry.isOutputFailed()) {
+          throw e;
+        }
+        log.warn("Error writing provider {} in bulk export", providerId, e);
+        entry.close();
+        return providerLabel(providerId) + ": Incomplete export: " + e.getMessage();
+      }
+    }
+
+    private Void finish() throws IOException {
+      if (!errors.isEmpty()) {
+        zip.putNextEntry(new ZipEntry(ERRORS_ENTRY_NAME));
+        zip.write((String.join("\n", errors) + "\n").getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+      }
+      // ends the response
+      zip.close();
+      return null;
+    }
+
+    private String providerLabel(String providerId) {
+      String label = providerLabels.get(providerId);
+      return label == null ? providerId : label + " (" + providerId + ")";
+    }
+  }
+
+  /**
+   * Writes a single ZIP entry, closing the stream closes the entry but not the archive. Records
+   * whether writing to the archive failed, to tell these failures apart from failures of the
+   * export.
+   */
+  private static final class EntryOutputStream extends FilterOutputStream {
+
+    private boolean closed = false;
+    private boolean outputFailed = false;
+
+    EntryOutputStream(ZipOutputStream zip) {
+      super(zip);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      try {
+        out.write(b);
+      } catch (IOException e) {
+        outputFailed = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      try {
+        out.write(b, off, len);
+      } catch (IOException e) {
+        outputFailed = true;
+        throw e;
+      }
+    }
+
+    boolean isOutputFailed() {
+      return outputFailed;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        try {
+          ((ZipOutputStream) out).closeEntry();
+        } catch (IOException e) {
+          outputFailed = true;
+          throw e;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package org.folio.rest.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * An {@link OutputStream} that writes to a chunked {@link HttpServerResponse}. Bytes are buffered
+ * and written in chunks of {@value #CHUNK_SIZE} bytes, each write is awaited before more bytes are
+ * accepted. The status and headers of the response are sent with the first chunk, the response is
+ * ended by {@link #close()}.
+ *
+ * <p>Blocks the calling thread, must not be used on an event loop thread.
+ */
+class ChunkedResponseOutputStream extends OutputStream {
+
+  static final int CHUNK_SIZE = 64 * 1024;
+
+  private final HttpServerResponse response;
+  private final String contentType;
+  private final byte[] chunk = new byte[CHUNK_SIZE];
+  private int count = 0;
+  private boolean closed = false;
+
+  /**
+   * @param response the response to write to
+   * @param contentType the Content-Type of the response
+   */
+  ChunkedResponseOutputStream(HttpServerResponse response, String contentType) {
+    this.response = response;
+    this.contentType = contentType;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    chunk[count++] = (byte) b;
+    if (count >= CHUNK_SIZE) {
+      writeChunk();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    int end = off + len;
+    while (off < end) {
+      int length = Math.min(end - off, CHUNK_SIZE - count);
+      System.arraycopy(b, off, chunk, count, length);
+      count += length;
+      off += length;
+      if (count >= CHUNK_SIZE) {
+        writeChunk();
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    writeChunk();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    writeChunk();
+    writeHead();
+    closed = true;
+    await(response.end());
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream is closed");
+    }
+  }
+
+  private void writeHead() {
+    if (!response.headWritten()) {
+      response.setStatusCode(200).setChunked(true).putHeader(HttpHeaders.CONTENT_TYPE, contentType);
+    }
+  }
+
+  private void writeChunk() throws IOException {
+    if (count == 0) {
+      return;
+    }
+    writeHead();
+    Buffer buffer = Buffer.buffer(count).appendBytes(chunk, 0, count);
+    count = 0;
+    await(response.write(buffer));
+  }
+
+  private static void await(Future<Void> future) throws IOException {
+    try {
+      future.toCompletionStage().toCompletableFuture().get();
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package org.folio.rest.util;
+
+import java.util.Optional;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class ConfigUtil {
+
+  private static final Logger log = LogManager.getLogger(ConfigUtil.class);
+
+  private ConfigUtil() {}
+
+  /**
+   * Returns the positive integer value of an environment variable.
+   *
+   * @param name name of the environment variable
+   * @param defaultValue value returned if the variable is unset or not a positive integer
+   * @return the value of the environment variable or {@code defaultValue}
+   */
+  public static int getPositiveIntFromEnv(String name, int defaultValue) {
+    return parsePositiveInt(name, System.getenv(name), defaultValue);
+  }
+
+  /**
+   * Returns the boolean value of an environment variable.
+   *
+   * @param name name of the environment variable
+   * @param defaultValue value returned if the variable is unset or neither {@code true} nor {@code
+   *     false}
+   * @return the value of the environment variable or {@code defaultValue}
+   */
+  public static boolean getBooleanFromEnv(String name, boolean defaultValue) {
+    return parseBoolean(name, System.getenv(name), defaultValue);
+  }
+
+  static int parsePositiveInt(String name, String value, int defaultValue) {
+    try {
+      return Optional.ofNullable(value)
+          .map(Integer::parseInt)
+          .filter(i -> i > 0)
+          .orElse(defaultValue);
+    } catch (NumberFormatException e) {
+      log.warn("Invalid value for {}: {}", name, value);
+      return defaultValue;
+    }
+  }
+
+  static boolean parseBoolean(String name, String value, boolean defaultValue) {
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    if ("true".equalsIgnoreCase(value.trim())) {
+      return true;
+    }
+    if ("false".equalsIgnoreCase(value.trim())) {
+      return false;
+    }
+    log.warn("Invalid value for {}: {}", name, value);
+    return defaultValue;
+  }
+}
@@ -5,7 +5,12 @@ public class Constants {
   public static final String TABLE_NAME_COUNTER_REPORTS = "counter_reports";
   public static final String TABLE_NAME_CUSTOM_REPORTS = "custom_reports";
   public static final String TABLE_NAME_FILES = "files";
+  public static final String TABLE_NAME_REPORT_UPLOAD_JOBS = "report_upload_jobs";
   public static final String TABLE_NAME_UDP = "usage_data_providers";
+  public static final String VIEW_NAME_COUNTER_REPORTS_WITH_REPORT = "counter_reports_with_report";
+  // the report data of counter reports is stored in the report column, see counter_report_data.sql
+  public static final String JSONB_WITH_REPORT =
+      "CASE WHEN report IS NULL THEN jsonb ELSE jsonb || jsonb_build_object('report', report) END";
   public static final String FIELD_NAME_AGGREGATOR = "'aggregator'";
   public static final String FIELD_NAME_HARVESTING_CONFIG = "'harvestingConfig'";
   public static final String FIELD_NAME_ID = "'id'";
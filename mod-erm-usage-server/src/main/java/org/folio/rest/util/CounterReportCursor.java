@@ -0,0 +1,70 @@
+package org.folio.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Cursor for keyset pagination of counter reports, see {@code GET /counter-reports?cursor=}.
+ * Reports are paged in the order of {@code (yearMonth, id)}, a cursor holds the values of the last
+ * report of the previous page. Cursors are opaque to clients, they are encoded as URL safe Base64.
+ *
+ * <p>A report without yearMonth is ordered by an empty yearMonth, like by {@code
+ * COALESCE(jsonb->>'yearMonth', '')} in the query. The yearMonth of a cursor is not validated, so
+ * that paging doesn't fail on a report with a malformed yearMonth.
+ *
+ * @param yearMonth the yearMonth of the last report of the previous page, empty if it has none
+ * @param id the id of the last report of the previous page
+ */
+public record CounterReportCursor(String yearMonth, UUID id) {
+
+  /** Cursor of the first page. */
+  public static final String FIRST = "*";
+
+  private static final String SEPARATOR = "/";
+
+  /**
+   * Decodes a cursor.
+   *
+   * @param cursor the cursor, {@value #FIRST} for the first page
+   * @return the cursor, or {@code null} for the first page
+   * @throws IllegalArgumentException if the cursor is invalid
+   */
+  public static CounterReportCursor decode(String cursor) {
+    if (FIRST.equals(cursor)) {
+      return null;
+    }
+    String value;
+    try {
+      value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+    }
+    // the id is the last value, a malformed yearMonth might contain the separator
+    int separator = value.lastIndexOf(SEPARATOR);
+    if (separator < 0) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    try {
+      return new CounterReportCursor(
+          value.substring(0, separator), UUID.fromString(value.substring(separator + 1)));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+    }
+  }
+
+  /**
+   * Encodes the cursor of the page following a report.
+   *
+   * @param yearMonth the yearMonth of the last report of the page, may be {@code null}
+   * @param id the id of the last report of the page
+   * @return the cursor
+   */
+  public static String encode(String yearMonth, String id) {
+    String value = Objects.toString(yearMonth, "") + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+}
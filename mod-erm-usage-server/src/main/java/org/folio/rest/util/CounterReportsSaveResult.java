@@ -0,0 +1,48 @@
+package org.folio.rest.util;
+
+import java.util.List;
+import java.util.Map;
+
+/** Ids of saved CounterReports and whether their months were new, changed or unchanged. */
+public class CounterReportsSaveResult {
+
+  public enum Status {
+    /** The month did not exist and was inserted. */
+    NEW,
+    /** The month existed with different content and was overwritten. */
+    CHANGED,
+    /**
+     * The month existed with identical report data, which was not written again. Its other fields,
+     * like {@code downloadTime}, were written if they differed.
+     */
+    UNCHANGED
+  }
+
+  private final Map<String, Status> statusById;
+
+  /**
+   * @param statusById status of each saved report by id, in the order of the saved reports
+   */
+  CounterReportsSaveResult(Map<String, Status> statusById) {
+    this.statusById = statusById;
+  }
+
+  /**
+   * @return ids of the saved reports, in the order of the saved reports
+   */
+  public List<String> getIds() {
+    return List.copyOf(statusById.keySet());
+  }
+
+  public Status getStatus(String id) {
+    return statusById.get(id);
+  }
+
+  /**
+   * @return count of reports whose report data was written, i.e. that are not {@link
+   *     Status#UNCHANGED}
+   */
+  public int getNewOrChangedCount() {
+    return (int) statusById.values().stream().filter(s -> s != Status.UNCHANGED).count();
+  }
+}
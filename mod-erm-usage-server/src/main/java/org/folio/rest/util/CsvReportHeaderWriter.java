@@ -0,0 +1,84 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.ReportExportHelper.replaceCreated;
+import static org.folio.rest.util.ReportExportHelper.replaceCreatedBy;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link Writer} that rewrites the {@code Created} and {@code Created_By} lines of the header of
+ * a COUNTER CSV report like {@link ReportExportHelper#replaceCreated(String)} and {@link
+ * ReportExportHelper#replaceCreatedBy(String)} do. Only the lines up to the first blank line after
+ * the header are inspected, everything after is passed through unchanged.
+ */
+class CsvReportHeaderWriter extends FilterWriter {
+
+  private final StringBuilder line = new StringBuilder();
+  private boolean inHeader = true;
+  private boolean headerStarted = false;
+
+  /**
+   * @param out the writer to write the CSV report to
+   */
+  CsvReportHeaderWriter(Writer out) {
+    super(out);
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    write(String.valueOf((char) c), 0, 1);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    write(new String(cbuf, off, len), 0, len);
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    int end = off + len;
+    while (inHeader && off < end) {
+      char c = str.charAt(off++);
+      line.append(c);
+      if (c == '\n') {
+        writeHeaderLine();
+      }
+    }
+    if (off < end) {
+      out.write(str, off, end - off);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!line.isEmpty()) {
+      writeHeaderLine();
+    }
+    super.close();
+  }
+
+  private void writeHeaderLine() throws IOException {
+    int contentEnd = line.length();
+    while (contentEnd > 0 && isLineTerminator(line.charAt(contentEnd - 1))) {
+      contentEnd--;
+    }
+    String content = line.substring(0, contentEnd);
+    String terminator = line.substring(contentEnd);
+    line.setLength(0);
+
+    boolean blank = content.chars().allMatch(c -> c == ',' || Character.isWhitespace(c));
+    if (blank) {
+      inHeader = !headerStarted;
+      out.write(content + terminator);
+    } else {
+      headerStarted = true;
+      out.write(replaceCreated(replaceCreatedBy(content)) + terminator);
+    }
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r';
+  }
+}
@@ -0,0 +1,236 @@
+package org.folio.rest.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.persist.PgUtil;
+import org.folio.rest.tools.utils.TenantTool;
+
+/**
+ * Cache of the exports of multiple months, shared by all tenants. Entries are weighed by their
+ * size in bytes and evicted least recently used first once {@code EXPORT_CACHE_SIZE_MB} is
+ * exceeded. Exports larger than {@code EXPORT_CACHE_MAX_ENTRY_SIZE_MB} are not cached.
+ *
+ * <p>Each entry records the change counter of the provider's counter reports at the time the
+ * export was read, see {@code counter_reports_provider_versions}. The counter is incremented by
+ * every statement that changes counter reports of the provider, so entries of any module instance
+ * become stale as soon as the provider's reports change. Entries expire after {@value
+ * #EXPIRE_AFTER_WRITE_MINUTES} minutes, which bounds the age of the {@code Created} date of cached
+ * XLSX exports.
+ */
+public class ExportCache {
+
+  private static final Logger log = LogManager.getLogger();
+  private static final long MB = 1024L * 1024L;
+  private static final long MAX_SIZE =
+      ConfigUtil.getPositiveIntFromEnv("EXPORT_CACHE_SIZE_MB", 32) * MB;
+  private static final long MAX_ENTRY_SIZE =
+      Math.min(
+          ConfigUtil.getPositiveIntFromEnv("EXPORT_CACHE_MAX_ENTRY_SIZE_MB", 4) * MB, MAX_SIZE);
+  private static final long EXPIRE_AFTER_WRITE_MINUTES = 60;
+  private static final String SELECT_PROVIDER_VERSION =
+      "SELECT version FROM counter_reports_provider_versions WHERE provider_id = $1";
+
+  private static final Cache<Key, Entry> cache =
+      CacheBuilder.newBuilder()
+          .maximumWeight(MAX_SIZE)
+          .<Key, Entry>weigher((key, entry) -> entry.export().length)
+          .expireAfterWrite(Duration.ofMinutes(EXPIRE_AFTER_WRITE_MINUTES))
+          .recordStats()
+          .build();
+  private static final AtomicLong hits = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+  private static long lastLoggedRequests = 0;
+
+  private ExportCache() {}
+
+  /**
+   * Creates the key of an export.
+   *
+   * @param okapiHeaders okapi headers of the request, used to scope the key to the tenant
+   * @param providerId id of the usage data provider
+   * @param reportName the name of the report or Standard View
+   * @param version the COUNTER release
+   * @param begin first month of the export
+   * @param end last month of the export
+   * @param format the export format
+   * @return the key
+   */
+  public static Key createKey(
+      Map<String, String> okapiHeaders,
+      String providerId,
+      String reportName,
+      String version,
+      String begin,
+      String end,
+      String format) {
+    return new Key(
+        TenantTool.tenantId(okapiHeaders), providerId, reportName, version, begin, end, format);
+  }
+
+  /**
+   * Gets the current change counter of the counter reports of a provider. Must be called before
+   * the reports of an export are read, so that an export is never cached with a newer counter than
+   * the one of the reports it was read from.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers of the request
+   * @param providerId id of the usage data provider
+   * @return a Future completed with the change counter, {@code 0} if the provider's reports have
+   *     not changed since the counter was introduced
+   */
+  public static Future<Long> getProviderVersion(
+      Context vertxContext, Map<String, String> okapiHeaders, String providerId) {
+    return PgUtil.postgresClient(vertxContext, okapiHeaders)
+        .execute(SELECT_PROVIDER_VERSION, Tuple.of(providerId))
+        .map(
+            rowSet -> {
+              Row row = rowSet.iterator().hasNext() ? rowSet.iterator().next() : null;
+              return row == null ? 0L : row.getLong(0);
+            });
+  }
+
+  /**
+   * Gets a cached export. Entries cached for an older change counter are removed.
+   *
+   * @param key the key of the export
+   * @param providerVersion the current change counter of the provider's counter reports
+   * @return the export, or {@code null} if no current export is cached
+   */
+  public static byte[] get(Key key, long providerVersion) {
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null && entry.providerVersion() == providerVersion) {
+      hits.incrementAndGet();
+      log.debug("Export cache hit: {}", key);
+      return entry.export();
+    }
+    if (entry != null) {
+      cache.invalidate(key);
+    }
+    misses.incrementAndGet();
+    log.debug("Export cache miss: {}", key);
+    return null;
+  }
+
+  /**
+   * Wraps the output stream of an export, so that the export is cached once the stream is closed.
+   * Nothing is cached if the stream is not closed or the export exceeds the maximum entry size.
+   *
+   * @param key the key of the export
+   * @param providerVersion the change counter the export's reports were read with
+   * @param out the stream the export is written to
+   * @return the wrapped stream
+   */
+  public static OutputStream capture(Key key, long providerVersion, OutputStream out) {
+    return new CapturingOutputStream(out, key, providerVersion);
+  }
+
+  /** Removes all entries. */
+  public static void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public static long getHitCount() {
+    return hits.get();
+  }
+
+  public static long getMissCount() {
+    return misses.get();
+  }
+
+  /** Logs the hit, miss and eviction counts, if there were requests since the last call. */
+  public static synchronized void logStats() {
+    long requests = hits.get() + misses.get();
+    if (requests == lastLoggedRequests) {
+      return;
+    }
+    lastLoggedRequests = requests;
+    log.info(
+        "Export cache: hits={}, misses={}, evictions={}, entries={}, maxSize={}MB",
+        hits.get(),
+        misses.get(),
+        cache.stats().evictionCount(),
+        cache.size(),
+        MAX_SIZE / MB);
+  }
+
+  /**
+   * Key of a cached export.
+   *
+   * @param tenant the tenant
+   * @param providerId id of the usage data provider
+   * @param reportName the name of the report or Standard View
+   * @param version the COUNTER release
+   * @param begin first month of the export
+   * @param end last month of the export
+   * @param format the export format
+   */
+  public record Key(
+      String tenant,
+      String providerId,
+      String reportName,
+      String version,
+      String begin,
+      String end,
+      String format) {}
+
+  private record Entry(long providerVersion, byte[] export) {}
+
+  private static class CapturingOutputStream extends FilterOutputStream {
+
+    private final Key key;
+    private final long providerVersion;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    CapturingOutputStream(OutputStream out, Key key, long providerVersion) {
+      super(out);
+      this.key = key;
+      this.providerVersion = providerVersion;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      if (reserve(1)) {
+        copy.write(b);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      if (reserve(len)) {
+        copy.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      if (copy != null) {
+        cache.put(key, new Entry(providerVersion, copy.toByteArray()));
+        copy = null;
+      }
+    }
+
+    private boolean reserve(int len) {
+      if (copy != null && copy.size() + (long) len > MAX_ENTRY_SIZE) {
+        // too large to be cached, stop copying
+        copy = null;
+      }
+      return copy != null;
+    }
+  }
+}
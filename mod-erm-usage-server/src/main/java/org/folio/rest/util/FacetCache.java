@@ -0,0 +1,276 @@
+package org.folio.rest.util;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.sqlclient.Row;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.ws.rs.core.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.FacetCacheStats;
+import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.TenantTool;
+
+/**
+ * Cache of the facets of the counter reports of each tenant: the distinct error codes, report
+ * types and releases. The facets are read from {@code udp_report_statistics}, which the triggers
+ * of {@code counter_reports} maintain, instead of scanning all counter reports.
+ *
+ * <p>Each entry records the sum of the change counters of the tenant's providers at the time the
+ * facets were read, see {@code counter_reports_provider_versions} and {@link ExportCache}. The
+ * counters are incremented by every statement that changes counter reports, so entries of any
+ * module instance become stale as soon as the tenant's reports change. Writes of counter reports
+ * by this module instance also invalidate the facets of the tenant right away, see {@link
+ * #invalidate}, and {@link #refresh} reloads them. Entries are reloaded at the latest once they are
+ * older than {@code FACET_CACHE_MAX_AGE_SECONDS}.
+ *
+ * <p>The change counters are read at most once every {@code FACET_CACHE_VERSION_CHECK_SECONDS} per
+ * tenant, requests in between are served from memory. Changes by other module instances are seen
+ * after this interval at the latest. The hit and miss counts are returned by {@link #getStats()}.
+ *
+ * <p>Counter reports without report name are counted as report type {@code other} in {@code
+ * udp_report_statistics}, this report type is not part of the facets.
+ */
+public class FacetCache {
+
+  private static final Logger log = LogManager.getLogger();
+  private static final long MAX_AGE_NANOS =
+      TimeUnit.SECONDS.toNanos(ConfigUtil.getPositiveIntFromEnv("FACET_CACHE_MAX_AGE_SECONDS", 60));
+  private static final long VERSION_CHECK_NANOS =
+      TimeUnit.SECONDS.toNanos(
+          ConfigUtil.getPositiveIntFromEnv("FACET_CACHE_VERSION_CHECK_SECONDS", 5));
+  private static final String SELECT_TENANT_VERSION =
+      "SELECT COALESCE(sum(version), 0)::bigint FROM counter_reports_provider_versions";
+  private static final String SELECT_FACETS =
+      "SELECT"
+          + " ARRAY(SELECT DISTINCT error_code FROM udp_report_statistics"
+          + " WHERE error_code <> '' ORDER BY 1),"
+          + " ARRAY(SELECT DISTINCT report_name FROM udp_report_statistics"
+          + " WHERE report_name <> 'other' ORDER BY 1),"
+          + " ARRAY(SELECT DISTINCT release FROM udp_report_statistics"
+          + " WHERE release <> '' ORDER BY 1)";
+
+  private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+  private static final AtomicLong hits = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+  private static final AtomicLong invalidations = new AtomicLong();
+  // age of the oldest facets served since the stats were logged last
+  private static final AtomicLong maxServedAgeNanos = new AtomicLong();
+  private static long lastLoggedRequests = 0;
+
+  private FacetCache() {}
+
+  /**
+   * Gets the facets of a tenant, loads them if they are not cached, stale or too old.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers of the request
+   * @return a Future completed with the facets
+   */
+  public static Future<Facets> get(Context vertxContext, Map<String, String> okapiHeaders) {
+    String tenant = TenantTool.tenantId(okapiHeaders);
+    Future<Facets> checked = getChecked(tenant, VERSION_CHECK_NANOS, MAX_AGE_NANOS);
+    if (checked != null) {
+      return checked;
+    }
+    PostgresClient pgClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    // the change counters are read before the facets, like in ExportCache#getProviderVersion
+    return pgClient
+        .execute(SELECT_TENANT_VERSION)
+        .compose(
+            rowSet ->
+                get(
+                    tenant,
+                    rowSet.iterator().next().getLong(0),
+                    MAX_AGE_NANOS,
+                    () ->
+                        pgClient
+                            .execute(SELECT_FACETS)
+                            .map(facets -> toFacets(facets.iterator().next()))));
+  }
+
+  /**
+   * Reloads the facets of a tenant, e.g. after its counter reports have been changed by other
+   * means than the API of this module.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers
+   * @return a Future completed with the reloaded facets
+   */
+  public static Future<Facets> refresh(Context vertxContext, Map<String, String> okapiHeaders) {
+    invalidate(okapiHeaders);
+    return get(vertxContext, okapiHeaders);
+  }
+
+  /**
+   * Gets the cached facets of a tenant without reading the change counters, if they have been
+   * checked within {@code checkIntervalNanos} and are not too old.
+   *
+   * @param tenant the tenant
+   * @param checkIntervalNanos the interval of reading the change counters
+   * @param maxAgeNanos the maximum age of cached facets
+   * @return a Future completed with the facets, {@code null} if the change counters must be read
+   */
+  static Future<Facets> getChecked(String tenant, long checkIntervalNanos, long maxAgeNanos) {
+    long now = System.nanoTime();
+    Entry entry = cache.get(tenant);
+    if (entry == null
+        || entry.facets().failed()
+        || now - entry.checkedAt() > checkIntervalNanos
+        || now - entry.loadedAt() > maxAgeNanos) {
+      return null;
+    }
+    hits.incrementAndGet();
+    maxServedAgeNanos.accumulateAndGet(now - entry.loadedAt(), Math::max);
+    return entry.facets();
+  }
+
+  /**
+   * Gets the facets of a tenant. Concurrent requests share a single load, failed loads are not
+   * cached.
+   *
+   * @param tenant the tenant
+   * @param version the current sum of the change counters of the tenant's providers
+   * @param maxAgeNanos the maximum age of cached facets
+   * @param load loads the facets
+   * @return a Future completed with the facets
+   */
+  static Future<Facets> get(
+      String tenant, long version, long maxAgeNanos, Supplier<Future<Facets>> load) {
+    long now = System.nanoTime();
+    Entry entry = cache.get(tenant);
+    if (entry != null
+        && !entry.facets().failed()
+        && entry.version() == version
+        && now - entry.loadedAt() <= maxAgeNanos) {
+      hits.incrementAndGet();
+      maxServedAgeNanos.accumulateAndGet(now - entry.loadedAt(), Math::max);
+      cache.replace(tenant, entry, new Entry(entry.facets(), version, entry.loadedAt(), now));
+      return entry.facets();
+    }
+    misses.incrementAndGet();
+    Entry loading = new Entry(load.get(), version, now, now);
+    cache.put(tenant, loading);
+    loading.facets().onFailure(t -> cache.remove(tenant, loading));
+    return loading.facets();
+  }
+
+  /**
+   * Invalidates the facets of a tenant, must be called after counter reports of the tenant have
+   * been written. Loads in progress are not cached anymore, as they might have read the facets
+   * before the write.
+   *
+   * @param okapiHeaders okapi headers of the request
+   */
+  public static void invalidate(Map<String, String> okapiHeaders) {
+    invalidate(TenantTool.tenantId(okapiHeaders));
+  }
+
+  /**
+   * Invalidates the facets of a tenant, see {@link #invalidate(Map)}.
+   *
+   * @param tenant the tenant
+   */
+  public static void invalidate(String tenant) {
+    if (cache.remove(tenant) != null) {
+      invalidations.incrementAndGet();
+    }
+  }
+
+  /**
+   * Wraps the handler of a write of counter reports, so that the facets of the tenant are
+   * invalidated once the write succeeded.
+   *
+   * @param okapiHeaders okapi headers of the request
+   * @param asyncResultHandler the handler to wrap
+   * @return the wrapped handler
+   */
+  public static Handler<AsyncResult<Response>> invalidateOnSuccess(
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler) {
+    return ar -> {
+      if (ar.succeeded() && ar.result().getStatus() < 300) {
+        invalidate(okapiHeaders);
+      }
+      asyncResultHandler.handle(ar);
+    };
+  }
+
+  /** Removes the facets of all tenants. */
+  public static void invalidateAll() {
+    cache.clear();
+  }
+
+  public static long getHitCount() {
+    return hits.get();
+  }
+
+  public static long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the hit, miss and invalidation counts since the module started, and the age of the
+   * oldest cached facets.
+   *
+   * @return the stats of the cache
+   */
+  public static FacetCacheStats getStats() {
+    long now = System.nanoTime();
+    long oldestLoadedAt = cache.values().stream().mapToLong(Entry::loadedAt).min().orElse(now);
+    return new FacetCacheStats()
+        .withHits(hits.get())
+        .withMisses(misses.get())
+        .withInvalidations(invalidations.get())
+        .withTenants(cache.size())
+        .withOldestEntryAgeSeconds(TimeUnit.NANOSECONDS.toSeconds(now - oldestLoadedAt))
+        .withMaxAgeSeconds(TimeUnit.NANOSECONDS.toSeconds(MAX_AGE_NANOS))
+        .withVersionCheckSeconds(TimeUnit.NANOSECONDS.toSeconds(VERSION_CHECK_NANOS));
+  }
+
+  /** Logs the hit, miss and invalidation counts, if there were requests since the last call. */
+  public static synchronized void logStats() {
+    long requests = hits.get() + misses.get();
+    if (requests == lastLoggedRequests) {
+      return;
+    }
+    lastLoggedRequests = requests;
+    log.info(
+        "Facet cache: hits={}, misses={}, invalidations={}, tenants={}, maxServedAge={}s,"
+            + " maxAge={}s",
+        hits.get(),
+        misses.get(),
+        invalidations.get(),
+        cache.size(),
+        TimeUnit.NANOSECONDS.toSeconds(maxServedAgeNanos.getAndSet(0)),
+        TimeUnit.NANOSECONDS.toSeconds(MAX_AGE_NANOS));
+  }
+
+  private static Facets toFacets(Row row) {
+    return new Facets(
+        Arrays.asList(row.getArrayOfStrings(0)),
+        Arrays.asList(row.getArrayOfStrings(1)),
+        Arrays.asList(row.getArrayOfStrings(2)));
+  }
+
+  /**
+   * Facets of the counter reports of a tenant, each ordered.
+   *
+   * @param errorCodes the COUNTER/SUSHI error codes of failed reports, {@code other} for failed
+   *     reports without code
+   * @param reportTypes the report names, without {@code other} for reports without report name
+   * @param reportReleases the releases
+   */
+  public record Facets(
+      List<String> errorCodes, List<String> reportTypes, List<String> reportReleases) {}
+
+  private record Entry(Future<Facets> facets, long version, long loadedAt, long checkedAt) {}
+}
@@ -0,0 +1,67 @@
+package org.folio.rest.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BinaryOperator;
+
+/**
+ * Accumulates reports and merges them like a binary counter: a report is only merged with a partial
+ * result of the same number of reports. Each report takes part in O(log n) merges, instead of O(n)
+ * merges when every report is merged into one growing result.
+ *
+ * <p>Not thread-safe.
+ *
+ * @param <T> the report type
+ */
+class MergeAccumulator<T> {
+
+  private final BinaryOperator<T> merge;
+  private final Deque<Partial<T>> partials = new ArrayDeque<>();
+
+  /**
+   * @param merge merges two reports, the first one containing the earlier added reports
+   */
+  MergeAccumulator(BinaryOperator<T> merge) {
+    this.merge = merge;
+  }
+
+  /**
+   * Adds a report, merging partial results of equal size.
+   *
+   * @param report the report to add
+   */
+  void add(T report) {
+    T merged = report;
+    int count = 1;
+    while (!partials.isEmpty() && partials.peekLast().count == count) {
+      Partial<T> last = partials.removeLast();
+      merged = merge.apply(last.report, merged);
+      count += last.count;
+    }
+    partials.addLast(new Partial<>(merged, count));
+  }
+
+  /**
+   * Merges the remaining partial results in the order they were added.
+   *
+   * @return the merged report, {@code null} if no report was added
+   */
+  T result() {
+    T result = null;
+    for (Partial<T> partial : partials) {
+      result = (result == null) ? partial.report : merge.apply(result, partial.report);
+    }
+    return result;
+  }
+
+  private static final class Partial<T> {
+
+    private final T report;
+    private final int count;
+
+    private Partial(T report, int count) {
+      this.report = report;
+      this.count = count;
+    }
+  }
+}
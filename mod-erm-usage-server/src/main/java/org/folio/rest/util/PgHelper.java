@@ -11,12 +11,14 @@ import static org.folio.rest.util.Constants.TABLE_NAME_UDP;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import java.util.ArrayList;
+import io.vertx.core.json.JsonArray;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.folio.rest.jaxrs.model.CounterReport;
@@ -27,10 +29,14 @@ import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
 
 public class PgHelper {
 
+  private static final String UNIQUE_REPORT_COLUMNS =
+      "(jsonb->>'providerId'), (jsonb->>'reportName'), (jsonb->>'release'), (jsonb->>'yearMonth')";
+
   private PgHelper() {}
 
   public static Future<UsageDataProvider> getUDPfromDbById(
@@ -57,133 +63,215 @@ public class PgHelper {
     return udpPromise.future();
   }
 
-  private static CQLWrapper createGetReportCQL(CounterReport counterReport) {
-    Criteria idCrit =
-        new Criteria()
-            .addField(FIELD_NAME_PROVIDER_ID)
-            .setJSONB(true)
-            .setOperation(OPERATOR_EQUALS)
-            .setVal(counterReport.getProviderId());
-    Criteria releaseCrit =
-        new Criteria()
-            .addField(FIELD_NAME_RELEASE)
-            .setOperation(OPERATOR_EQUALS)
-            .setVal(counterReport.getRelease());
-    Criteria reportNameCrit =
-        new Criteria()
-            .addField(FIELD_NAME_REPORT_NAME)
-            .setOperation(OPERATOR_EQUALS)
-            .setVal(counterReport.getReportName());
-    Criteria yearMonthCrit =
-        new Criteria()
-            .addField(FIELD_NAME_YEAR_MONTH)
-            .setOperation(OPERATOR_EQUALS)
-            .setVal(counterReport.getYearMonth());
-    Criterion criterion =
-        new Criterion()
-            .addCriterion(idCrit)
-            .addCriterion(releaseCrit)
-            .addCriterion(reportNameCrit)
-            .addCriterion(yearMonthCrit);
-    return new CQLWrapper(criterion);
-  }
-
+  /**
+   * Saves multiple CounterReports with a single multi-row {@code INSERT}. Existing reports for the
+   * same providerId, reportName, release and yearMonth are overwritten if {@code overwrite} is
+   * true, keeping their id. Otherwise the save fails if any of the reports already exists.
+   *
+   * <p>Each saved report gets a {@code contentHash} of its report data. Existing reports with the
+   * same {@code contentHash} are reported as {@link CounterReportsSaveResult.Status#UNCHANGED} and
+   * their report data is not written again. Their other fields, like {@code downloadTime} or
+   * {@code editReason}, are still written if they differ, which writes a new row version. Only
+   * existing reports whose fields are all identical, apart from id and metadata, are not written
+   * at all.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapiHeaders
+   * @param counterReports CounterReports to save, must share providerId
+   * @param overwrite overwrite existing reports
+   * @return ids of the saved reports, in the order of {@code counterReports}, and their status
+   */
   // index: counter_reports_custom_getcsv_idx
-  public static Future<String> saveCounterReportToDb(
-      Context vertxContext,
-      Map<String, String> okapiHeaders,
-      CounterReport counterReport,
-      boolean overwrite) {
-
-    // check if CounterReport already exists
-    CQLWrapper cql = createGetReportCQL(counterReport);
-
-    Promise<String> idPromise = Promise.promise();
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .get(
-            TABLE_NAME_COUNTER_REPORTS,
-            CounterReport.class,
-            cql,
-            false,
-            h -> {
-              if (h.succeeded()) {
-                int resultSize = h.result().getResults().size();
-                if (resultSize == 1) {
-                  idPromise.complete(h.result().getResults().get(0).getId());
-                } else if (resultSize > 1) {
-                  idPromise.fail("Too many results");
-                } else {
-                  idPromise.complete(null);
-                }
-              } else {
-                idPromise.fail(h.cause());
-              }
-            });
-
-    // save report
-    return idPromise
-        .future()
-        .compose(
-            id -> {
-              if (id != null && !overwrite) {
-                return Future.failedFuture("Report already exists");
-              }
-
-              return PgUtil.postgresClient(vertxContext, okapiHeaders)
-                  .upsert(TABLE_NAME_COUNTER_REPORTS, id, counterReport);
-            });
-  }
-
-  public static Future<List<String>> saveCounterReportsToDb(
+  public static Future<CounterReportsSaveResult> saveCounterReportsToDb(
       Context vertxContext,
       Map<String, String> okapiHeaders,
       List<CounterReport> counterReports,
       boolean overwrite) {
 
     // check required attributes for equality
-    long count =
-        counterReports.stream()
-            .map(cr -> Arrays.asList(cr.getReportName(), cr.getRelease(), cr.getProviderId()))
-            .distinct()
-            .count();
+    long count = counterReports.stream().map(CounterReport::getProviderId).distinct().count();
     if (count != 1) {
-      return Future.failedFuture(
-          "Report attributes 'reportName', 'release' and 'providerId' are not equal.");
+      return Future.failedFuture("Report attribute 'providerId' is not equal.");
     }
 
-    String providerId = counterReports.get(0).getProviderId();
-    String release = counterReports.get(0).getRelease();
-    String reportName = counterReports.get(0).getReportName();
+    if (overwrite) {
+      return upsertCounterReports(vertxContext, okapiHeaders, counterReports);
+    }
 
     Future<List<CounterReport>> existingReports =
-        PgHelper.getExistingReports(
-            vertxContext,
-            okapiHeaders,
-            providerId,
-            reportName,
-            release,
-            counterReports.stream().map(CounterReport::getYearMonth).toList());
+        getExistingReports(vertxContext, okapiHeaders, counterReports);
 
     return existingReports.compose(
         existingList -> {
-          if (!overwrite && !existingList.isEmpty()) {
+          if (!existingList.isEmpty()) {
             return Future.failedFuture(
                 "Report already existing for months: "
                     + existingList.stream()
                         .map(CounterReport::getYearMonth)
+                        .distinct()
                         .sorted()
                         .collect(Collectors.joining(", ")));
           } else {
-            List<Future<String>> saveFutures = new ArrayList<>();
-            counterReports.forEach(
-                cr -> saveFutures.add(saveCounterReportToDb(vertxContext, okapiHeaders, cr, true)));
-
-            return Future.join(saveFutures)
-                .map(cf -> cf.list().stream().map(o -> (String) o).toList());
+            return insertCounterReports(vertxContext, okapiHeaders, counterReports);
           }
         });
   }
 
+  private static Future<CounterReportsSaveResult> insertCounterReports(
+      Context vertxContext, Map<String, String> okapiHeaders, List<CounterReport> counterReports) {
+    return saveCounterReports(vertxContext, okapiHeaders, counterReports, "");
+  }
+
+  private static Future<CounterReportsSaveResult> upsertCounterReports(
+      Context vertxContext, Map<String, String> okapiHeaders, List<CounterReport> counterReports) {
+    // the report data of EXCLUDED has been moved to its own column already and is added to the
+    // updated document again, unless its content hash is unchanged, in which case the trigger
+    // move_counter_report_data keeps the stored report data. Rows whose document, including the
+    // content hash, is identical apart from id and metadata are not updated at all.
+    return saveCounterReports(
+        vertxContext,
+        okapiHeaders,
+        counterReports,
+        " ON CONFLICT ("
+            + UNIQUE_REPORT_COLUMNS
+            + ") DO UPDATE SET jsonb = jsonb_set(EXCLUDED.jsonb, '{id}', to_jsonb("
+            + TABLE_NAME_COUNTER_REPORTS
+            + ".id)) || CASE WHEN EXCLUDED.report IS NULL OR "
+            + contentHash(TABLE_NAME_COUNTER_REPORTS)
+            + " = EXCLUDED.jsonb->>'contentHash' THEN '{}'::jsonb"
+            + " ELSE jsonb_build_object('report', EXCLUDED.report) END"
+            + " WHERE NOT (EXCLUDED.jsonb ? 'contentHash' AND "
+            + TABLE_NAME_COUNTER_REPORTS
+            + ".jsonb - 'id' - 'metadata' = EXCLUDED.jsonb - 'id' - 'metadata')");
+  }
+
+  /**
+   * Returns the SQL expression of the content hash of a counter_reports row. Rows saved without
+   * {@code contentHash} fall back to hashing their report data.
+   */
+  private static String contentHash(String alias) {
+    return "COALESCE(" + alias + ".jsonb->>'contentHash', md5(" + alias + ".report::text))";
+  }
+
+  private static Future<CounterReportsSaveResult> saveCounterReports(
+      Context vertxContext,
+      Map<String, String> okapiHeaders,
+      List<CounterReport> counterReports,
+      String onConflictClause) {
+    JsonArray reports = new JsonArray();
+    try {
+      for (CounterReport cr : counterReports) {
+        if (cr.getId() == null) {
+          cr.setId(UUID.randomUUID().toString());
+        }
+        reports.add(PostgresClient.pojo2JsonObject(cr));
+      }
+    } catch (Exception e) {
+      return Future.failedFuture(e);
+    }
+
+    // jsonb is normalized, so md5 of its text representation is a stable hash of the report data.
+    // The hash of an updated report is compared with the snapshot before the INSERT. Existing
+    // reports skipped by the ON CONFLICT clause are not returned by the INSERT, they are unchanged.
+    String sql =
+        "WITH input AS (SELECT (r->>'id')::uuid AS id, CASE WHEN r->'report' IS NULL THEN r - "
+            + "'contentHash' ELSE r || jsonb_build_object('contentHash', md5((r->'report')::text))"
+            + " END AS jsonb FROM jsonb_array_elements($1::jsonb) AS r),"
+            + " saved AS (INSERT INTO "
+            + TABLE_NAME_COUNTER_REPORTS
+            + " (id, jsonb) SELECT id, jsonb FROM input"
+            + onConflictClause
+            + " RETURNING id, jsonb, xmax = 0 AS inserted)"
+            + " SELECT s.id, s.jsonb->>'reportName', s.jsonb->>'release', s.jsonb->>'yearMonth',"
+            + " CASE WHEN s.inserted THEN 'NEW' WHEN EXISTS (SELECT 1 FROM "
+            + TABLE_NAME_COUNTER_REPORTS
+            + " c WHERE c.id = s.id AND "
+            + contentHash("c")
+            + " = s.jsonb->>'contentHash') THEN 'UNCHANGED' ELSE 'CHANGED' END FROM saved s"
+            + " UNION ALL SELECT c.id, c.jsonb->>'reportName', c.jsonb->>'release',"
+            + " c.jsonb->>'yearMonth', 'UNCHANGED' FROM input i JOIN "
+            + TABLE_NAME_COUNTER_REPORTS
+            + " c ON c.jsonb->>'providerId' = i.jsonb->>'providerId'"
+            + " AND c.jsonb->>'reportName' = i.jsonb->>'reportName'"
+            + " AND c.jsonb->>'release' = i.jsonb->>'release'"
+            + " AND c.jsonb->>'yearMonth' = i.jsonb->>'yearMonth'"
+            + " WHERE NOT EXISTS (SELECT 1 FROM saved s WHERE s.id = c.id)";
+    return PgUtil.postgresClient(vertxContext, okapiHeaders)
+        .execute(sql, Tuple.of(reports))
+        .onSuccess(rowSet -> FacetCache.invalidate(okapiHeaders))
+        .map(
+            rowSet -> {
+              // overwritten reports keep their id, set the saved ids on the CounterReports
+              Map<List<String>, Row> savedRows =
+                  StreamSupport.stream(rowSet.spliterator(), false)
+                      .collect(
+                          Collectors.toMap(
+                              row ->
+                                  Arrays.asList(
+                                      row.getString(1), row.getString(2), row.getString(3)),
+                              row -> row));
+              Map<String, CounterReportsSaveResult.Status> statusById = new LinkedHashMap<>();
+              counterReports.forEach(
+                  cr -> {
+                    Row row =
+                        savedRows.get(
+                            Arrays.asList(cr.getReportName(), cr.getRelease(), cr.getYearMonth()));
+                    cr.setId(row.getUUID(0).toString());
+                    statusById.put(
+                        cr.getId(), CounterReportsSaveResult.Status.valueOf(row.getString(4)));
+                  });
+              return new CounterReportsSaveResult(statusById);
+            })
+        .onSuccess(
+            result ->
+                StandardViewHelper.materializeOnIngest(
+                    vertxContext,
+                    okapiHeaders,
+                    result.getIds().stream()
+                        .filter(
+                            id ->
+                                result.getStatus(id) != CounterReportsSaveResult.Status.UNCHANGED)
+                        .toList()));
+  }
+
+  /**
+   * Returns the CounterReports present in the database for the providerId, reportName, release and
+   * yearMonth of the given reports.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapiHeaders
+   * @param counterReports CounterReports to check, must share providerId
+   * @return List of CounterReport
+   */
+  public static Future<List<CounterReport>> getExistingReports(
+      Context vertxContext, Map<String, String> okapiHeaders, List<CounterReport> counterReports) {
+    if (counterReports.isEmpty()) {
+      return Future.succeededFuture(List.of());
+    }
+    String providerId = counterReports.get(0).getProviderId();
+    Map<List<String>, List<String>> yearMonthsByReport =
+        counterReports.stream()
+            .collect(
+                Collectors.groupingBy(
+                    cr -> Arrays.asList(cr.getReportName(), cr.getRelease()),
+                    LinkedHashMap::new,
+                    Collectors.mapping(CounterReport::getYearMonth, Collectors.toList())));
+
+    return Future.all(
+            yearMonthsByReport.entrySet().stream()
+                .map(
+                    e ->
+                        getExistingReports(
+                            vertxContext,
+                            okapiHeaders,
+                            providerId,
+                            e.getKey().get(0),
+                            e.getKey().get(1),
+                            e.getValue()))
+                .toList())
+        .map(cf -> cf.<List<CounterReport>>list().stream().flatMap(List::stream).toList());
+  }
+
   /**
    * Returns those CounterReports that are present in the database.
    *
@@ -251,75 +339,66 @@ public class PgHelper {
     return result.future();
   }
 
-  // index: counter_reports_custom_errorcodes_idx
+  /** Gets the error codes of the tenant's failed counter reports, see {@link FacetCache}. */
   public static Future<ErrorCodes> getErrorCodes(
       Context vertxContext, Map<String, String> okapiHeaders) {
-    String query =
-        "SELECT DISTINCT(SUBSTRING(jsonb->>'failedReason','(?:Number=|\"Code\": ?)([0-9]{1,4})'))"
-            + " FROM counter_reports WHERE jsonb->>'failedReason' IS NOT NULL";
-    Promise<ErrorCodes> result = Promise.promise();
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .select(
-            query,
-            updateResultAsyncResult -> {
-              if (updateResultAsyncResult.succeeded()) {
-                List<String> collect =
-                    StreamSupport.stream(updateResultAsyncResult.result().spliterator(), false)
-                        .map(row -> Optional.ofNullable(row.getString(0)).orElse("other"))
-                        .toList();
-                ErrorCodes errorCodes = new ErrorCodes().withErrorCodes(collect);
-                result.complete(errorCodes);
-              } else {
-                result.fail(updateResultAsyncResult.cause());
-              }
-            });
-    return result.future();
+    return FacetCache.get(vertxContext, okapiHeaders)
+        .map(facets -> new ErrorCodes().withErrorCodes(facets.errorCodes()));
   }
 
+  /** Gets the report types of the tenant's counter reports, see {@link FacetCache}. */
   public static Future<ReportTypes> getReportTypes(
       Context vertxContext, Map<String, String> okapiHeaders) {
-    String query = "SELECT DISTINCT(jsonb->>'reportName') FROM counter_reports";
-    Promise<ReportTypes> result = Promise.promise();
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .select(
-            query,
-            ar -> {
-              if (ar.succeeded()) {
-                List<String> collect =
-                    StreamSupport.stream(ar.result().spliterator(), false)
-                        .map(row -> row.getString(0))
-                        .filter(Objects::nonNull)
-                        .toList();
-                ReportTypes reportTypes = new ReportTypes().withReportTypes(collect);
-                result.complete(reportTypes);
-              } else {
-                result.fail(ar.cause());
-              }
-            });
-    return result.future();
+    return FacetCache.get(vertxContext, okapiHeaders)
+        .map(facets -> new ReportTypes().withReportTypes(facets.reportTypes()));
   }
 
+  /** Gets the releases of the tenant's counter reports, see {@link FacetCache}. */
   public static Future<ReportReleases> getReportReleases(
       Context vertxContext, Map<String, String> okapiHeaders) {
-    String query =
-        "SELECT DISTINCT(jsonb->>'release') FROM counter_reports ORDER BY jsonb->>'release'";
-    Promise<ReportReleases> result = Promise.promise();
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .select(
-            query,
-            ar -> {
-              if (ar.succeeded()) {
-                List<String> collect =
-                    StreamSupport.stream(ar.result().spliterator(), false)
-                        .map(row -> row.getString(0))
-                        .filter(Objects::nonNull)
-                        .toList();
-                ReportReleases reportReleases = new ReportReleases().withReportReleases(collect);
-                result.complete(reportReleases);
-              } else {
-                result.fail(ar.cause());
+    return FacetCache.get(vertxContext, okapiHeaders)
+        .map(facets -> new ReportReleases().withReportReleases(facets.reportReleases()));
+  }
+
+  /**
+   * Gets the labels of usage data providers, either of the providers with the given ids or of all
+   * providers harvested via an aggregator.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers
+   * @param providerIds ids of the providers, ignored if {@code aggregatorId} is set
+   * @param aggregatorId id of the aggregator, or {@code null}
+   * @return a Future completed with the labels by provider id, in the order of {@code providerIds}
+   *     or ordered by label. Requested ids of providers that don't exist map to {@code null}.
+   */
+  public static Future<Map<String, String>> getUsageDataProviderLabels(
+      Context vertxContext,
+      Map<String, String> okapiHeaders,
+      List<String> providerIds,
+      String aggregatorId) {
+    String query;
+    Tuple params;
+    if (aggregatorId != null) {
+      query =
+          "SELECT id, jsonb->>'label' FROM "
+              + TABLE_NAME_UDP
+              + " WHERE jsonb->'harvestingConfig'->'aggregator'->>'id' = $1"
+              + " ORDER BY jsonb->>'label', id";
+      params = Tuple.of(aggregatorId);
+    } else {
+      query = "SELECT id, jsonb->>'label' FROM " + TABLE_NAME_UDP + " WHERE id = ANY($1::uuid[])";
+      params = Tuple.of(providerIds.toArray(String[]::new));
+    }
+    return PgUtil.postgresClient(vertxContext, okapiHeaders)
+        .execute(query, params)
+        .map(
+            rowSet -> {
+              Map<String, String> labels = new LinkedHashMap<>();
+              if (aggregatorId == null) {
+                providerIds.forEach(id -> labels.put(id, null));
               }
+              rowSet.forEach(row -> labels.put(row.getUUID(0).toString(), row.getString(1)));
+              return labels;
             });
-    return result.future();
   }
 }
@@ -5,14 +5,28 @@ import static org.folio.rest.util.ReportUploadErrorCode.INVALID_REPORT_CONTENT;
 import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_REPORT_TYPE;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.vertx.core.json.Json;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.jackson.DatabindCodec;
+import java.io.IOException;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.niso.schemas.counter.Report;
@@ -32,11 +46,25 @@ import org.openapitools.counter50.model.SUSHIReportHeaderReportAttributes;
 public class ProcessorHelper {
 
   private static final String ATTRIBUTES_TO_SHOW = "Attributes_To_Show";
+  private static final String DECODE_POOL_SIZE_ENV = "UPLOAD_DECODE_POOL_SIZE";
+  private static final int DEFAULT_DECODE_POOL_SIZE = 2;
+  private static final String DECODE_POOL_NAME = "erm-usage-decode";
   private static final Map<String, List<SUSHIReportHeaderReportAttributes>> SUPPORTED_REPORTS =
       initSupportedReports();
 
   private ProcessorHelper() {}
 
+  /**
+   * Holds the size of the worker pool used to decode the months of a split report concurrently.
+   * The size defaults to 2 and is configured by the {@code UPLOAD_DECODE_POOL_SIZE} environment
+   * variable, a size of 1 disables concurrent decoding.
+   */
+  private static class DecodePoolSizeHolder {
+
+    private static final int POOL_SIZE =
+        ConfigUtil.getPositiveIntFromEnv(DECODE_POOL_SIZE_ENV, DEFAULT_DECODE_POOL_SIZE);
+  }
+
   private static Map<String, List<SUSHIReportHeaderReportAttributes>> initSupportedReports() {
     return Map.of(
         "Title Master Report",
@@ -151,10 +179,89 @@ public class ProcessorHelper {
     }
 
     List<?> splitReports = splitReport(report, version);
-    return splitReports.stream()
-        .map(r -> createCounterReport(r, reportName, version))
-        .flatMap(Optional::stream)
-        .toList();
+    WorkerExecutor executor = createDecodeExecutor();
+    try {
+      return mapInOrder(
+              splitReports, r -> createCounterReport(r, reportName, version), executor)
+          .stream()
+          .flatMap(Optional::stream)
+          .toList();
+    } finally {
+      if (executor != null) {
+        executor.close();
+      }
+    }
+  }
+
+  /**
+   * Creates an executor on the shared {@value #DECODE_POOL_NAME} worker pool of the current Vertx
+   * instance, the caller has to close it.
+   *
+   * @return the executor, {@code null} if decoding is sequential or there is no Vertx context
+   */
+  private static WorkerExecutor createDecodeExecutor() {
+    Context context = Vertx.currentContext();
+    if (context == null || DecodePoolSizeHolder.POOL_SIZE < 2) {
+      return null;
+    }
+    return context
+        .owner()
+        .createSharedWorkerExecutor(DECODE_POOL_NAME, DecodePoolSizeHolder.POOL_SIZE);
+  }
+
+  /**
+   * Applies {@code mapper} to all items, concurrently if an executor is given. The results keep the
+   * order of {@code items}. If mappings fail, the exception of the first failed item in order is
+   * rethrown, as it would be by a sequential mapping.
+   *
+   * @param items the items to map
+   * @param mapper the mapping function
+   * @param executor Vertx worker executor to run the mappings on, maps sequentially if {@code null}
+   * @return the mapped items
+   */
+  static <T, R> List<R> mapInOrder(
+      List<T> items, Function<? super T, R> mapper, WorkerExecutor executor) {
+    if (executor == null || items.size() < 2) {
+      return items.stream().<R>map(mapper).toList();
+    }
+
+    // items after a failed item are skipped if they have not been started yet
+    AtomicInteger firstFailed = new AtomicInteger(Integer.MAX_VALUE);
+    List<CompletableFuture<R>> futures =
+        IntStream.range(0, items.size())
+            .mapToObj(
+                i ->
+                    executor
+                        .<R>executeBlocking(
+                            () -> {
+                              if (i > firstFailed.get()) {
+                                throw new CancellationException();
+                              }
+                              return mapper.apply(items.get(i));
+                            },
+                            false)
+                        .onFailure(t -> firstFailed.accumulateAndGet(i, Math::min))
+                        .toCompletionStage()
+                        .toCompletableFuture())
+            .toList();
+    List<R> results = new ArrayList<>(items.size());
+    try {
+      for (CompletableFuture<R> future : futures) {
+        results.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      } else if (e.getCause() instanceof Error err) {
+        throw err;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      firstFailed.set(-1);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+    return results;
   }
 
   private static List<?> splitReport(Object report, ReportReleaseVersion version)
@@ -193,16 +300,45 @@ public class ProcessorHelper {
     };
   }
 
-  private static org.folio.rest.jaxrs.model.Report decodeReport(
+  /**
+   * Converts a split report into a {@link org.folio.rest.jaxrs.model.Report} object-to-object,
+   * without writing and re-parsing a JSON string. The report is serialized into a {@link
+   * TokenBuffer} by the {@code ObjectMapper} of {@link #getDecodeMapper}, the tokens are then
+   * deserialized. R4 reports are deserialized by Vert.x's mapper, as their JSON string was before.
+   */
+  static org.folio.rest.jaxrs.model.Report decodeReport(
       Object report, ReportReleaseVersion version) {
+    ObjectMapper mapper = getDecodeMapper(version);
+    if (version != ReportReleaseVersion.R4) {
+      return mapper.convertValue(report, org.folio.rest.jaxrs.model.Report.class);
+    }
+    try (TokenBuffer buffer = new TokenBuffer(mapper, false)) {
+      mapper.writeValue(buffer, report);
+      return DatabindCodec.mapper()
+          .readValue(
+              buffer.asParser(DatabindCodec.mapper()), org.folio.rest.jaxrs.model.Report.class);
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode report: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the {@code ObjectMapper} that serializes split reports of a release.
+   *
+   * @param version the COUNTER release version
+   * @return the mapper
+   */
+  static ObjectMapper getDecodeMapper(ReportReleaseVersion version) {
     return switch (version) {
-      case R4 ->
-          Json.decodeValue(
-              Counter4Utils.toJSON((Report) report), org.folio.rest.jaxrs.model.Report.class);
-      case R5 -> Json.decodeValue(Json.encode(report), org.folio.rest.jaxrs.model.Report.class);
-      case R51 ->
-          Counter51Utils.getDefaultObjectMapper()
-              .convertValue(report, org.folio.rest.jaxrs.model.Report.class);
+      case R4 -> Counter4MapperHolder.MAPPER;
+      case R5 -> DatabindCodec.mapper();
+      case R51 -> Counter51Utils.getDefaultObjectMapper();
     };
   }
+
+  /** Holds the mapper {@link Counter4Utils#toJSON} serializes R4 reports with, created once. */
+  private static class Counter4MapperHolder {
+
+    private static final ObjectMapper MAPPER = Counter4Utils.createObjectMapper();
+  }
 }
@@ -1,19 +1,24 @@
 package org.folio.rest.util;
 
-import static io.vertx.core.Future.succeededFuture;
+import static io.vertx.core.Future.failedFuture;
 
-import com.google.common.io.ByteStreams;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 import javax.ws.rs.core.Response;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.resource.CounterReports.GetCounterReportsDownloadByIdResponse;
@@ -24,7 +29,6 @@ import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.utils.BinaryOutStream;
 import org.niso.schemas.counter.Report;
-import org.olf.erm.usage.counter.common.ExcelUtil;
 import org.olf.erm.usage.counter41.Counter4Utils;
 import org.olf.erm.usage.counter50.Counter5Utils;
 import org.olf.erm.usage.counter50.Counter5Utils.Counter5UtilsException;
@@ -40,7 +44,16 @@ public class ReportExportHelper {
   public static final String NO_CSV_MAPPER_AVAILABLE = "No csv mapper available";
   public static final String UNSUPPORTED_COUNTER_VERSION_MSG =
       "Requested counter version \"%s\" is not supported.";
-  private static final List<String> SUPPORTED_FORMATS = List.of("csv", "xlsx");
+  public static final List<String> STREAMING_EXPORT_VERSIONS = List.of("4", "5", "5.1");
+  /** Number of months fetched per round trip when exporting multiple months. */
+  public static final int EXPORT_FETCH_SIZE =
+      ConfigUtil.getPositiveIntFromEnv("EXPORT_FETCH_SIZE", 4);
+  public static final List<String> SUPPORTED_FORMATS = List.of("csv", "xlsx");
+  private static final String CSV_CONTENT_TYPE = "text/csv";
+  private static final String JSON_CONTENT_TYPE = "application/json";
+  private static final String XML_CONTENT_TYPE = "application/xml";
+  private static final String XLSX_CONTENT_TYPE =
+      "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
   private static final String XLSX_ERR_MSG = "An error occured while creating xlsx data: %s";
 
   private ReportExportHelper() {}
@@ -68,8 +81,6 @@ public class ReportExportHelper {
             .addField(Constants.FIELD_NAME_RELEASE)
             .setOperation(Constants.OPERATOR_EQUALS)
             .setVal(reportVersion);
-    Criteria reportCrit =
-        new Criteria().addField("jsonb").setJSONB(false).setOperation("?").setVal("report");
     Criteria yearMonthBeginCrit =
         new Criteria()
             .addField(Constants.FIELD_NAME_YEAR_MONTH)
@@ -85,13 +96,13 @@ public class ReportExportHelper {
             .addCriterion(providerCrit)
             .addCriterion(reportNameCrit)
             .addCriterion(releaseCrit)
-            .addCriterion(reportCrit)
             .addCriterion(yearMonthBeginCrit)
             .addCriterion(yearMonthEndCrit);
     return new CQLWrapper(criterion);
   }
 
-  public static Response createDownloadResponseByReportVersion(CounterReport report) {
+  public static Response createDownloadResponseByReportVersion(
+      CounterReport report, boolean pretty) {
     if (report.getRelease().equals("4")) {
       return Optional.ofNullable(report.getReport())
           .map(Json::encode)
@@ -100,11 +111,51 @@ public class ReportExportHelper {
           .orElse(null);
     }
     return Optional.ofNullable(report.getReport())
-        .map(Json::encodePrettily)
+        .map(pretty ? Json::encodePrettily : Json::encode)
         .map(GetCounterReportsDownloadByIdResponse::respond200WithApplicationJson)
         .orElse(null);
   }
 
+  /**
+   * Writes the download of a report in its original format to a chunked {@code response}, XML for
+   * COUNTER 4 and JSON otherwise. JSON reports are written as they are read from the database,
+   * without decoding them, unless {@code pretty} is set.
+   *
+   * @param vertxContext Vertx context
+   * @param release the COUNTER release of the report
+   * @param report the JSON text of the report
+   * @param pretty whether to pretty print JSON reports
+   * @param response the response to write to, compressed if negotiated, see {@link
+   *     ResponseCompression#negotiate}
+   * @return a Future that completes once the response has been ended
+   */
+  public static Future<Void> writeDownload(
+      Context vertxContext,
+      String release,
+      String report,
+      boolean pretty,
+      HttpServerResponse response) {
+    return vertxContext.executeBlocking(
+        () -> {
+          String download;
+          String contentType;
+          if ("4".equals(release)) {
+            download = Counter4Utils.toXML(report);
+            contentType = XML_CONTENT_TYPE;
+          } else {
+            download = pretty ? new JsonObject(report).encodePrettily() : report;
+            contentType = JSON_CONTENT_TYPE;
+          }
+          if (download == null) {
+            throw new IOException("Error while downloading report");
+          }
+          OutputStream out = ResponseCompression.openChunked(response, contentType);
+          out.write(download.getBytes(StandardCharsets.UTF_8));
+          out.close();
+          return null;
+        });
+  }
+
   private static String createCsvFromCounterReport(CounterReport cr) throws IOException {
     return switch (cr.getRelease()) {
       case "4" -> counter4ReportToCsv(cr);
@@ -127,15 +178,37 @@ public class ReportExportHelper {
     return report == null ? null : Counter4Utils.toCSV(report);
   }
 
-  private static String counter5ReportToCsv(CounterReport counterReport) {
+  private static String counter5ReportToCsv(CounterReport counterReport) throws IOException {
     Object report = ReportExportHelper.internalReportToCOP5Report(counterReport);
-    return report == null ? null : replaceCreated(replaceCreatedBy(Counter5Utils.toCSV(report)));
+    return report == null ? null : rewriteCsvHeader(Counter5Utils.toCSV(report));
   }
 
   private static String counter51ReportToCsv(CounterReport counterReport) throws IOException {
+    return counter51ToCsv(counterReport.getReport());
+  }
+
+  private static String counter51ToCsv(Object report) throws IOException {
     StringWriter stringWriter = new StringWriter();
-    Counter51Utils.writeReportAsCsv(counterReport.getReport(), stringWriter);
-    return replaceCreated(replaceCreatedBy(stringWriter.toString()));
+    // the header is rewritten while it is written, the report items are passed through
+    try (Writer writer = new CsvReportHeaderWriter(stringWriter)) {
+      Counter51Utils.writeReportAsCsv(report, writer);
+    }
+    return stringWriter.toString();
+  }
+
+  /**
+   * Rewrites the {@code Created} and {@code Created_By} lines of the header of a COUNTER CSV
+   * report. Only the header lines are inspected, unlike {@link #replaceCreated(String)} and {@link
+   * #replaceCreatedBy(String)} that scan the whole report.
+   */
+  static String rewriteCsvHeader(String csvReport) throws IOException {
+    if (csvReport == null) return null;
+    StringWriter stringWriter =
+        new StringWriter(csvReport.length() + CREATED_BY_SUFFIX.length() + 1);
+    try (Writer writer = new CsvReportHeaderWriter(stringWriter)) {
+      writer.write(csvReport);
+    }
+    return stringWriter.toString();
   }
 
   public static String replaceCreatedBy(String csvReport) {
@@ -150,94 +223,206 @@ public class ReportExportHelper {
     return csvReport.replaceFirst("(?m)^Created,.*$", "Created," + ClockProvider.nowFormatted());
   }
 
-  private static Response createExportMultipleMonthsResponseByFormat(
-      String csvString, String format) {
-    if ("xlsx".equals(format)) {
-      try {
-        InputStream in = ExcelUtil.fromCSV(csvString);
-        BinaryOutStream bos = new BinaryOutStream();
-        bos.setData(ByteStreams.toByteArray(in));
-        return GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
-            .respond200WithApplicationVndOpenxmlformatsOfficedocumentSpreadsheetmlSheet(bos);
-      } catch (IOException e) {
-        return GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
-            .respond500WithTextPlain(String.format(XLSX_ERR_MSG, e.getMessage()));
-      }
-    }
-    return GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
-        .respond200WithTextCsv(csvString);
+  /**
+   * Creates the export of multiple months as the response entity of RMB's generated handler. The
+   * export is written by {@link #writeExport} like {@link #writeExportMultipleMonths} does, but to
+   * a buffer instead of a chunked response. The route set up in PostDeployImpl streams exports, so
+   * this is only used if that route passes a request on.
+   *
+   * @param vertxContext Vertx context
+   * @param rowStream the months of the report, first column holds the JSON text of the report
+   * @param reportName the name of the report or Standard View
+   * @param version the COUNTER release, one of {@link #STREAMING_EXPORT_VERSIONS}
+   * @param format the export format, one of {@link #SUPPORTED_FORMATS}
+   * @return a Future completed with the response
+   */
+  public static Future<Response> createExportMultipleMonthsResponse(
+      Context vertxContext,
+      RowStream<Row> rowStream,
+      String reportName,
+      String version,
+      String format) {
+    return mergeExportMultipleMonths(vertxContext, rowStream, reportName, version)
+        .compose(
+            content ->
+                vertxContext.executeBlocking(
+                    () -> {
+                      ByteArrayOutputStream out = new ByteArrayOutputStream();
+                      writeExport(out, format, !"4".equals(version), content);
+                      if ("xlsx".equals(format)) {
+                        BinaryOutStream bos = new BinaryOutStream();
+                        bos.setData(out.toByteArray());
+                        return GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
+                            .respond200WithApplicationVndOpenxmlformatsOfficedocumentSpreadsheetmlSheet(
+                                bos);
+                      }
+                      return GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
+                          .respond200WithTextCsv(out.toString(StandardCharsets.UTF_8));
+                    }));
   }
 
-  public static Future<Response> createExportMultipleMonthsResponseByReportVersion(
+  /**
+   * Writes the export of multiple months to a chunked {@code response}. The months are merged while
+   * they come off the {@code rowStream}, the CSV is then written to the response in chunks without
+   * collecting it in memory. For the {@code xlsx} format the CSV records are added to a streaming
+   * workbook row by row instead. The {@code Created} and {@code Created_By} header lines are
+   * rewritten while writing.
+   *
+   * <p>If the returned Future fails and the response head was already written, the response can't
+   * be turned into an error response anymore and should be reset.
+   *
+   * @param vertxContext Vertx context
+   * @param rowStream the months of the report, first column holds the JSON text of the report
+   * @param reportName the name of the report or Standard View
+   * @param version the COUNTER release, one of {@link #STREAMING_EXPORT_VERSIONS}
+   * @param format the export format, one of {@link #SUPPORTED_FORMATS}
+   * @param response the response to write to
+   * @param outputDecorator applied to the stream the export is written to, e.g. to capture it
+   * @return a Future that completes once the response has been ended
+   */
+  public static Future<Void> writeExportMultipleMonths(
       Context vertxContext,
       RowStream<Row> rowStream,
       String reportName,
+      String version,
       String format,
-      String version) {
-    if (!SUPPORTED_FORMATS.contains(format)) {
-      return succeededFuture(
-          GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
-              .respond400WithTextPlain(String.format(UNSUPPORTED_FORMAT_MSG, format)));
-    }
+      HttpServerResponse response,
+      UnaryOperator<OutputStream> outputDecorator) {
+    return mergeExportMultipleMonths(vertxContext, rowStream, reportName, version)
+        .compose(
+            content ->
+                vertxContext.executeBlocking(
+                    () -> {
+                      writeExport(
+                          outputDecorator.apply(
+                              ResponseCompression.openChunked(response, getContentType(format))),
+                          format,
+                          !"4".equals(version),
+                          content);
+                      return null;
+                    }));
+  }
 
+  /**
+   * Merges the months of a report while they come off the {@code rowStream}.
+   *
+   * @param vertxContext Vertx context
+   * @param rowStream the months of the report, first column holds the JSON text of the report
+   * @param reportName the name of the report or Standard View
+   * @param version the COUNTER release, one of {@link #STREAMING_EXPORT_VERSIONS}
+   * @return a Future completed with the CSV of the merged report, to be written on a worker thread.
+   *     The CSV of COUNTER 4 and 5 reports is created before the Future completes, so it fails if
+   *     the report can't be mapped to CSV.
+   */
+  static Future<CsvContent> mergeExportMultipleMonths(
+      Context vertxContext, RowStream<Row> rowStream, String reportName, String version) {
     if ("4".equals(version)) {
       return new RowStreamHandlerR4(vertxContext)
           .handle(rowStream)
-          .compose(report -> executeCounter4ToCsv(vertxContext, report))
           .compose(
-              csv -> executeCreateExportMultipleMonthsResponseByFormat(vertxContext, format, csv));
+              report ->
+                  vertxContext.executeBlocking(
+                      () -> csvContent(Counter4Utils.toCSV(report)), false));
     } else if ("5".equals(version)) {
       return new RowStreamHandlerR5(vertxContext, reportName)
           .handle(rowStream)
-          .compose(obj -> executeCounter5ToCsv(vertxContext, obj))
-          .compose(str -> vertxContext.executeBlocking(() -> replaceCreated(replaceCreatedBy(str))))
           .compose(
-              csv -> executeCreateExportMultipleMonthsResponseByFormat(vertxContext, format, csv));
+              obj ->
+                  vertxContext.executeBlocking(() -> csvContent(Counter5Utils.toCSV(obj)), false));
     } else if ("5.1".equals(version)) {
-      return new RowStreamHandlerR51(vertxContext, reportName)
+      RowStreamHandlerR51 rowStreamHandler;
+      try {
+        rowStreamHandler = new RowStreamHandlerR51(vertxContext, reportName);
+      } catch (IllegalArgumentException e) {
+        rowStream.close();
+        return failedFuture(e);
+      }
+      return rowStreamHandler
           .handle(rowStream)
-          .compose(obj -> executeCounter51ToCsv(vertxContext, obj))
-          .compose(str -> vertxContext.executeBlocking(() -> replaceCreated(replaceCreatedBy(str))))
-          .compose(
-              csv -> executeCreateExportMultipleMonthsResponseByFormat(vertxContext, format, csv));
-    } else {
-      Promise<Response> promise = Promise.promise();
-      rowStream.handler(row -> {});
-      rowStream.endHandler(
-          v ->
-              promise.complete(
-                  GetCounterReportsExportProviderReportVersionFromToByIdAndNameAndAversionAndBeginAndEndResponse
-                      .respond400WithTextPlain(
-                          String.format(UNSUPPORTED_COUNTER_VERSION_MSG, version))));
-      return promise.future();
+          .map(obj -> writer -> Counter51Utils.writeReportAsCsv(obj, writer));
     }
+    rowStream.close();
+    return failedFuture(String.format(UNSUPPORTED_COUNTER_VERSION_MSG, version));
   }
 
-  private static Future<String> executeCounter5ToCsv(Context vertxContext, Object obj) {
-    return vertxContext.executeBlocking(() -> Counter5Utils.toCSV(obj));
-  }
-
-  private static Future<String> executeCounter51ToCsv(Context vertxContext, Object obj) {
+  /**
+   * Writes a cached export of multiple months to a chunked {@code response}. The {@code Created}
+   * and {@code Created_By} header lines of CSV exports are rewritten again, so the {@code Created}
+   * date is the one of the request.
+   *
+   * @param vertxContext Vertx context
+   * @param export the export as written by {@link #writeExportMultipleMonths}
+   * @param version the COUNTER release
+   * @param format the export format, one of {@link #SUPPORTED_FORMATS}
+   * @param response the response to write to
+   * @return a Future that completes once the response has been ended
+   */
+  public static Future<Void> writeCachedExportMultipleMonths(
+      Context vertxContext,
+      byte[] export,
+      String version,
+      String format,
+      HttpServerResponse response) {
     return vertxContext.executeBlocking(
         () -> {
-          StringWriter stringWriter = new StringWriter();
-          try {
-            Counter51Utils.writeReportAsCsv(obj, stringWriter);
-            return stringWriter.toString();
-          } catch (IOException e) {
-            throw new RuntimeException(e);
+          OutputStream out = ResponseCompression.openChunked(response, getContentType(format));
+          if ("xlsx".equals(format)) {
+            out.write(export);
+            out.close();
+          } else {
+            writeExport(
+                out,
+                format,
+                !"4".equals(version),
+                writer -> writer.write(new String(export, StandardCharsets.UTF_8)));
           }
+          return null;
         });
   }
 
-  private static Future<Response> executeCreateExportMultipleMonthsResponseByFormat(
-      Context vertxContext, String format, String csv) {
-    return vertxContext.executeBlocking(
-        () -> createExportMultipleMonthsResponseByFormat(csv, format));
+  /**
+   * Writes the CSV of an export in {@code format} to {@code out}, which is closed on success.
+   *
+   * @param out the stream to write to
+   * @param format the export format, one of {@link #SUPPORTED_FORMATS}
+   * @param rewriteHeader whether to rewrite the {@code Created} and {@code Created_By} header lines
+   * @param content the CSV
+   * @throws IOException if the export can't be written
+   */
+  static void writeExport(
+      OutputStream out, String format, boolean rewriteHeader, CsvContent content)
+      throws IOException {
+    XlsxCsvWriter xlsxWriter = null;
+    Writer writer;
+    if ("xlsx".equals(format)) {
+      xlsxWriter = new XlsxCsvWriter(out);
+      writer = xlsxWriter;
+    } else {
+      writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+    if (rewriteHeader) {
+      writer = new CsvReportHeaderWriter(writer);
+    }
+    try {
+      content.writeTo(writer);
+      // the writer is only closed on success, closing a response stream ends the response
+      writer.close();
+    } finally {
+      if (xlsxWriter != null) {
+        xlsxWriter.discard();
+      }
+    }
   }
 
-  private static Future<String> executeCounter4ToCsv(Context vertxContext, Report report) {
-    return vertxContext.executeBlocking(() -> Counter4Utils.toCSV(report));
+  static String getContentType(String format) {
+    return "xlsx".equals(format) ? XLSX_CONTENT_TYPE : CSV_CONTENT_TYPE;
+  }
+
+  private static CsvContent csvContent(String csv) throws IOException {
+    if (csv == null) {
+      throw new IOException(NO_CSV_MAPPER_AVAILABLE);
+    }
+    return writer -> writer.write(csv);
   }
 
   public static Response createExportResponseByFormat(CounterReport cr, String format) {
@@ -266,9 +451,8 @@ public class ReportExportHelper {
             s -> {
               if ("xlsx".equals(format)) {
                 try {
-                  InputStream in = ExcelUtil.fromCSV(s);
                   BinaryOutStream bos = new BinaryOutStream();
-                  bos.setData(ByteStreams.toByteArray(in));
+                  bos.setData(XlsxCsvWriter.toXlsx(s));
                   return GetCounterReportsExportByIdResponse
                       .respond200WithApplicationVndOpenxmlformatsOfficedocumentSpreadsheetmlSheet(
                           bos);
@@ -283,6 +467,12 @@ public class ReportExportHelper {
             GetCounterReportsExportByIdResponse.respond500WithTextPlain(NO_CSV_MAPPER_AVAILABLE));
   }
 
+  @FunctionalInterface
+  interface CsvContent {
+
+    void writeTo(Writer writer) throws IOException;
+  }
+
   private static class CounterReportAPIRuntimeException extends RuntimeException {
 
     public CounterReportAPIRuntimeException(Throwable cause) {
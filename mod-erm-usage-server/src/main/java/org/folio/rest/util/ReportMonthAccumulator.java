@@ -0,0 +1,174 @@
+package org.folio.rest.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+/**
+ * Accumulates the months of a report into a single report. The report items of a month are added
+ * to the items of the earlier months keyed by their identity, i.e. all fields of an item except its
+ * usage, like title, platform and attributes. The usage of an item already added is appended to
+ * the existing item, so adding a month takes O(items-in-month) instead of walking the whole
+ * accumulated report. The months without their items, like the report header, are merged by a
+ * {@link MergeAccumulator} with the merge of the COUNTER library.
+ *
+ * <p>The usage field of an item either holds a list of performances, which is appended, or an
+ * object of metrics with the counts per month, whose months are added to the same metric.
+ *
+ * <p>Not thread-safe.
+ *
+ * @param <T> the report type
+ */
+class ReportMonthAccumulator<T> {
+
+  /**
+   * A month of a report, split into the report without its items and the items as JSON.
+   *
+   * @param report the report without items
+   * @param items the report items, may be {@code null}
+   */
+  record Month<T>(T report, ArrayNode items) {}
+
+  private final MergeAccumulator<T> reports;
+  private final String usageField;
+  private final Set<String> nestedItemFields;
+  private final ArrayNode items = JsonNodeFactory.instance.arrayNode();
+  private final Items accumulatedItems = new Items(items);
+
+  /**
+   * @param merge merges two reports without items, the first one containing the earlier months
+   * @param usageField name of the field of an item holding its usage
+   * @param nestedItemFields names of the fields of an item holding lists of nested items, which
+   *     are accumulated by their identity as well
+   */
+  ReportMonthAccumulator(BinaryOperator<T> merge, String usageField, String... nestedItemFields) {
+    this.reports = new MergeAccumulator<>(merge);
+    this.usageField = usageField;
+    this.nestedItemFields = Set.of(nestedItemFields);
+  }
+
+  /**
+   * Adds a month, its items are taken over and must not be modified afterwards.
+   *
+   * @param month the month to add
+   */
+  void add(Month<T> month) {
+    reports.add(month.report());
+    if (month.items() != null) {
+      accumulatedItems.add(month.items());
+    }
+  }
+
+  /**
+   * @return the merged reports without items, {@code null} if no month was added
+   */
+  T report() {
+    return reports.result();
+  }
+
+  /**
+   * @return the accumulated report items
+   */
+  ArrayNode items() {
+    return items;
+  }
+
+  /** Returns the fields of an item except its usage and nested items. */
+  private JsonNode identity(ObjectNode item) {
+    ObjectNode identity = JsonNodeFactory.instance.objectNode();
+    for (Iterator<Entry<String, JsonNode>> it = item.fields(); it.hasNext(); ) {
+      Entry<String, JsonNode> field = it.next();
+      if (!field.getKey().equals(usageField) && !nestedItemFields.contains(field.getKey())) {
+        identity.set(field.getKey(), field.getValue());
+      }
+    }
+    return identity;
+  }
+
+  /** A list of accumulated items, indexed by their identity. */
+  private final class Items {
+
+    private final ArrayNode nodes;
+    private final Map<JsonNode, Item> index = new HashMap<>();
+
+    private Items(ArrayNode nodes) {
+      this.nodes = nodes;
+      for (JsonNode node : nodes) {
+        if (node instanceof ObjectNode item) {
+          index.putIfAbsent(identity(item), new Item(item));
+        }
+      }
+    }
+
+    private void add(ArrayNode monthItems) {
+      for (JsonNode node : monthItems) {
+        if (!(node instanceof ObjectNode monthItem)) {
+          nodes.add(node);
+          continue;
+        }
+        JsonNode identity = identity(monthItem);
+        Item item = index.get(identity);
+        if (item == null) {
+          index.put(identity, new Item(monthItem));
+          nodes.add(monthItem);
+        } else {
+          item.add(monthItem);
+        }
+      }
+    }
+  }
+
+  /** An accumulated item, its nested items are indexed when they are first added to. */
+  private final class Item {
+
+    private final ObjectNode node;
+    private final Map<String, Items> nested = new HashMap<>();
+
+    private Item(ObjectNode node) {
+      this.node = node;
+    }
+
+    private void add(ObjectNode monthItem) {
+      for (String field : nestedItemFields) {
+        if (monthItem.get(field) instanceof ArrayNode monthNested) {
+          nested
+              .computeIfAbsent(
+                  field,
+                  f -> new Items(node.get(f) instanceof ArrayNode a ? a : node.putArray(f)))
+              .add(monthNested);
+        }
+      }
+      addUsage(monthItem.get(usageField));
+    }
+
+    private void addUsage(JsonNode monthUsage) {
+      JsonNode usage = node.get(usageField);
+      if (monthUsage == null || monthUsage.isNull()) {
+        return;
+      }
+      if (usage instanceof ArrayNode performances && monthUsage instanceof ArrayNode monthArray) {
+        performances.addAll(monthArray);
+      } else if (usage instanceof ObjectNode metrics
+          && monthUsage instanceof ObjectNode monthMetrics) {
+        for (Iterator<Entry<String, JsonNode>> it = monthMetrics.fields(); it.hasNext(); ) {
+          Entry<String, JsonNode> metric = it.next();
+          if (metrics.get(metric.getKey()) instanceof ObjectNode counts
+              && metric.getValue() instanceof ObjectNode monthCounts) {
+            counts.setAll(monthCounts);
+          } else {
+            metrics.set(metric.getKey(), metric.getValue());
+          }
+        }
+      } else {
+        node.set(usageField, monthUsage);
+      }
+    }
+  }
+}
@@ -5,7 +5,11 @@ import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_REPORT_RELEA
 
 import com.fasterxml.jackson.databind.JsonNode;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -49,10 +53,45 @@ public class ReportUploadCsvProcessor implements ReportUploadProcessor {
     }
   }
 
+  /**
+   * Processes a CSV report from a file. The release version is determined from the first rows of
+   * the file. COUNTER 5.1 reports are parsed directly from the file, other releases are read into
+   * memory as the underlying parsers require the whole content.
+   *
+   * @param reportFile the {@link Path} of the file containing the report data
+   * @return a list of {@link CounterReport} objects parsed from the file
+   * @throws ReportUploadException if there's an error in processing the file content
+   */
+  @Override
+  public List<CounterReport> process(Path reportFile) throws ReportUploadException {
+    try {
+      ReportReleaseVersion reportReleaseVersion;
+      try (Reader reader = Files.newBufferedReader(reportFile, StandardCharsets.UTF_8)) {
+        reportReleaseVersion = getReportReleaseVersionFromCsv(reader, csvFormat);
+      }
+      if (reportReleaseVersion == ReportReleaseVersion.R51) {
+        try (Reader reader = Files.newBufferedReader(reportFile, StandardCharsets.UTF_8)) {
+          JsonNode report = Counter51Utils.createReportFromCsv(reader, csvFormat);
+          return ProcessorHelper.processR51JsonReport(report);
+        }
+      }
+      return process(new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8));
+    } catch (ReportUploadException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ReportUploadException(INVALID_REPORT_CONTENT, e);
+    }
+  }
+
   public static ReportReleaseVersion getReportReleaseVersionFromCsv(
       String content, CSVFormat csvFormat) throws IOException, ReportUploadException {
+    return getReportReleaseVersionFromCsv(new StringReader(content), csvFormat);
+  }
+
+  private static ReportReleaseVersion getReportReleaseVersionFromCsv(
+      Reader reader, CSVFormat csvFormat) throws IOException, ReportUploadException {
     List<CSVRecord> firstRows;
-    try (CSVParser csvParser = CSVParser.parse(content, csvFormat)) {
+    try (CSVParser csvParser = CSVParser.parse(reader, csvFormat)) {
       firstRows = csvParser.stream().limit(3).toList();
     }
 
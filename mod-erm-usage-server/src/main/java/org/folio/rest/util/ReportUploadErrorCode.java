@@ -3,7 +3,7 @@ package org.folio.rest.util;
 public enum ReportUploadErrorCode {
   INVALID_REPORT_CONTENT("The report content is invalid."),
   MAXIMUM_FILESIZE_EXCEEDED("The file size exceeds the maximum allowed size."),
-  MULTIPLE_FILES_NOT_SUPPORTED("Upload of multiple files is not supported."),
+  MAXIMUM_FILES_EXCEEDED("The number of files exceeds the maximum allowed number."),
   OTHER("The report could not be processed."),
   REPORTS_ALREADY_PRESENT("One or more reports already exist for the time period."),
   UNSUPPORTED_FILE_FORMAT("The file format is not supported."),
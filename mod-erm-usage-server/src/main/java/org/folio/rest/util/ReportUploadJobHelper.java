@@ -0,0 +1,184 @@
+package org.folio.rest.util;
+
+import static org.folio.rest.util.Constants.TABLE_NAME_REPORT_UPLOAD_JOBS;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Tuple;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.rest.jaxrs.model.ReportUploadError;
+import org.folio.rest.jaxrs.model.ReportUploadJob;
+import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Helper for asynchronous report upload jobs. Jobs are persisted in the {@code report_upload_jobs}
+ * table and their blocking work runs on a bounded worker pool shared by all tenants. The pool size
+ * is configured by the {@code UPLOAD_JOB_POOL_SIZE} environment variable.
+ *
+ * <p>Running jobs renew the {@code updatedDate} of their metadata periodically, see {@link
+ * #startHeartbeat}. Jobs that are still pending or in progress without having been updated for
+ * {@code UPLOAD_JOB_STALE_MINUTES} were interrupted, e.g. by a restart of the module, and are
+ * marked as failed. Completed and failed jobs are deleted after {@code
+ * UPLOAD_JOB_RETENTION_DAYS}, see {@link #cleanUpJobs}.
+ */
+public class ReportUploadJobHelper {
+
+  private static final int POOL_SIZE = ConfigUtil.getPositiveIntFromEnv("UPLOAD_JOB_POOL_SIZE", 2);
+  private static final String WORKER_POOL_NAME = "erm-usage-upload-jobs";
+  static final int STALE_MINUTES = ConfigUtil.getPositiveIntFromEnv("UPLOAD_JOB_STALE_MINUTES", 10);
+  static final int RETENTION_DAYS =
+      ConfigUtil.getPositiveIntFromEnv("UPLOAD_JOB_RETENTION_DAYS", 30);
+  static final long HEARTBEAT_INTERVAL_MS = Math.min(60_000L, STALE_MINUTES * 60_000L / 3);
+  private static final String UPDATED_DATE = "(jsonb->'metadata'->>'updatedDate')::timestamptz";
+  private static final String UNFINISHED = "jsonb->>'status' IN ('PENDING', 'IN_PROGRESS')";
+  private static final String HEARTBEAT_SQL =
+      "UPDATE "
+          + TABLE_NAME_REPORT_UPLOAD_JOBS
+          + " SET jsonb = jsonb_set(jsonb, '{metadata,updatedDate}', to_jsonb($2::text))"
+          + " WHERE id = $1 AND "
+          + UNFINISHED;
+  private static final String FAIL_STALE_JOBS_SQL =
+      "UPDATE "
+          + TABLE_NAME_REPORT_UPLOAD_JOBS
+          + " SET jsonb = jsonb || jsonb_build_object('status', 'FAILED', 'error', $1::jsonb)"
+          + " WHERE "
+          + UNFINISHED
+          + " AND COALESCE("
+          + UPDATED_DATE
+          + ", '-infinity') < now() - make_interval(mins => $2)";
+  private static final String DELETE_EXPIRED_JOBS_SQL =
+      "DELETE FROM "
+          + TABLE_NAME_REPORT_UPLOAD_JOBS
+          + " WHERE jsonb->>'status' IN ('COMPLETED', 'FAILED')"
+          + " AND COALESCE("
+          + UPDATED_DATE
+          + ", '-infinity') < now() - make_interval(days => $1)";
+  private static final Logger log = LogManager.getLogger();
+  // one executor per Vertx instance, kept open so that all jobs share the pool size
+  private static final Map<Vertx, WorkerExecutor> executors = new ConcurrentHashMap<>();
+
+  private ReportUploadJobHelper() {}
+
+  /**
+   * Executes blocking code on the shared upload job worker pool. Jobs exceeding the pool size are
+   * queued until a worker becomes available.
+   *
+   * @param vertxContext Vertx context
+   * @param blockingCode the blocking code to execute
+   * @return a Future completed with the result of {@code blockingCode}
+   */
+  public static <T> Future<T> executeBlocking(Context vertxContext, Callable<T> blockingCode) {
+    return executors
+        .computeIfAbsent(
+            vertxContext.owner(),
+            vertx -> vertx.createSharedWorkerExecutor(WORKER_POOL_NAME, POOL_SIZE))
+        .executeBlocking(blockingCode, false);
+  }
+
+  /**
+   * Saves a job. The metadata is set on the first save and its {@code updatedDate} on every save.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers of the request that submitted the job
+   * @param job the job
+   * @return a Future completed with the job
+   */
+  public static Future<ReportUploadJob> saveJob(
+      Context vertxContext, Map<String, String> okapiHeaders, ReportUploadJob job) {
+    Date now = new Date();
+    if (job.getMetadata() == null) {
+      job.setMetadata(
+          new Metadata()
+              .withCreatedDate(now)
+              .withCreatedByUserId(okapiHeaders.get(XOkapiHeaders.USER_ID)));
+    }
+    job.getMetadata()
+        .withUpdatedDate(now)
+        .withUpdatedByUserId(job.getMetadata().getCreatedByUserId());
+    return PgUtil.postgresClient(vertxContext, okapiHeaders)
+        .upsert(TABLE_NAME_REPORT_UPLOAD_JOBS, job.getId(), job)
+        .map(job);
+  }
+
+  /**
+   * Renews the {@code updatedDate} of a running job every {@link #HEARTBEAT_INTERVAL_MS}, so that
+   * it is not taken for stale. Only the date is written, the status saved by the job is kept.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers of the request that submitted the job
+   * @param job the job
+   * @return the id of the timer, to be cancelled once the job is done
+   */
+  public static long startHeartbeat(
+      Context vertxContext, Map<String, String> okapiHeaders, ReportUploadJob job) {
+    return vertxContext
+        .owner()
+        .setPeriodic(
+            HEARTBEAT_INTERVAL_MS,
+            timerId -> {
+              String updatedDate;
+              try {
+                updatedDate =
+                    PostgresClient.pojo2JsonObject(new Metadata().withUpdatedDate(new Date()))
+                        .getString("updatedDate");
+              } catch (JsonProcessingException e) {
+                log.warn("Unable to renew upload job {}", job.getId(), e);
+                return;
+              }
+              PgUtil.postgresClient(vertxContext, okapiHeaders)
+                  .execute(HEARTBEAT_SQL, Tuple.of(UUID.fromString(job.getId()), updatedDate))
+                  .onFailure(t -> log.warn("Unable to renew upload job {}", job.getId(), t));
+            });
+  }
+
+  /**
+   * Marks stale jobs of a tenant as failed and deletes the tenant's expired jobs.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers of the tenant
+   * @return a Future completed with the number of failed and deleted jobs
+   */
+  public static Future<Integer> cleanUpJobs(
+      Context vertxContext, Map<String, String> okapiHeaders) {
+    PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    JsonObject error =
+        JsonObject.mapFrom(
+            ReportUploadErrorFactory.create(
+                ReportUploadErrorCode.OTHER,
+                "The upload job was interrupted, e.g. by a restart of the module."));
+    return postgresClient
+        .execute(FAIL_STALE_JOBS_SQL, Tuple.of(error, STALE_MINUTES))
+        .compose(
+            failed ->
+                postgresClient
+                    .execute(DELETE_EXPIRED_JOBS_SQL, Tuple.of(RETENTION_DAYS))
+                    .map(deleted -> failed.rowCount() + deleted.rowCount()));
+  }
+
+  /**
+   * Maps the cause of a failed upload to a {@link ReportUploadError}.
+   *
+   * @param throwable cause of the failed upload
+   * @return the {@link ReportUploadError} of a {@link ReportUploadException}, a {@link
+   *     ReportUploadError} with code {@link ReportUploadErrorCode#OTHER} otherwise
+   */
+  public static ReportUploadError toReportUploadError(Throwable throwable) {
+    if (throwable instanceof ReportUploadException e) {
+      return e.getReportUploadError();
+    }
+    return ReportUploadErrorFactory.create(ReportUploadErrorCode.OTHER, throwable);
+  }
+}
@@ -3,9 +3,15 @@ package org.folio.rest.util;
 import static org.folio.rest.util.ReportUploadErrorCode.INVALID_REPORT_CONTENT;
 import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_REPORT_RELEASE;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.olf.erm.usage.counter41.Counter4Utils.ReportSplitException;
@@ -18,19 +24,26 @@ public class ReportUploadJsonProcessor implements ReportUploadProcessor {
 
   private static final String RELEASE_KEY = "Release";
   private static final String REPORT_HEADER_KEY = "Report_Header";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
   public static final String UNSUPPORTED_REPORT_RELEASE_DETAILS =
       "COUNTER Release 4 is not supported for JSON file format.";
+  public static final String MISSING_REPORT_HEADER_DETAILS = "The report header is missing.";
 
   @Override
   public List<CounterReport> process(String reportData) throws ReportUploadException {
     try {
-      ReportReleaseVersion reportReleaseVersion = getReportReleaseVersionFromJson(reportData);
+      ReportReleaseVersion reportReleaseVersion;
+      try (JsonParser parser = JSON_FACTORY.createParser(reportData)) {
+        reportReleaseVersion = getReportReleaseVersionFromJson(parser);
+      }
       return switch (reportReleaseVersion) {
         case R4 ->
             throw new ReportUploadException(
                 UNSUPPORTED_REPORT_RELEASE, UNSUPPORTED_REPORT_RELEASE_DETAILS);
         case R5 -> processR5JsonReport(reportData);
-        case R51 -> processR51JsonReport(reportData);
+        case R51 ->
+            ProcessorHelper.processR51JsonReport(
+                Counter51Utils.getDefaultObjectMapper().readTree(reportData));
       };
     } catch (ReportUploadException e) {
       throw e;
@@ -39,9 +52,76 @@ public class ReportUploadJsonProcessor implements ReportUploadProcessor {
     }
   }
 
-  private static ReportReleaseVersion getReportReleaseVersionFromJson(String content) {
-    String releaseVersion =
-        new JsonObject(content).getJsonObject(REPORT_HEADER_KEY).getString(RELEASE_KEY);
+  /**
+   * Processes a JSON report from a file. The release version is read from the report header with
+   * a streaming parser that stops as soon as the release is found, so the report content is only
+   * parsed once. COUNTER 5.1 reports are parsed directly from the file.
+   *
+   * @param reportFile the {@link Path} of the file containing the report data
+   * @return a list of {@link CounterReport} objects parsed from the file
+   * @throws ReportUploadException if there's an error in processing the file content
+   */
+  @Override
+  public List<CounterReport> process(Path reportFile) throws ReportUploadException {
+    try {
+      ReportReleaseVersion reportReleaseVersion;
+      try (InputStream in = Files.newInputStream(reportFile);
+          JsonParser parser = JSON_FACTORY.createParser(in)) {
+        reportReleaseVersion = getReportReleaseVersionFromJson(parser);
+      }
+      return switch (reportReleaseVersion) {
+        case R4 ->
+            throw new ReportUploadException(
+                UNSUPPORTED_REPORT_RELEASE, UNSUPPORTED_REPORT_RELEASE_DETAILS);
+        case R5 ->
+            processR5JsonReport(
+                new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8));
+        case R51 -> processR51JsonReport(reportFile);
+      };
+    } catch (ReportUploadException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ReportUploadException(INVALID_REPORT_CONTENT, e);
+    }
+  }
+
+  /**
+   * Reads the release version from the {@code Report_Header} of a JSON report. Only the tokens up
+   * to the {@code Release} attribute are read, all other top level attributes are skipped without
+   * being materialized.
+   *
+   * @param parser a {@link JsonParser} positioned before the start of the report
+   * @return the {@link ReportReleaseVersion} of the report
+   * @throws IOException if the content is not valid JSON
+   * @throws ReportUploadException if the report header is missing or the release is unsupported
+   */
+  static ReportReleaseVersion getReportReleaseVersionFromJson(JsonParser parser)
+      throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new ReportUploadException(INVALID_REPORT_CONTENT, MISSING_REPORT_HEADER_DETAILS);
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.currentName();
+      JsonToken valueToken = parser.nextToken();
+      if (REPORT_HEADER_KEY.equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+        String releaseVersion = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String headerFieldName = parser.currentName();
+          parser.nextToken();
+          if (RELEASE_KEY.equals(headerFieldName)) {
+            releaseVersion = parser.getValueAsString();
+            break;
+          }
+          parser.skipChildren();
+        }
+        return toReportReleaseVersion(releaseVersion);
+      }
+      parser.skipChildren();
+    }
+    throw new ReportUploadException(INVALID_REPORT_CONTENT, MISSING_REPORT_HEADER_DETAILS);
+  }
+
+  private static ReportReleaseVersion toReportReleaseVersion(String releaseVersion) {
     try {
       return ReportReleaseVersion.fromVersion(releaseVersion);
     } catch (IllegalArgumentException e) {
@@ -55,12 +135,9 @@ public class ReportUploadJsonProcessor implements ReportUploadProcessor {
     return processR5Report(report);
   }
 
-  private List<CounterReport> processR51JsonReport(String content)
-      throws JsonProcessingException,
-          ReportSplitException,
-          Counter5UtilsException,
-          ReportUploadException {
-    JsonNode jsonNode = Counter51Utils.getDefaultObjectMapper().readTree(content);
+  private List<CounterReport> processR51JsonReport(Path reportFile)
+      throws IOException, ReportSplitException, Counter5UtilsException, ReportUploadException {
+    JsonNode jsonNode = Counter51Utils.getDefaultObjectMapper().readTree(reportFile.toFile());
     return ProcessorHelper.processR51JsonReport(jsonNode);
   }
 
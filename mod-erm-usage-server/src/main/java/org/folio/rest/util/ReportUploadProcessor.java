@@ -1,9 +1,34 @@
 package org.folio.rest.util;
 
+import static org.folio.rest.util.ReportUploadErrorCode.INVALID_REPORT_CONTENT;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import org.folio.rest.jaxrs.model.CounterReport;
 
 public interface ReportUploadProcessor {
 
   List<CounterReport> process(String reportData) throws ReportUploadException;
+
+  /**
+   * Processes report data that has been spooled to a file. Implementations should override this
+   * method if they are able to read the file as a stream. The default implementation reads the
+   * file content into a string and delegates to {@link #process(String)}.
+   *
+   * @param reportFile the {@link Path} of the file containing the report data
+   * @return a list of {@link CounterReport} objects parsed from the file
+   * @throws ReportUploadException if there's an error in processing the file content
+   */
+  default List<CounterReport> process(Path reportFile) throws ReportUploadException {
+    String reportData;
+    try {
+      reportData = new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new ReportUploadException(INVALID_REPORT_CONTENT, e);
+    }
+    return process(reportData);
+  }
 }
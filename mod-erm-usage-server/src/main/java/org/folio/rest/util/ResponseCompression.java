@@ -0,0 +1,113 @@
+package org.folio.rest.util;
+
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of the responses this module streams itself. Only gzip is supported, formats that
+ * are already compressed, like XLSX or ZIP, should not be compressed again.
+ *
+ * <p>The compression is negotiated on the event loop thread before the response head is written,
+ * the response body is then compressed chunk by chunk while it is written, see {@link
+ * #openChunked}.
+ */
+public class ResponseCompression {
+
+  public static final String GZIP = "gzip";
+
+  private ResponseCompression() {}
+
+  /**
+   * Negotiates the compression of a response from the {@code Accept-Encoding} header of the
+   * request and sets the {@code Content-Encoding} and {@code Vary} headers of the response
+   * accordingly. Must be called before the response head is written.
+   *
+   * @param request the request
+   * @return {@code true} if the response is compressed with gzip
+   */
+  public static boolean negotiate(HttpServerRequest request) {
+    HttpServerResponse response = request.response();
+    response.headers().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+      return false;
+    }
+    response.putHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+    return true;
+  }
+
+  /**
+   * Removes a negotiated {@code Content-Encoding}, e.g. before an uncompressed error response is
+   * sent instead.
+   *
+   * @param response the response, its head must not have been written
+   */
+  public static void reset(HttpServerResponse response) {
+    response.headers().remove(HttpHeaders.CONTENT_ENCODING);
+  }
+
+  /**
+   * Checks whether an {@code Accept-Encoding} header value accepts gzip. Quality values of {@code
+   * 0} reject a coding, {@code *} stands for codings that are not listed.
+   *
+   * @param acceptEncoding the header value, may be {@code null}
+   * @return {@code true} if gzip is accepted
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Double gzipQuality = null;
+    Double anyQuality = null;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] params = coding.split(";");
+      String name = params[0].trim().toLowerCase(Locale.ROOT);
+      double quality = 1;
+      for (int i = 1; i < params.length; i++) {
+        String param = params[i].trim();
+        if (param.startsWith("q=") || param.startsWith("Q=")) {
+          quality = parseQuality(param.substring(2));
+        }
+      }
+      if (GZIP.equals(name) || "x-gzip".equals(name)) {
+        gzipQuality = quality;
+      } else if ("*".equals(name)) {
+        anyQuality = quality;
+      }
+    }
+    if (gzipQuality != null) {
+      return gzipQuality > 0;
+    }
+    return anyQuality != null && anyQuality > 0;
+  }
+
+  private static double parseQuality(String quality) {
+    try {
+      return Double.parseDouble(quality.trim());
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Opens a stream to a chunked response, see {@link ChunkedResponseOutputStream}. The stream
+   * compresses with gzip if {@link #negotiate} did set the {@code Content-Encoding}.
+   *
+   * @param response the response to write to
+   * @param contentType the Content-Type of the response
+   * @return the stream, closing it ends the response
+   * @throws IOException if the stream can't be opened
+   */
+  static OutputStream openChunked(HttpServerResponse response, String contentType)
+      throws IOException {
+    OutputStream out = new ChunkedResponseOutputStream(response, contentType);
+    if (GZIP.equals(response.headers().get(HttpHeaders.CONTENT_ENCODING))) {
+      return new GZIPOutputStream(out, ChunkedResponseOutputStream.CHUNK_SIZE);
+    }
+    return out;
+  }
+}
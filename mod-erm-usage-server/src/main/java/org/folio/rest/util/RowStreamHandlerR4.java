@@ -3,24 +3,30 @@ package org.folio.rest.util;
 import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
-import io.vertx.core.json.Json;
+import io.vertx.core.json.jackson.DatabindCodec;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowStream;
-import org.folio.rest.jaxrs.model.CounterReport;
+import java.io.IOException;
+import org.folio.rest.util.ReportMonthAccumulator.Month;
 import org.niso.schemas.counter.Report;
 import org.olf.erm.usage.counter41.Counter4Utils;
 
 /**
  * A handler for processing {@code RowStream<Row>} events, where the first column of each {@code
- * Row} represents a Counter4 report, and merging them into a single Counter4 Report.
+ * Row} holds the JSON text of a Counter4 report, and merging them into a single Counter4 Report.
  */
 public class RowStreamHandlerR4 {
 
+  private static final String CUSTOMER = "customer";
+  private static final String REPORT_ITEMS = "reportItems";
+
   private final Context vertxContext;
-  private Report mergedReport = null;
+  private final ReportMonthAccumulator<Report> mergedReport = createAccumulator();
 
   /**
    * Constructor for RowStreamHandlerR4.
@@ -33,42 +39,81 @@ public class RowStreamHandlerR4 {
 
   /**
    * Handles incoming rows from a {@code RowStream<Row>} event, where the first column of each
-   * {@code Row} represents a Counter4 report. These reports are merged into a single Counter4
-   * Report.
+   * {@code Row} holds the JSON text of a Counter4 report. The reports are decoded in parallel and
+   * merged in the order of the stream into a single Counter4 Report, see {@link
+   * ReportMonthAccumulator}.
    *
    * @param rowStream The {@code RowStream<Row>} to process.
    * @return A Future that completes with the merged Report
    */
   public Future<Report> handle(RowStream<Row> rowStream) {
-    Promise<Report> promise = Promise.promise();
-
-    rowStream
-        .handler(
-            r -> {
-              rowStream.pause();
-              vertxContext
-                  .executeBlocking(
-                      () -> {
-                        CounterReport counterReport = r.getJsonObject(0).mapTo(CounterReport.class);
-                        Report report =
-                            Counter4Utils.fromJSON(Json.encode(counterReport.getReport()));
-                        mergedReport =
-                            mergedReport == null
-                                ? report
-                                : Counter4Utils.merge(mergedReport, report);
-                        return null;
-                      })
-                  .onSuccess(h -> rowStream.resume())
-                  .onFailure(t -> rowStream.close().onComplete(v -> promise.fail(t)));
-            })
-        .endHandler(
+    return new RowStreamPipeline<>(vertxContext, RowStreamHandlerR4::decode, mergedReport::add)
+        .process(rowStream)
+        .compose(
             v ->
-                promise.handle(
-                    mergedReport == null
-                        ? failedFuture("Merged report is null")
-                        : succeededFuture(mergedReport)))
-        .exceptionHandler(promise::fail);
+                vertxContext.executeBlocking(
+                    () -> joinReport(mergedReport.report(), mergedReport.items())))
+        .compose(
+            report ->
+                report == null ? failedFuture("Merged report is null") : succeededFuture(report));
+  }
+
+  /**
+   * Creates the accumulator of the months of Counter4 reports.
+   *
+   * @return a new accumulator
+   */
+  static ReportMonthAccumulator<Report> createAccumulator() {
+    return new ReportMonthAccumulator<>(Counter4Utils::merge, "itemPerformance");
+  }
+
+  private static Month<Report> decode(Row row) throws JsonProcessingException {
+    return splitReport(row.getString(0));
+  }
 
-    return promise.future();
+  /**
+   * Splits the JSON text of a Counter4 report into the report without items and the report items
+   * of its first customer.
+   *
+   * @param report the JSON text, as selected by {@code report::text}
+   * @return the split report
+   * @throws JsonProcessingException if the report can't be decoded
+   */
+  static Month<Report> splitReport(String report) throws JsonProcessingException {
+    ObjectNode node = (ObjectNode) DatabindCodec.mapper().readTree(report);
+    ArrayNode items = null;
+    if (node.path(CUSTOMER).get(0) instanceof ObjectNode customer
+        && customer.get(REPORT_ITEMS) instanceof ArrayNode reportItems) {
+      items = reportItems;
+      customer.putArray(REPORT_ITEMS);
+    }
+    return new Month<>(Counter4Utils.fromJSON(node.toString()), items);
+  }
+
+  /**
+   * Sets the report items of the first customer of a Counter4 report without items.
+   *
+   * @param report the report without items, may be {@code null}
+   * @param items the report items
+   * @return the report with items, {@code null} if {@code report} is {@code null}
+   * @throws IOException if the report can't be encoded
+   */
+  static Report joinReport(Report report, ArrayNode items) throws IOException {
+    if (report == null || report.getCustomer().isEmpty()) {
+      return report;
+    }
+    ObjectNode node = (ObjectNode) DatabindCodec.mapper().readTree(Counter4Utils.toJSON(report));
+    ((ObjectNode) node.get(CUSTOMER).get(0)).set(REPORT_ITEMS, items);
+    return Counter4Utils.fromJSON(node.toString());
+  }
+
+  /**
+   * Decodes the JSON text of a Counter4 report.
+   *
+   * @param report the JSON text, as selected by {@code report::text}
+   * @return the decoded Report
+   */
+  static Report decodeReport(String report) {
+    return Counter4Utils.fromJSON(report);
   }
 }
@@ -4,29 +4,35 @@ import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
 import static org.folio.rest.util.ReportExportHelper.SUPPORTED_VIEWS;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
-import io.vertx.core.json.Json;
+import io.vertx.core.json.jackson.DatabindCodec;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowStream;
 import java.util.List;
-import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.util.ReportMonthAccumulator.Month;
 import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter50.Counter5Utils.Counter5UtilsException;
 import org.olf.erm.usage.counter50.converter.Converter;
 import org.olf.erm.usage.counter50.converter.ReportConverter;
 
 /**
  * A handler for processing {@code RowStream<Row>} events for Counter5 reports, where the first
- * column of each {@code Row} represents a Counter5 report, and merging them into a single Counter5
- * Report. Optionally converts Master Reports into Standard Views.
+ * column of each {@code Row} holds the JSON text of a Counter5 report, and merging them into a
+ * single Counter5 Report. Optionally converts Master Reports into Standard Views, unless a row
+ * holds a stored Standard View, see {@link StandardViewHelper}.
  */
 public class RowStreamHandlerR5 {
 
+  private static final String REPORT_ITEMS = "Report_Items";
+
   private final Context vertxContext;
   private final String reportName;
   private final boolean isConvertReport;
-  private Object mergedReport = null;
+  private final ReportMonthAccumulator<Object> mergedReport = createAccumulator();
 
   /**
    * Constructor for RowStreamHandlerR5.
@@ -43,48 +49,85 @@ public class RowStreamHandlerR5 {
 
   /**
    * Handles incoming rows from a {@code RowStream<Row>} event, where the first column of each
-   * {@code Row} represents a Counter5 report. These reports are converted based on the report name
-   * and merged.
+   * {@code Row} holds the JSON text of a Counter5 report. These reports are decoded and converted
+   * based on the report name in parallel, and merged in the order of the stream, see {@link
+   * ReportMonthAccumulator}.
    *
    * @param rowStream The {@code RowStream<Row>} to process.
    * @return A Future that completes with the merged report
    */
-  @SuppressWarnings({"rawtypes", "unchecked"})
   public Future<Object> handle(RowStream<Row> rowStream) {
-    Promise<Object> promise = Promise.promise();
+    return new RowStreamPipeline<>(vertxContext, this::decode, mergedReport::add)
+        .process(rowStream)
+        .compose(
+            v ->
+                vertxContext.executeBlocking(
+                    () -> joinReport(mergedReport.report(), mergedReport.items())))
+        .compose(
+            report ->
+                report == null ? failedFuture("Merged report is null") : succeededFuture(report));
+  }
+
+  /**
+   * Creates the accumulator of the months of Counter5 reports.
+   *
+   * @return a new accumulator
+   */
+  static ReportMonthAccumulator<Object> createAccumulator() {
+    return new ReportMonthAccumulator<>(
+        (r1, r2) -> Counter5Utils.merge(List.of(r1, r2)), "Performance");
+  }
 
-    rowStream
-        .handler(
-            r -> {
-              rowStream.pause();
-              vertxContext
-                  .executeBlocking(
-                      () -> {
-                        CounterReport counterReport = r.getJsonObject(0).mapTo(CounterReport.class);
-                        Object cop5Report =
-                            Counter5Utils.fromJSON(Json.encode(counterReport.getReport()));
-                        if (isConvertReport) {
-                          Converter converter = ReportConverter.create(reportName);
-                          cop5Report = converter.convert(cop5Report);
-                        }
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private Month<Object> decode(Row row) throws Counter5UtilsException, JsonProcessingException {
+    ObjectNode node;
+    if (isConvertReport && !StandardViewHelper.isStoredView(row)) {
+      Converter converter = ReportConverter.create(reportName);
+      node = DatabindCodec.mapper().valueToTree(converter.convert(decodeReport(row.getString(0))));
+    } else {
+      node = (ObjectNode) DatabindCodec.mapper().readTree(row.getString(0));
+    }
+    return splitReport(node);
+  }
 
-                        mergedReport =
-                            mergedReport == null
-                                ? cop5Report
-                                : Counter5Utils.merge(List.of(mergedReport, cop5Report));
-                        return null;
-                      })
-                  .onSuccess(h -> rowStream.resume())
-                  .onFailure(t -> rowStream.close().onComplete(v -> promise.fail(t)));
-            })
-        .endHandler(
-            v ->
-                promise.handle(
-                    mergedReport == null
-                        ? failedFuture("Merged report is null")
-                        : succeededFuture(mergedReport)))
-        .exceptionHandler(promise::fail);
+  /**
+   * Splits a Counter5 report into the report without items and its report items.
+   *
+   * @param report the report as JSON
+   * @return the split report
+   * @throws Counter5UtilsException if the report without items can't be decoded
+   */
+  static Month<Object> splitReport(ObjectNode report) throws Counter5UtilsException {
+    ArrayNode items = report.get(REPORT_ITEMS) instanceof ArrayNode a ? a : null;
+    report.putArray(REPORT_ITEMS);
+    return new Month<>(decodeReport(report.toString()), items);
+  }
+
+  /**
+   * Sets the report items of a Counter5 report without items.
+   *
+   * @param report the report without items, may be {@code null}
+   * @param items the report items
+   * @return the report with items, {@code null} if {@code report} is {@code null}
+   * @throws Counter5UtilsException if the report can't be decoded
+   */
+  static Object joinReport(Object report, ArrayNode items) throws Counter5UtilsException {
+    if (report == null) {
+      return null;
+    }
+    ObjectNode node = DatabindCodec.mapper().valueToTree(report);
+    node.set(REPORT_ITEMS, items);
+    return decodeReport(node.toString());
+  }
 
-    return promise.future();
+  /**
+   * Decodes the JSON text of a Counter5 report.
+   *
+   * @param report the JSON text, as selected by {@code report::text}
+   * @return the decoded report
+   * @throws Counter5UtilsException if the report can't be decoded
+   */
+  static Object decodeReport(String report) throws Counter5UtilsException {
+    return Counter5Utils.fromJSON(report);
   }
 }
@@ -3,27 +3,31 @@ package org.folio.rest.util;
 import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowStream;
 import java.util.List;
-import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.util.ReportMonthAccumulator.Month;
 import org.olf.erm.usage.counter51.Counter51Utils;
 import org.olf.erm.usage.counter51.ReportType;
 
 /**
  * A handler for processing {@code RowStream<Row>} events for COUNTER 5.1 reports, where the first
- * column of each {@code Row} represents a COUNTER 5.1 report, and merging them into a single
- * COUNTER 5.1 report. Optionally converts Master Reports into Standard Views.
+ * column of each {@code Row} holds the JSON text of a COUNTER 5.1 report, and merging them into a
+ * single COUNTER 5.1 report. Optionally converts Master Reports into Standard Views, unless a row
+ * holds a stored Standard View, see {@link StandardViewHelper}.
  */
 public class RowStreamHandlerR51 {
 
+  private static final String REPORT_ITEMS = "Report_Items";
+
   private final Context vertxContext;
   private final ReportType reportType;
-  private ObjectNode mergedReport = null;
+  private final ReportMonthAccumulator<ObjectNode> mergedReport = createAccumulator();
 
   /**
    * Constructor for RowStreamHandlerR51.
@@ -38,47 +42,81 @@ public class RowStreamHandlerR51 {
 
   /**
    * Handles incoming rows from a {@code RowStream<Row>} event, where the first column of each
-   * {@code Row} represents a COUNTER 5.1 report. These reports are converted and merged.
+   * {@code Row} holds the JSON text of a COUNTER 5.1 report. These reports are decoded and
+   * converted in parallel, and merged in the order of the stream, see {@link
+   * ReportMonthAccumulator}.
    *
    * @param rowStream The {@code RowStream<Row>} to process.
    * @return A Future that completes with the merged report
    */
   public Future<Object> handle(RowStream<Row> rowStream) {
-    Promise<Object> promise = Promise.promise();
+    return new RowStreamPipeline<>(vertxContext, this::decode, mergedReport::add)
+        .process(rowStream)
+        .compose(
+            v ->
+                vertxContext.executeBlocking(
+                    () -> joinReport(mergedReport.report(), mergedReport.items())))
+        .compose(
+            report ->
+                report == null ? failedFuture("Merged report is null") : succeededFuture(report));
+  }
 
-    rowStream
-        .handler(
-            r -> {
-              rowStream.pause();
-              vertxContext
-                  .executeBlocking(
-                      () -> {
-                        CounterReport counterReport = r.getJsonObject(0).mapTo(CounterReport.class);
-                        ObjectNode report =
-                            Counter51Utils.getDefaultObjectMapper()
-                                .valueToTree(counterReport.getReport());
+  /**
+   * Creates the accumulator of the months of COUNTER 5.1 reports.
+   *
+   * @return a new accumulator
+   */
+  static ReportMonthAccumulator<ObjectNode> createAccumulator() {
+    // Item Reports list the items of a parent in "Items"
+    return new ReportMonthAccumulator<>(
+        (r1, r2) -> Counter51Utils.mergeReports(List.of(r1, r2)),
+        "Performance",
+        "Attribute_Performance",
+        "Items");
+  }
 
-                        if (reportType.isStandardView()) {
-                          report = Counter51Utils.convertReport(report, reportType);
-                        }
+  private Month<ObjectNode> decode(Row row) throws JsonProcessingException {
+    ObjectNode report = decodeReport(row.getString(0));
+    if (reportType.isStandardView() && !StandardViewHelper.isStoredView(row)) {
+      report = Counter51Utils.convertReport(report, reportType);
+    }
+    return splitReport(report);
+  }
 
-                        mergedReport =
-                            mergedReport == null
-                                ? report
-                                : Counter51Utils.mergeReports(List.of(mergedReport, report));
-                        return null;
-                      })
-                  .onSuccess(h -> rowStream.resume())
-                  .onFailure(t -> rowStream.close().onComplete(v -> promise.fail(t)));
-            })
-        .endHandler(
-            v ->
-                promise.handle(
-                    mergedReport == null
-                        ? failedFuture("Merged report is null")
-                        : succeededFuture(mergedReport)))
-        .exceptionHandler(promise::fail);
+  /**
+   * Splits a COUNTER 5.1 report into the report without items and its report items.
+   *
+   * @param report the report, its items are replaced by an empty list
+   * @return the split report
+   */
+  static Month<ObjectNode> splitReport(ObjectNode report) {
+    ArrayNode items = report.get(REPORT_ITEMS) instanceof ArrayNode a ? a : null;
+    report.putArray(REPORT_ITEMS);
+    return new Month<>(report, items);
+  }
+
+  /**
+   * Sets the report items of a COUNTER 5.1 report without items.
+   *
+   * @param report the report without items, may be {@code null}
+   * @param items the report items
+   * @return the report with items, {@code null} if {@code report} is {@code null}
+   */
+  static ObjectNode joinReport(ObjectNode report, ArrayNode items) {
+    if (report != null) {
+      report.set(REPORT_ITEMS, items);
+    }
+    return report;
+  }
 
-    return promise.future();
+  /**
+   * Decodes the JSON text of a COUNTER 5.1 report.
+   *
+   * @param report the JSON text, as selected by {@code report::text}
+   * @return the decoded report
+   * @throws JsonProcessingException if the report can't be decoded
+   */
+  static ObjectNode decodeReport(String report) throws JsonProcessingException {
+    return (ObjectNode) Counter51Utils.getDefaultObjectMapper().readTree(report);
   }
 }
@@ -0,0 +1,152 @@
+package org.folio.rest.util;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.sqlclient.RowStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Processes the rows of a {@code RowStream} in a pipeline: up to {@code prefetchDepth} rows are
+ * decoded in parallel on worker threads while the stream keeps fetching, the decoded rows are then
+ * handed to a consumer one at a time and in the order of the stream. The stream is paused while
+ * {@code prefetchDepth} rows are decoding or waiting for the consumer, which bounds the memory
+ * used.
+ *
+ * @param <R> type of the rows
+ * @param <T> type of the decoded rows
+ */
+class RowStreamPipeline<R, T> {
+
+  private static final String PREFETCH_DEPTH_ENV = "EXPORT_PREFETCH_DEPTH";
+  private static final int PREFETCH_DEPTH =
+      ConfigUtil.getPositiveIntFromEnv(
+          PREFETCH_DEPTH_ENV, Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+  /** Decodes a row, called on a worker thread. */
+  @FunctionalInterface
+  interface Decoder<R, T> {
+    T decode(R row) throws Exception;
+  }
+
+  /** Consumes a decoded row, called on a worker thread, one row at a time. */
+  @FunctionalInterface
+  interface Consumer<T> {
+    void accept(T decoded) throws Exception;
+  }
+
+  private final Context vertxContext;
+  private final int prefetchDepth;
+  private final Decoder<R, T> decoder;
+  private final Consumer<T> consumer;
+  private final Deque<Future<T>> decoding = new ArrayDeque<>();
+  private final Promise<Void> promise = Promise.promise();
+  private Future<Void> consumed = succeededFuture();
+  private int inFlight = 0;
+  private boolean ended = false;
+  private RowStream<R> rowStream;
+
+  /**
+   * Creates a pipeline with the prefetch depth configured by the {@code EXPORT_PREFETCH_DEPTH}
+   * environment variable.
+   *
+   * @param vertxContext Vertx context
+   * @param decoder decodes a row
+   * @param consumer consumes the decoded rows in order
+   */
+  RowStreamPipeline(Context vertxContext, Decoder<R, T> decoder, Consumer<T> consumer) {
+    this(vertxContext, PREFETCH_DEPTH, decoder, consumer);
+  }
+
+  /**
+   * @param vertxContext Vertx context
+   * @param prefetchDepth maximum number of rows decoding or waiting for the consumer
+   * @param decoder decodes a row
+   * @param consumer consumes the decoded rows in order
+   */
+  RowStreamPipeline(
+      Context vertxContext, int prefetchDepth, Decoder<R, T> decoder, Consumer<T> consumer) {
+    this.vertxContext = vertxContext;
+    this.prefetchDepth = prefetchDepth;
+    this.decoder = decoder;
+    this.consumer = consumer;
+  }
+
+  /**
+   * Processes all rows of {@code rowStream}. Must only be called once.
+   *
+   * @param rowStream the {@code RowStream} to process
+   * @return a Future that completes once all rows have been consumed, or fails with the first
+   *     failure of the stream, the decoder or the consumer
+   */
+  Future<Void> process(RowStream<R> rowStream) {
+    this.rowStream = rowStream;
+    rowStream
+        .handler(
+            row -> {
+              inFlight++;
+              if (inFlight >= prefetchDepth) {
+                rowStream.pause();
+              }
+              // unordered, so rows are decoded in parallel
+              decoding.addLast(
+                  vertxContext
+                      .executeBlocking(() -> decoder.decode(row), false)
+                      .onComplete(ar -> consumeDecoded()));
+            })
+        .endHandler(
+            v -> {
+              ended = true;
+              completeIfDone();
+            })
+        .exceptionHandler(this::fail);
+    return promise.future();
+  }
+
+  /** Hands the decoded rows at the head of the queue to the consumer, keeping the stream order. */
+  private void consumeDecoded() {
+    while (!promise.future().isComplete()
+        && !decoding.isEmpty()
+        && decoding.peekFirst().isComplete()) {
+      Future<T> decoded = decoding.removeFirst();
+      if (decoded.failed()) {
+        fail(decoded.cause());
+        return;
+      }
+      // ordered, so the consumer is called one row at a time in stream order
+      consumed =
+          vertxContext
+              .executeBlocking(
+                  () -> {
+                    consumer.accept(decoded.result());
+                    return null;
+                  },
+                  true)
+              .onSuccess(v -> rowConsumed())
+              .onFailure(this::fail);
+    }
+  }
+
+  private void rowConsumed() {
+    inFlight--;
+    if (inFlight < prefetchDepth && !ended && !promise.future().isComplete()) {
+      rowStream.resume();
+    }
+    completeIfDone();
+  }
+
+  private void completeIfDone() {
+    if (ended && inFlight == 0) {
+      consumed.onSuccess(v -> promise.tryComplete());
+    }
+  }
+
+  private void fail(Throwable t) {
+    if (promise.tryFail(t)) {
+      rowStream.close();
+    }
+  }
+}
@@ -0,0 +1,338 @@
+package org.folio.rest.util;
+
+import static io.vertx.core.Future.succeededFuture;
+import static org.folio.rest.util.Constants.JSONB_WITH_REPORT;
+import static org.folio.rest.util.Constants.TABLE_NAME_COUNTER_REPORTS;
+import static org.folio.rest.util.ReportExportHelper.SUPPORTED_VIEWS;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.Report;
+import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
+import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter50.Counter5Utils.Counter5UtilsException;
+import org.olf.erm.usage.counter50.converter.Converter;
+import org.olf.erm.usage.counter50.converter.ReportConverter;
+import org.olf.erm.usage.counter51.Counter51Utils;
+import org.olf.erm.usage.counter51.ReportType;
+
+/**
+ * Helper for the Standard Views of COUNTER 5 and 5.1 master reports that are derived at ingest and
+ * stored in the {@code counter_report_views} table. Exports of a Standard View use a stored view
+ * if present and convert the master report otherwise.
+ *
+ * <p>Views are derived in the background when reports are saved if the {@code
+ * MATERIALIZE_STANDARD_VIEWS} environment variable is {@code true}. Views of existing reports are
+ * derived by {@link #backfill(Context, Map)}, which runs after enabling or upgrading the module for
+ * a tenant. A completed backfill is recorded in {@code counter_report_views_backfill} and reset
+ * whenever a saved report may lack its views, that is if views are not stored because the variable
+ * is {@code false} or storing them failed. So the backfill only scans the reports again after
+ * the variable has been enabled again or views are missing.
+ */
+public class StandardViewHelper {
+
+  public static final boolean MATERIALIZE_STANDARD_VIEWS =
+      ConfigUtil.getBooleanFromEnv("MATERIALIZE_STANDARD_VIEWS", false);
+  static final int BATCH_SIZE = 10;
+  private static final Logger log = LogManager.getLogger();
+  private static final String TABLE_NAME_COUNTER_REPORT_VIEWS = "counter_report_views";
+  private static final String TABLE_NAME_BACKFILL = "counter_report_views_backfill";
+  private static final String SELECT_BACKFILL_COMPLETED = "SELECT 1 FROM " + TABLE_NAME_BACKFILL;
+  private static final String INSERT_BACKFILL_COMPLETED =
+      "INSERT INTO " + TABLE_NAME_BACKFILL + " DEFAULT VALUES ON CONFLICT DO NOTHING";
+  private static final String DELETE_BACKFILL_COMPLETED = "DELETE FROM " + TABLE_NAME_BACKFILL;
+  private static final String MIN_UUID = "00000000-0000-0000-0000-000000000000";
+  private static final List<String> R51_VIEWS =
+      Arrays.stream(ReportType.values())
+          .filter(ReportType::isStandardView)
+          .map(ReportType::name)
+          .toList();
+  private static final String[] MASTER_REPORTS_WITH_VIEWS =
+      Stream.concat(SUPPORTED_VIEWS.stream(), R51_VIEWS.stream())
+          .map(view -> view.split("_", 2)[0])
+          .distinct()
+          .toArray(String[]::new);
+  private static final String MASTER_REPORT_CONDITION =
+      " jsonb->>'release' IN ('5', '5.1') AND jsonb->>'reportName' = ANY($2)"
+          + " AND report IS NOT NULL";
+  private static final String SELECT_MASTER_REPORTS =
+      "SELECT id, "
+          + JSONB_WITH_REPORT
+          + ", md5(report::text) FROM "
+          + TABLE_NAME_COUNTER_REPORTS
+          + " WHERE id = ANY($1::uuid[]) AND"
+          + MASTER_REPORT_CONDITION;
+  private static final String SELECT_REPORTS_WITHOUT_VIEWS =
+      "SELECT id FROM "
+          + TABLE_NAME_COUNTER_REPORTS
+          + " c WHERE id > $1::uuid AND"
+          + MASTER_REPORT_CONDITION
+          + " AND NOT EXISTS (SELECT 1 FROM "
+          + TABLE_NAME_COUNTER_REPORT_VIEWS
+          + " v WHERE v.counter_report_id = c.id) ORDER BY id LIMIT $3";
+  // views are only saved if the report data they were derived from is unchanged, FOR SHARE waits
+  // for concurrent updates of the report, whose trigger removes the views
+  private static final String INSERT_VIEWS =
+      "WITH input AS (SELECT * FROM jsonb_to_recordset($1::jsonb)"
+          + " AS i(id uuid, view_name text, report_hash text, report jsonb)),"
+          + " current AS (SELECT c.id FROM "
+          + TABLE_NAME_COUNTER_REPORTS
+          + " c JOIN (SELECT DISTINCT id, report_hash FROM input) i ON c.id = i.id"
+          + " AND md5(c.report::text) = i.report_hash FOR SHARE OF c)"
+          + " INSERT INTO "
+          + TABLE_NAME_COUNTER_REPORT_VIEWS
+          + " (counter_report_id, view_name, report)"
+          + " SELECT i.id, i.view_name, i.report FROM input i JOIN current USING (id)"
+          + " ON CONFLICT (counter_report_id, view_name) DO UPDATE SET report = EXCLUDED.report";
+
+  private StandardViewHelper() {}
+
+  /**
+   * Returns the names of the Standard Views of a master report.
+   *
+   * @param release the COUNTER release
+   * @param reportName the name of the master report
+   * @return the names of the Standard Views, empty if the report has none
+   */
+  public static List<String> getViewNames(String release, String reportName) {
+    if (reportName == null) {
+      return List.of();
+    }
+    String prefix = reportName.toUpperCase() + "_";
+    if ("5".equals(release)) {
+      return SUPPORTED_VIEWS.stream().filter(view -> view.startsWith(prefix)).toList();
+    } else if ("5.1".equals(release)) {
+      return R51_VIEWS.stream().filter(view -> view.startsWith(prefix)).toList();
+    }
+    return List.of();
+  }
+
+  /**
+   * Returns the SQL to select the months of a Standard View with {@code cql}. The first column
+   * holds the JSON text of the stored view if present, and of the master report otherwise. The
+   * second column tells whether the view is stored, otherwise the master report has to be
+   * converted.
+   *
+   * @param cql the WHERE clause selecting the master reports
+   * @param viewName the name of the Standard View
+   * @return the SQL
+   */
+  public static String createSelectViewSql(String cql, String viewName) {
+    return "SELECT COALESCE(v.report, "
+        + TABLE_NAME_COUNTER_REPORTS
+        + ".report)::text, v.report IS NOT NULL FROM "
+        + TABLE_NAME_COUNTER_REPORTS
+        + " LEFT JOIN "
+        + TABLE_NAME_COUNTER_REPORT_VIEWS
+        + " v ON v.counter_report_id = "
+        + TABLE_NAME_COUNTER_REPORTS
+        + ".id AND v.view_name = '"
+        + viewName.toUpperCase().replace("'", "''")
+        + "' "
+        + cql;
+  }
+
+  /**
+   * Checks whether a row selected by {@link #createSelectViewSql(String, String)} holds a stored
+   * view.
+   *
+   * @param row the row
+   * @return {@code true} if the report data of the row is the stored view
+   */
+  public static boolean isStoredView(Row row) {
+    return row.size() > 1 && Boolean.TRUE.equals(row.getBoolean(1));
+  }
+
+  /**
+   * Derives and stores the Standard Views of saved reports in the background, if {@code
+   * MATERIALIZE_STANDARD_VIEWS} is enabled. The response of the save does not wait for the views,
+   * exports convert the master reports of views not stored yet. Failures are logged only.
+   *
+   * <p>If the views are not stored, the completed backfill is reset, so the next {@link
+   * #backfill(Context, Map)} stores them.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers
+   * @param counterReportIds ids of the saved reports
+   */
+  public static void materializeOnIngest(
+      Context vertxContext, Map<String, String> okapiHeaders, List<String> counterReportIds) {
+    if (counterReportIds.isEmpty()) {
+      return;
+    }
+    PostgresClient pgClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    if (!MATERIALIZE_STANDARD_VIEWS) {
+      pgClient
+          .execute(DELETE_BACKFILL_COMPLETED)
+          .onFailure(t -> log.warn("Error resetting the Standard View backfill", t));
+      return;
+    }
+    materialize(vertxContext, okapiHeaders, counterReportIds)
+        .onFailure(
+            t -> {
+              log.warn("Error storing Standard Views of reports {}", counterReportIds, t);
+              pgClient
+                  .execute(DELETE_BACKFILL_COMPLETED)
+                  .onFailure(e -> log.warn("Error resetting the Standard View backfill", e));
+            });
+  }
+
+  /**
+   * Derives and stores the Standard Views of reports, in batches of {@value #BATCH_SIZE} reports.
+   * Reports without Standard Views are skipped.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers
+   * @param counterReportIds ids of the reports
+   * @return a Future completed with the number of stored views
+   */
+  public static Future<Integer> materialize(
+      Context vertxContext, Map<String, String> okapiHeaders, List<String> counterReportIds) {
+    Future<Integer> future = succeededFuture(0);
+    for (int i = 0; i < counterReportIds.size(); i += BATCH_SIZE) {
+      List<String> batch =
+          counterReportIds.subList(i, Math.min(i + BATCH_SIZE, counterReportIds.size()));
+      future =
+          future.compose(
+              count ->
+                  materializeBatch(vertxContext, okapiHeaders, batch).map(n -> count + n));
+    }
+    return future;
+  }
+
+  /**
+   * Derives and stores the Standard Views of all master reports without stored views, if {@code
+   * MATERIALIZE_STANDARD_VIEWS} is enabled and the backfill has not been completed since it was
+   * reset, see {@link #materializeOnIngest}. If the variable is disabled, the completed backfill is
+   * reset instead, as views are not stored at ingest then.
+   *
+   * @param vertxContext Vertx context
+   * @param okapiHeaders okapi headers
+   * @return a Future completed with the number of stored views
+   */
+  public static Future<Integer> backfill(Context vertxContext, Map<String, String> okapiHeaders) {
+    PostgresClient pgClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    if (!MATERIALIZE_STANDARD_VIEWS) {
+      return pgClient.execute(DELETE_BACKFILL_COMPLETED).map(0);
+    }
+    return pgClient
+        .execute(SELECT_BACKFILL_COMPLETED)
+        .compose(
+            rowSet -> {
+              if (rowSet.size() > 0) {
+                return succeededFuture(0);
+              }
+              return backfill(vertxContext, okapiHeaders, MIN_UUID, 0)
+                  .compose(count -> pgClient.execute(INSERT_BACKFILL_COMPLETED).map(count));
+            });
+  }
+
+  private static Future<Integer> backfill(
+      Context vertxContext, Map<String, String> okapiHeaders, String afterId, int count) {
+    return PgUtil.postgresClient(vertxContext, okapiHeaders)
+        .execute(
+            SELECT_REPORTS_WITHOUT_VIEWS, Tuple.of(afterId, MASTER_REPORTS_WITH_VIEWS, BATCH_SIZE))
+        .compose(
+            rowSet -> {
+              List<String> ids =
+                  StreamSupport.stream(rowSet.spliterator(), false)
+                      .map(row -> row.getUUID(0).toString())
+                      .toList();
+              if (ids.isEmpty()) {
+                return succeededFuture(count);
+              }
+              // continue after the last id, reports whose views can't be derived are skipped
+              return materializeBatch(vertxContext, okapiHeaders, ids)
+                  .compose(
+                      n ->
+                          backfill(vertxContext, okapiHeaders, ids.get(ids.size() - 1), count + n));
+            });
+  }
+
+  private static Future<Integer> materializeBatch(
+      Context vertxContext, Map<String, String> okapiHeaders, List<String> counterReportIds) {
+    PostgresClient pgClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    return pgClient
+        .execute(
+            SELECT_MASTER_REPORTS,
+            Tuple.of(counterReportIds.toArray(String[]::new), MASTER_REPORTS_WITH_VIEWS))
+        .compose(rowSet -> vertxContext.executeBlocking(() -> deriveViews(rowSet), false))
+        .compose(
+            views ->
+                views.isEmpty()
+                    ? succeededFuture(0)
+                    : pgClient.execute(INSERT_VIEWS, Tuple.of(views)).map(RowSet::rowCount));
+  }
+
+  private static JsonArray deriveViews(RowSet<Row> rowSet) {
+    JsonArray views = new JsonArray();
+    for (Row row : rowSet) {
+      CounterReport counterReport = row.getJsonObject(1).mapTo(CounterReport.class);
+      try {
+        deriveViews(counterReport)
+            .forEach(
+                (viewName, report) ->
+                    views.add(
+                        new JsonObject()
+                            .put("id", counterReport.getId())
+                            .put("view_name", viewName)
+                            .put("report_hash", row.getString(2))
+                            .put("report", JsonObject.mapFrom(report))));
+      } catch (Exception e) {
+        log.warn("Error deriving Standard Views of report {}", counterReport.getId(), e);
+      }
+    }
+    return views;
+  }
+
+  /**
+   * Derives the Standard Views of a master report.
+   *
+   * @param counterReport the master report
+   * @return the report data of each Standard View by view name
+   * @throws Counter5UtilsException if a COUNTER 5 report can't be decoded
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static Map<String, Report> deriveViews(CounterReport counterReport)
+      throws Counter5UtilsException {
+    Map<String, Report> views = new LinkedHashMap<>();
+    String release = counterReport.getRelease();
+    for (String viewName : getViewNames(release, counterReport.getReportName())) {
+      if ("5".equals(release)) {
+        // converters may modify the master report, decode it for each view
+        Object masterReport = Counter5Utils.fromJSON(Json.encode(counterReport.getReport()));
+        Converter converter = ReportConverter.create(viewName);
+        views.put(
+            viewName,
+            ProcessorHelper.decodeReport(
+                converter.convert(masterReport), ReportReleaseVersion.R5));
+      } else {
+        ObjectNode masterReport =
+            Counter51Utils.getDefaultObjectMapper().valueToTree(counterReport.getReport());
+        views.put(
+            viewName,
+            ProcessorHelper.decodeReport(
+                Counter51Utils.convertReport(masterReport, ReportType.valueOf(viewName)),
+                ReportReleaseVersion.R51));
+      }
+    }
+    return views;
+  }
+}
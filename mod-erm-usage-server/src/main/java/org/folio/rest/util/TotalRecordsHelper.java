@@ -0,0 +1,130 @@
+package org.folio.rest.util;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.CQL2PgJSONException;
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Helper for the {@code totalRecords} parameter of collection endpoints.
+ *
+ * <ul>
+ *   <li>{@value #NONE}: no count.
+ *   <li>{@value #ESTIMATED}: the row estimate of the query planner. If the estimate is below
+ *       {@code EXACT_COUNT_THRESHOLD}, the records are counted exactly, as that's cheap and
+ *       estimates of small results are often off.
+ *   <li>{@value #EXACT}: an exact count.
+ * </ul>
+ *
+ * <p>Other values, like {@code auto}, are left to RMB.
+ */
+public class TotalRecordsHelper {
+
+  public static final String NONE = "none";
+  public static final String ESTIMATED = "estimated";
+  public static final String EXACT = "exact";
+  static final int EXACT_COUNT_THRESHOLD =
+      ConfigUtil.getPositiveIntFromEnv("EXACT_COUNT_THRESHOLD", 1000);
+  private static final Set<String> SUPPORTED = Set.of(NONE, ESTIMATED, EXACT);
+
+  private TotalRecordsHelper() {}
+
+  /**
+   * Checks whether a {@code totalRecords} value is counted by {@link #count}.
+   *
+   * @param totalRecords the value of the parameter, may be {@code null}
+   * @return {@code true} if the value is {@value #NONE}, {@value #ESTIMATED} or {@value #EXACT}
+   */
+  public static boolean isSupported(String totalRecords) {
+    return totalRecords != null && SUPPORTED.contains(totalRecords);
+  }
+
+  /**
+   * Checks whether a {@code totalRecords} value requests a count.
+   *
+   * @param totalRecords the value of the parameter, may be {@code null}
+   * @return {@code true} if the value is {@value #ESTIMATED} or {@value #EXACT}
+   */
+  public static boolean isCounted(String totalRecords) {
+    return ESTIMATED.equals(totalRecords) || EXACT.equals(totalRecords);
+  }
+
+  /**
+   * Counts the records of a table matching a CQL query.
+   *
+   * @param postgresClient the client of the tenant
+   * @param table the table, its jsonb column is queried
+   * @param query the CQL query, blank for all records
+   * @param totalRecords the value of the {@code totalRecords} parameter
+   * @return a Future completed with the count, or with {@code null} for {@value #NONE} and values
+   *     that are not supported, see {@link #isSupported}
+   */
+  public static Future<Integer> count(
+      PostgresClient postgresClient, String table, String query, String totalRecords) {
+    if (!isCounted(totalRecords)) {
+      return succeededFuture(null);
+    }
+    String where;
+    try {
+      where =
+          new CQL2PgJSON(table + ".jsonb")
+              .toSql(StringUtils.defaultIfBlank(query, "cql.allRecords=1"))
+              .getWhere();
+    } catch (CQL2PgJSONException e) {
+      return failedFuture(e);
+    }
+    return count(postgresClient, table, where, ESTIMATED.equals(totalRecords));
+  }
+
+  /**
+   * Counts the records of a table matching an SQL condition.
+   *
+   * @param postgresClient the client of the tenant
+   * @param table the table
+   * @param where the SQL condition
+   * @param estimated whether an estimate is sufficient
+   * @return a Future completed with the count
+   */
+  public static Future<Integer> count(
+      PostgresClient postgresClient, String table, String where, boolean estimated) {
+    String from = " FROM " + table + " WHERE " + where;
+    if (!estimated) {
+      return countExact(postgresClient, from);
+    }
+    return postgresClient
+        .execute("EXPLAIN (FORMAT JSON) SELECT 1" + from)
+        .compose(
+            rowSet -> {
+              long estimate = getPlanRows(rowSet.iterator().next().getValue(0));
+              if (estimate < EXACT_COUNT_THRESHOLD) {
+                return countExact(postgresClient, from);
+              }
+              return succeededFuture((int) Math.min(estimate, Integer.MAX_VALUE));
+            });
+  }
+
+  private static Future<Integer> countExact(PostgresClient postgresClient, String from) {
+    return postgresClient
+        .execute("SELECT count(*)" + from)
+        .map(rowSet -> rowSet.iterator().next().getInteger(0));
+  }
+
+  /**
+   * Returns the estimated number of rows of a query plan.
+   *
+   * @param plan the output of {@code EXPLAIN (FORMAT JSON)}
+   * @return the {@code Plan Rows} of the top plan node
+   */
+  static long getPlanRows(Object plan) {
+    return new JsonArray(String.valueOf(plan))
+        .getJsonObject(0)
+        .getJsonObject("Plan")
+        .getLong("Plan Rows");
+  }
+}
@@ -5,6 +5,9 @@ import static org.folio.rest.util.ReportUploadErrorCode.INVALID_REPORT_CONTENT;
 import io.vertx.core.buffer.Buffer;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.olf.erm.usage.counter.common.ExcelUtil;
@@ -36,6 +39,35 @@ public class UploadHelper {
     }
   }
 
+  /**
+   * Processes a file that represents a COUNTER report and converts it into a list of {@link
+   * CounterReport} objects. In contrast to {@link #getCounterReportsFromBuffer(ReportFileFormat,
+   * Buffer)} the content is read from the file by the processor, so the uploaded file does not
+   * need to be held in memory as a whole.
+   *
+   * @param format the {@link ReportFileFormat} of the file content
+   * @param file the {@link Path} of the file containing the report
+   * @return a list of {@link CounterReport} objects parsed from the file
+   * @throws ReportUploadException if there's an error in processing the file content or if the
+   *     format is unsupported
+   */
+  public static List<CounterReport> getCounterReportsFromFile(ReportFileFormat format, Path file)
+      throws ReportUploadException {
+    try {
+      ReportUploadProcessor processor = ReportUploadProcessorFactory.createProcessor(format);
+      if (ReportFileFormat.XLSX.equals(format)) {
+        try (InputStream in = Files.newInputStream(file)) {
+          return processor.process(ExcelUtil.toCSV(in));
+        }
+      }
+      return processor.process(file);
+    } catch (ReportUploadException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ReportUploadException(INVALID_REPORT_CONTENT, e);
+    }
+  }
+
   private static String bufferToString(Buffer buffer, ReportFileFormat reportFileFormat)
       throws IOException {
     if (ReportFileFormat.XLSX.equals(reportFileFormat)) {
@@ -0,0 +1,188 @@
+package org.folio.rest.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.regex.Pattern;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * A {@link Writer} that takes CSV (RFC 4180) and writes it as a single sheet XLSX workbook to an
+ * {@link OutputStream}. Written characters are buffered until at least {@value #PARSE_THRESHOLD}
+ * characters of complete records are available, which are then parsed by a {@link CSVParser} and
+ * added to a streaming workbook. The workbook keeps only the last {@value #ROW_ACCESS_WINDOW_SIZE}
+ * rows in memory and flushes older rows to a temporary file. The remaining records are parsed and
+ * the workbook is written to the output stream by {@link #close()}.
+ *
+ * <p>Integers and decimal numbers are stored as numeric cells, other values as string cells.
+ * Blank lines are kept as rows with a single empty cell.
+ *
+ * <p>If the CSV can't be written completely, {@link #discard()} must be called to delete the
+ * temporary file.
+ */
+public class XlsxCsvWriter extends Writer {
+
+  static final int ROW_ACCESS_WINDOW_SIZE = 100;
+  static final int PARSE_THRESHOLD = 64 * 1024;
+  // numbers without leading zeros and with at most 15 significant integer digits, which a double
+  // represents exactly, other values like identifiers are kept as strings
+  private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9]\\d{0,14})(\\.\\d+)?");
+
+  private final OutputStream out;
+  private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+  private final Sheet sheet = workbook.createSheet();
+  private final StringBuilder pending = new StringBuilder();
+  // end of the last complete record in pending, a line feed outside of quotes
+  private int recordsEnd = 0;
+  private boolean inQuotes = false;
+  private int rowNum = 0;
+  private boolean closed = false;
+
+  /**
+   * @param out the stream to write the workbook to, closed by {@link #close()}
+   */
+  public XlsxCsvWriter(OutputStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Converts CSV to XLSX.
+   *
+   * @param csv the CSV
+   * @return the XLSX workbook
+   * @throws IOException if the workbook can't be written
+   */
+  public static byte[] toXlsx(String csv) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    XlsxCsvWriter writer = new XlsxCsvWriter(out);
+    try {
+      writer.write(csv);
+      writer.close();
+    } finally {
+      writer.discard();
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    ensureOpen();
+    accept((char) c);
+    parseCompleteRecords();
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    ensureOpen();
+    for (int i = off; i < off + len; i++) {
+      accept(cbuf[i]);
+    }
+    parseCompleteRecords();
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    ensureOpen();
+    for (int i = off; i < off + len; i++) {
+      accept(str.charAt(i));
+    }
+    parseCompleteRecords();
+  }
+
+  @Override
+  public void flush() {
+    // rows are flushed to the temporary file by the workbook, the workbook is written on close
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      // the last record may lack a line terminator
+      recordsEnd = pending.length();
+      parse();
+      workbook.write(out);
+      out.close();
+    } finally {
+      disposeWorkbook();
+    }
+  }
+
+  /**
+   * Deletes the temporary file of the workbook without writing it. Does nothing if the writer was
+   * closed already.
+   *
+   * @throws IOException if the workbook can't be closed
+   */
+  public void discard() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    disposeWorkbook();
+  }
+
+  private void disposeWorkbook() throws IOException {
+    workbook.dispose();
+    workbook.close();
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Writer is closed");
+    }
+  }
+
+  private void accept(char c) {
+    pending.append(c);
+    // escaped quotes come in pairs, so quoted fields end with an even number of quotes
+    if (c == '"') {
+      inQuotes = !inQuotes;
+    } else if (c == '\n' && !inQuotes) {
+      recordsEnd = pending.length();
+    }
+  }
+
+  private void parseCompleteRecords() throws IOException {
+    if (recordsEnd >= PARSE_THRESHOLD) {
+      parse();
+    }
+  }
+
+  /** Parses the complete records of {@link #pending} and adds them to the sheet. */
+  private void parse() throws IOException {
+    if (recordsEnd == 0) {
+      return;
+    }
+    try (CSVParser parser =
+        CSVParser.parse(new StringReader(pending.substring(0, recordsEnd)), CSVFormat.RFC4180)) {
+      for (CSVRecord csvRecord : parser) {
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < csvRecord.size(); i++) {
+          setCellValue(row.createCell(i), csvRecord.get(i));
+        }
+      }
+    }
+    pending.delete(0, recordsEnd);
+    recordsEnd = 0;
+  }
+
+  private static void setCellValue(Cell cell, String value) {
+    if (NUMBER.matcher(value).matches()) {
+      cell.setCellValue(Double.parseDouble(value));
+    } else {
+      cell.setCellValue(value);
+    }
+  }
+}
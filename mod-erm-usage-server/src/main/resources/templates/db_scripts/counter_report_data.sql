@@ -0,0 +1,58 @@
+-- The report data of a counter report is stored in the report column instead of the jsonb column,
+-- so that statements reading only the metadata of counter reports, like tiny listings or the
+-- statistics triggers, don't detoast and decompress the report data.
+--
+-- Clients and RMB write whole documents to the jsonb column, the trigger below moves the report
+-- data of every written document to the report column. Statements updating the jsonb column must
+-- therefore write the whole document including its report data, a document without report data
+-- removes the report data. Only an update with a document whose contentHash, which is set by the
+-- module and read-only for clients, equals the hash of the stored report data keeps the stored
+-- report data without rewriting it. Documents including their report data are read from
+-- counter_reports_with_report.
+DROP TRIGGER IF EXISTS move_counter_report_data ON counter_reports;
+
+-- add the report column and move the report data of existing counter reports, once. The move
+-- changes neither the metadata nor the statistics of the reports, so the triggers of
+-- counter_reports are disabled while it runs. Otherwise the statistics trigger would get the whole
+-- table as transition tables and bump the change counter of every provider.
+DO $$
+BEGIN
+  IF NOT EXISTS (
+    SELECT 1 FROM information_schema.columns
+    WHERE table_schema = current_schema() AND table_name = 'counter_reports'
+      AND column_name = 'report'
+  ) THEN
+    ALTER TABLE counter_reports ADD COLUMN report JSONB;
+    ALTER TABLE counter_reports DISABLE TRIGGER USER;
+    UPDATE counter_reports
+    SET report = NULLIF(jsonb->'report', 'null'::jsonb), jsonb = jsonb - 'report'
+    WHERE jsonb ? 'report';
+    ALTER TABLE counter_reports ENABLE TRIGGER USER;
+  END IF;
+END $$;
+
+CREATE OR REPLACE FUNCTION move_counter_report_data() RETURNS TRIGGER AS
+$$
+BEGIN
+  IF TG_OP = 'UPDATE' AND NOT NEW.jsonb ? 'report'
+      AND NEW.jsonb->>'contentHash' = COALESCE(OLD.jsonb->>'contentHash', md5(OLD.report::text))
+  THEN
+    NEW.report := OLD.report;
+    RETURN NEW;
+  END IF;
+  NEW.report := NULLIF(NEW.jsonb->'report', 'null'::jsonb);
+  NEW.jsonb := NEW.jsonb - 'report';
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER move_counter_report_data
+BEFORE INSERT OR UPDATE OF jsonb ON counter_reports
+FOR EACH ROW EXECUTE PROCEDURE move_counter_report_data();
+
+CREATE OR REPLACE VIEW counter_reports_with_report AS
+SELECT
+  id,
+  CASE WHEN report IS NULL THEN jsonb ELSE jsonb || jsonb_build_object('report', report) END
+    AS jsonb
+FROM counter_reports;
@@ -0,0 +1,33 @@
+-- Standard Views derived from the COUNTER 5 and 5.1 master reports in counter_reports at ingest,
+-- exports of a Standard View read these instead of converting the master report of each month
+CREATE TABLE IF NOT EXISTS counter_report_views (
+  counter_report_id UUID NOT NULL REFERENCES counter_reports (id) ON DELETE CASCADE,
+  view_name TEXT NOT NULL,
+  report JSONB NOT NULL,
+  PRIMARY KEY (counter_report_id, view_name)
+);
+
+-- trigger function to remove the Standard Views of a counter report whose report data changed
+CREATE OR REPLACE FUNCTION delete_counter_report_views() RETURNS TRIGGER AS
+$$
+BEGIN
+  DELETE FROM counter_report_views WHERE counter_report_id = OLD.id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS delete_counter_report_views_on_update ON counter_reports;
+CREATE TRIGGER delete_counter_report_views_on_update
+AFTER UPDATE ON counter_reports
+FOR EACH ROW
+WHEN (OLD.report IS DISTINCT FROM NEW.report
+  OR OLD.jsonb->>'reportName' IS DISTINCT FROM NEW.jsonb->>'reportName'
+  OR OLD.jsonb->>'release' IS DISTINCT FROM NEW.jsonb->>'release')
+EXECUTE PROCEDURE delete_counter_report_views();
+
+-- marks the Standard Views of all existing reports as stored, so they are only backfilled when
+-- MATERIALIZE_STANDARD_VIEWS has been enabled again or views are missing, see StandardViewHelper
+CREATE TABLE IF NOT EXISTS counter_report_views_backfill (
+  id INTEGER PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+  completed_date TIMESTAMPTZ NOT NULL DEFAULT now()
+);
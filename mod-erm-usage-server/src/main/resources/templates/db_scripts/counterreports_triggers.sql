@@ -1,23 +1,67 @@
+-- summary of the counter reports per usage data provider, maintained incrementally by the
+-- triggers below, year_month is empty for reports with failed attempts, error_code is empty for
+-- reports without failed reason
+CREATE TABLE IF NOT EXISTS udp_report_statistics (
+  provider_id TEXT NOT NULL,
+  report_name TEXT NOT NULL,
+  release TEXT NOT NULL,
+  year_month TEXT NOT NULL,
+  error_code TEXT NOT NULL,
+  report_count INTEGER NOT NULL,
+  PRIMARY KEY (provider_id, report_name, release, year_month, error_code)
+);
+
+-- change counter of the counter reports per usage data provider, incremented by every statement
+-- that changes reports of the provider, cached exports are only valid for the counter they were
+-- read with; updates of the metadata of reports with unchanged report data and keys don't count
+CREATE TABLE IF NOT EXISTS counter_reports_provider_versions (
+  provider_id TEXT PRIMARY KEY,
+  version BIGINT NOT NULL
+);
+
+-- returns the udp_report_statistics key of a counter report with a report_count of 1
+CREATE OR REPLACE FUNCTION report_statistics_key(report jsonb) RETURNS udp_report_statistics AS $$
+  SELECT
+    report->>'providerId',
+    COALESCE(report->>'reportName', 'other'),
+    COALESCE(report->>'release', ''),
+    CASE WHEN report->'failedAttempts' IS NULL THEN COALESCE(report->>'yearMonth', '') ELSE '' END,
+    CASE
+      WHEN report->>'failedReason' IS NULL THEN ''
+      ELSE COALESCE(SUBSTRING(report->>'failedReason','(?:Number=|"Code": ?)([0-9]{1,4})'), 'other')
+    END,
+    1
+$$ LANGUAGE sql IMMUTABLE;
+
+-- adds delta times the count of each key to udp_report_statistics
+CREATE OR REPLACE FUNCTION apply_udp_report_statistics(keys udp_report_statistics[], delta INTEGER)
+RETURNS VOID AS $$
+  INSERT INTO udp_report_statistics AS s
+  SELECT provider_id, report_name, release, year_month, error_code, delta * COUNT(*)::INTEGER
+  FROM unnest(keys)
+  WHERE provider_id IS NOT NULL
+  GROUP BY 1, 2, 3, 4, 5
+  ON CONFLICT (provider_id, report_name, release, year_month, error_code)
+  DO UPDATE SET report_count = s.report_count + EXCLUDED.report_count;
+$$ LANGUAGE sql;
+
 -- return year-month of latest report available for a usage data provider
 CREATE OR REPLACE FUNCTION latest_year_month(providerId TEXT) RETURNS TEXT AS $$
-	SELECT MAX(jsonb->>'yearMonth') FROM counter_reports WHERE jsonb->>'providerId'=$1 AND jsonb->'failedAttempts' IS NULL;
+  SELECT MAX(NULLIF(year_month, '')) FROM udp_report_statistics WHERE provider_id = $1;
 $$ LANGUAGE sql;
 
 -- return year-month of earliest report available for a usage data provider
 CREATE OR REPLACE FUNCTION earliest_year_month(providerId TEXT) RETURNS TEXT AS $$
-	SELECT MIN(jsonb->>'yearMonth') FROM counter_reports WHERE jsonb->>'providerId'=$1 AND jsonb->'failedAttempts' IS NULL;
+  SELECT MIN(NULLIF(year_month, '')) FROM udp_report_statistics WHERE provider_id = $1;
 $$ LANGUAGE sql;
 
 -- returns the counter/sushi error codes of the usage data provider's counter reports
 CREATE OR REPLACE FUNCTION udp_report_errors(providerId TEXT) RETURNS jsonb AS $$
   SELECT json_agg(errors)::jsonb
   FROM (
-    SELECT
-      DISTINCT(
-        COALESCE(SUBSTRING(jsonb->>'failedReason','(?:Number=|"Code": ?)([0-9]{1,4})'), 'other')
-      ) AS errors
-    FROM counter_reports
-    WHERE jsonb->>'providerId'=$1 AND jsonb->>'failedReason' IS NOT NULL
+    SELECT DISTINCT error_code AS errors
+    FROM udp_report_statistics
+    WHERE provider_id = $1 AND error_code <> ''
     ORDER BY 1
   )
   AS sub
@@ -27,12 +71,9 @@ $$ LANGUAGE sql;
 CREATE OR REPLACE FUNCTION udp_report_types(providerId TEXT) RETURNS jsonb AS $$
   SELECT json_agg(reportNames)::jsonb
   FROM (
-    SELECT
-      DISTINCT(
-        COALESCE(jsonb->>'reportName', 'other')
-      ) AS reportNames
-    FROM counter_reports
-    WHERE jsonb->>'providerId'=$1
+    SELECT DISTINCT report_name AS reportNames
+    FROM udp_report_statistics
+    WHERE provider_id = $1
     ORDER BY 1
   )
   AS sub
@@ -42,9 +83,9 @@ $$ LANGUAGE sql;
 CREATE OR REPLACE FUNCTION udp_report_releases(providerId TEXT) RETURNS jsonb AS $$
   SELECT COALESCE(json_agg(release)::jsonb, '[]'::jsonb)
   FROM (
-    SELECT DISTINCT jsonb->>'release' AS release
-    FROM counter_reports
-    WHERE jsonb->>'providerId' = $1
+    SELECT DISTINCT NULLIF(release, '') AS release
+    FROM udp_report_statistics
+    WHERE provider_id = $1
     ORDER BY 1
   )
   AS sub
@@ -88,26 +129,101 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
--- trigger function to update the statistics of an usage data provider
-CREATE OR REPLACE FUNCTION update_udp_statistics() RETURNS TRIGGER AS
+DROP FUNCTION IF EXISTS update_udp_statistics_for_providers(TEXT[]);
+DROP FUNCTION IF EXISTS
+  update_udp_report_statistics(udp_report_statistics[], udp_report_statistics[]);
+
+-- function to apply the keys of removed and added reports to udp_report_statistics and to update
+-- the statistics of the affected usage data providers, locks are acquired in sorted order to
+-- prevent deadlocks between concurrent statements; the versions of changedProviderIds are
+-- incremented, of all affected usage data providers if NULL
+CREATE OR REPLACE FUNCTION update_udp_report_statistics(
+  oldKeys udp_report_statistics[], newKeys udp_report_statistics[],
+  changedProviderIds TEXT[] DEFAULT NULL) RETURNS VOID AS
 $$
+DECLARE providerIds TEXT[];
 DECLARE providerId TEXT;
 BEGIN
-  IF (TG_OP = 'DELETE') THEN
-    providerId := OLD.jsonb->>'providerId';
-  ELSE
-    providerId := NEW.jsonb->>'providerId';
+  providerIds := ARRAY(
+    SELECT DISTINCT k.provider_id
+    FROM unnest(COALESCE(oldKeys, '{}') || COALESCE(newKeys, '{}')) AS k
+    WHERE k.provider_id IS NOT NULL
+    ORDER BY 1
+  );
+
+  FOREACH providerId IN ARRAY providerIds
+  LOOP
+    PERFORM pg_advisory_xact_lock(hashtext(providerId));
+  END LOOP;
+
+  PERFORM apply_udp_report_statistics(oldKeys, -1);
+  PERFORM apply_udp_report_statistics(newKeys, 1);
+  DELETE FROM udp_report_statistics WHERE provider_id = ANY(providerIds) AND report_count <= 0;
+
+  INSERT INTO counter_reports_provider_versions AS v
+  SELECT unnest(COALESCE(changedProviderIds, providerIds)), 1
+  ON CONFLICT (provider_id) DO UPDATE SET version = v.version + 1;
+
+  FOREACH providerId IN ARRAY providerIds
+  LOOP
+    PERFORM update_udp_statistics(providerId);
+  END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- trigger function to update the statistics of the usage data providers affected by a statement,
+-- uses the transition tables old_reports and new_reports
+CREATE OR REPLACE FUNCTION update_udp_statistics() RETURNS TRIGGER AS
+$$
+DECLARE oldKeys udp_report_statistics[];
+DECLARE newKeys udp_report_statistics[];
+DECLARE changedProviderIds TEXT[];
+BEGIN
+  IF (TG_OP IN ('UPDATE', 'DELETE')) THEN
+    oldKeys := ARRAY(SELECT report_statistics_key(jsonb) FROM old_reports);
+  END IF;
+  IF (TG_OP IN ('INSERT', 'UPDATE')) THEN
+    newKeys := ARRAY(SELECT report_statistics_key(jsonb) FROM new_reports);
+  END IF;
+  IF (TG_OP = 'UPDATE') THEN
+    -- reports keeping their keys and the contentHash of their report data, like re-uploads of
+    -- unchanged reports, only change their metadata
+    changedProviderIds := ARRAY(
+      SELECT DISTINCT p
+      FROM old_reports o
+      JOIN new_reports n ON n.id = o.id,
+      unnest(ARRAY[o.jsonb->>'providerId', n.jsonb->>'providerId']) AS p
+      WHERE p IS NOT NULL AND (
+        n.jsonb->>'contentHash' IS NULL
+        OR n.jsonb->>'contentHash' IS DISTINCT FROM o.jsonb->>'contentHash'
+        OR report_statistics_key(n.jsonb) IS DISTINCT FROM report_statistics_key(o.jsonb))
+    );
   END IF;
 
-  PERFORM pg_advisory_xact_lock(hashtext(providerId));
-  PERFORM update_udp_statistics(providerId);
+  PERFORM update_udp_report_statistics(oldKeys, newKeys, changedProviderIds);
 
-	RETURN NULL;
+  RETURN NULL;
 END;
 $$ LANGUAGE plpgsql;
 
--- trigger to update usage data provider statistics, on update/insert/delete of reports
+-- triggers to update usage data provider statistics once per statement, on update/insert/delete
+-- of reports
 DROP TRIGGER IF EXISTS update_usage_data_providers_on_insert_or_update_or_delete ON counter_reports;
-CREATE TRIGGER update_usage_data_providers_on_insert_or_update_or_delete
-AFTER INSERT OR UPDATE OR DELETE ON counter_reports
-FOR EACH ROW EXECUTE PROCEDURE update_udp_statistics();
+
+DROP TRIGGER IF EXISTS update_usage_data_providers_on_insert ON counter_reports;
+CREATE TRIGGER update_usage_data_providers_on_insert
+AFTER INSERT ON counter_reports
+REFERENCING NEW TABLE AS new_reports
+FOR EACH STATEMENT EXECUTE PROCEDURE update_udp_statistics();
+
+DROP TRIGGER IF EXISTS update_usage_data_providers_on_update ON counter_reports;
+CREATE TRIGGER update_usage_data_providers_on_update
+AFTER UPDATE ON counter_reports
+REFERENCING OLD TABLE AS old_reports NEW TABLE AS new_reports
+FOR EACH STATEMENT EXECUTE PROCEDURE update_udp_statistics();
+
+DROP TRIGGER IF EXISTS update_usage_data_providers_on_delete ON counter_reports;
+CREATE TRIGGER update_usage_data_providers_on_delete
+AFTER DELETE ON counter_reports
+REFERENCING OLD TABLE AS old_reports
+FOR EACH STATEMENT EXECUTE PROCEDURE update_udp_statistics();
@@ -1,5 +1,5 @@
 DROP INDEX IF EXISTS counter_reports_custom_getcsv_idx;
-CREATE INDEX IF NOT EXISTS counter_reports_custom_getcsv_idx ON counter_reports
+CREATE UNIQUE INDEX IF NOT EXISTS counter_reports_custom_getcsv_idx ON counter_reports
   USING btree ((jsonb ->> 'providerId'), (jsonb ->> 'reportName'), (jsonb ->> 'release'),
     (jsonb ->> 'yearMonth'));
 
@@ -19,3 +19,7 @@ CREATE INDEX IF NOT EXISTS counter_reports_custom_reporttypes_idx ON counter_rep
 DROP INDEX IF EXISTS counter_reports_custom_reportreleases_idx;
 CREATE INDEX IF NOT EXISTS counter_reports_custom_reportreleases_idx ON counter_reports
   USING btree ((jsonb->>'release'));
+
+DROP INDEX IF EXISTS counter_reports_custom_yearmonth_id_idx;
+CREATE INDEX IF NOT EXISTS counter_reports_custom_yearmonth_id_idx ON counter_reports
+  USING btree ((COALESCE(jsonb->>'yearMonth', '')), id);
@@ -0,0 +1,11 @@
+-- Fill udp_report_statistics from existing counter reports and update the usage data provider
+-- statistics from it
+TRUNCATE udp_report_statistics;
+
+INSERT INTO udp_report_statistics
+SELECT k.provider_id, k.report_name, k.release, k.year_month, k.error_code, COUNT(*)
+FROM counter_reports, LATERAL report_statistics_key(jsonb) AS k
+WHERE k.provider_id IS NOT NULL
+GROUP BY 1, 2, 3, 4, 5;
+
+SELECT update_udp_statistics(jsonb->>'id') FROM usage_data_providers;
@@ -0,0 +1,48 @@
+-- Make counter_reports_custom_getcsv_idx unique, so that reports can be saved with
+-- INSERT ... ON CONFLICT. Duplicates of (providerId, reportName, release, yearMonth) can not be
+-- handled by the upload anyway ("Too many results"). All but the latest updated report of each
+-- month are moved to counter_reports_duplicates, from which they can be restored or deleted.
+-- The report data is still part of jsonb here, counter_report_data.sql moves it afterwards.
+CREATE TABLE IF NOT EXISTS counter_reports_duplicates (
+  id UUID PRIMARY KEY,
+  jsonb JSONB NOT NULL,
+  moved_date TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+DO $$
+DECLARE duplicateIds TEXT;
+BEGIN
+  IF NOT EXISTS (
+    SELECT 1 FROM pg_index
+    WHERE indexrelid = to_regclass('counter_reports_custom_getcsv_idx') AND indisunique
+  ) THEN
+    WITH moved AS (
+      DELETE FROM counter_reports a
+      USING counter_reports b
+      WHERE a.jsonb->>'providerId' = b.jsonb->>'providerId'
+        AND a.jsonb->>'reportName' = b.jsonb->>'reportName'
+        AND a.jsonb->>'release' = b.jsonb->>'release'
+        AND a.jsonb->>'yearMonth' = b.jsonb->>'yearMonth'
+        AND (COALESCE(a.jsonb->'metadata'->>'updatedDate', ''), a.id)
+          < (COALESCE(b.jsonb->'metadata'->>'updatedDate', ''), b.id)
+      RETURNING a.id, a.jsonb
+    ),
+    backup AS (
+      INSERT INTO counter_reports_duplicates (id, jsonb)
+      SELECT DISTINCT ON (id) id, jsonb FROM moved
+      ON CONFLICT (id) DO NOTHING
+      RETURNING id
+    )
+    SELECT string_agg(id::text, ', ' ORDER BY id) INTO duplicateIds FROM backup;
+
+    IF duplicateIds IS NOT NULL THEN
+      RAISE WARNING 'Moved duplicate counter reports to counter_reports_duplicates: %',
+        duplicateIds;
+    END IF;
+
+    DROP INDEX IF EXISTS counter_reports_custom_getcsv_idx;
+    CREATE UNIQUE INDEX counter_reports_custom_getcsv_idx ON counter_reports
+      USING btree ((jsonb ->> 'providerId'), (jsonb ->> 'reportName'), (jsonb ->> 'release'),
+        (jsonb ->> 'yearMonth'));
+  END IF;
+END $$;
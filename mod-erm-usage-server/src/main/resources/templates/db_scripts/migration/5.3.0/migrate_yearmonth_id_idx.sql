@@ -0,0 +1,6 @@
+-- Index for the keyset pagination of counter reports by (yearMonth, id), see
+-- GET /counter-reports?cursor=. Reports without yearMonth are ordered by an empty yearMonth, the
+-- index is recreated in case it was created on jsonb->>'yearMonth' only.
+DROP INDEX IF EXISTS counter_reports_custom_yearmonth_id_idx;
+CREATE INDEX IF NOT EXISTS counter_reports_custom_yearmonth_id_idx ON counter_reports
+  USING btree ((COALESCE(jsonb->>'yearMonth', '')), id);
@@ -2,7 +2,11 @@ package org.folio.rest.impl2;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.both;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
 
 import com.google.common.io.Resources;
 import com.google.common.net.HttpHeaders;
@@ -17,6 +21,7 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -27,6 +32,8 @@ import java.nio.file.Paths;
 import java.sql.Date;
 import java.time.Instant;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -40,6 +47,7 @@ import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.CounterReports;
 import org.folio.rest.jaxrs.model.ErrorCodes;
+import org.folio.rest.jaxrs.model.FacetCacheStats;
 import org.folio.rest.jaxrs.model.Report;
 import org.folio.rest.jaxrs.model.ReportReleases;
 import org.folio.rest.jaxrs.model.ReportTypes;
@@ -48,6 +56,7 @@ import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.NetworkUtils;
 import org.folio.rest.util.Constants;
+import org.folio.rest.util.FacetCache;
 import org.folio.rest.util.PostgresContainerRule;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -65,6 +74,7 @@ public class CounterReportIT {
   private static final String PATH_DOWNLOAD = "/{id}/download";
   private static final String PATH_REPORT_RELEASES = "/reports/releases";
   private static final String PATH_REPORT_TYPES = "/reports/types";
+  private static final String PATH_FACET_CACHE_STATS = "/reports/facets/stats";
   private static final String PATH_ERROR_CODES = "/errors/codes";
   private static final String TENANT = "diku";
   private static final Vertx vertx = Vertx.vertx();
@@ -125,7 +135,10 @@ public class CounterReportIT {
   public void setUp(TestContext context) {
     PostgresClient.getInstance(vertx, TENANT)
         .delete(
-            Constants.TABLE_NAME_COUNTER_REPORTS, new Criterion(), context.asyncAssertSuccess());
+            Constants.TABLE_NAME_COUNTER_REPORTS,
+            new Criterion(),
+            // the reports are deleted without the API, which would invalidate the facets
+            context.asyncAssertSuccess(v -> FacetCache.invalidateAll()));
   }
 
   @Test
@@ -179,6 +192,48 @@ public class CounterReportIT {
         .isEqualTo(Json.decodeValue(report, CounterReport.class).getReport());
   }
 
+  @Test
+  public void testGetCounterReportsDownloadByIdCompressedAndPretty() throws IOException {
+    String report =
+        Resources.toString(Resources.getResource("TR/TR_1.json"), StandardCharsets.UTF_8);
+    String id =
+        given(counterReportsReqSpec)
+            .body(report)
+            .post()
+            .then()
+            .statusCode(201)
+            .extract()
+            .as(CounterReport.class)
+            .getId();
+
+    String compact =
+        given(counterReportsReqSpec)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .pathParam("id", id)
+            .get(PATH_DOWNLOAD)
+            .then()
+            .statusCode(200)
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .extract()
+            .asString();
+    assertThat(compact).doesNotContain("\n");
+
+    String pretty =
+        given(counterReportsReqSpec)
+            .header(HttpHeaders.ACCEPT_ENCODING, "identity")
+            .pathParam("id", id)
+            .queryParam("pretty", true)
+            .get(PATH_DOWNLOAD)
+            .then()
+            .statusCode(200)
+            .header(HttpHeaders.CONTENT_ENCODING, nullValue())
+            .extract()
+            .asString();
+    assertThat(pretty).contains("\n");
+    assertThat(new JsonObject(pretty)).isEqualTo(new JsonObject(compact));
+  }
+
   @Test
   public void testDeleteMultipleReportsInvalidBody() {
     given(reportsDeleteReqSpec).post().then().statusCode(400);
@@ -235,6 +290,181 @@ public class CounterReportIT {
         .containsExactlyInAnyOrder(reports.get(3).getId(), reports.get(4).getId());
   }
 
+  @Test
+  public void testGetCounterReportsByCursor() {
+    // 7 reports, months are shared so that pages are also ordered by id
+    List<CounterReport> reports =
+        IntStream.rangeClosed(1, 7)
+            .mapToObj(
+                i ->
+                    new CounterReport()
+                        .withId(UUID.randomUUID().toString())
+                        .withDownloadTime(Date.from(Instant.now()))
+                        .withRelease("4")
+                        .withProviderId(UUID.randomUUID().toString())
+                        .withYearMonth("2012-0" + (i % 3 + 1))
+                        .withReportName("JR1"))
+            .toList();
+    reports.forEach(cr -> given(counterReportsReqSpec).body(cr).post().then().statusCode(201));
+    List<String> expectedIds =
+        reports.stream()
+            .sorted(
+                Comparator.comparing(CounterReport::getYearMonth)
+                    .thenComparing(CounterReport::getId))
+            .map(CounterReport::getId)
+            .toList();
+
+    List<String> ids = new ArrayList<>();
+    String cursor = "*";
+    int pages = 0;
+    while (cursor != null) {
+      CounterReports page =
+          given(counterReportsReqSpec)
+              .queryParam("cursor", cursor)
+              .queryParam("limit", 3)
+              .queryParam("query", "reportName=JR1")
+              .get()
+              .then()
+              .statusCode(200)
+              .extract()
+              .as(CounterReports.class);
+      assertThat(page.getCounterReports()).hasSizeLessThanOrEqualTo(3);
+      assertThat(page.getTotalRecords()).isNull();
+      page.getCounterReports().forEach(cr -> ids.add(cr.getId()));
+      cursor = page.getNextCursor();
+      pages++;
+    }
+    assertThat(pages).isEqualTo(3);
+    assertThat(ids).isEqualTo(expectedIds);
+
+    given(counterReportsReqSpec)
+        .queryParam("cursor", "*")
+        .queryParam("limit", 3)
+        .queryParam("totalRecords", "exact")
+        .get()
+        .then()
+        .statusCode(200)
+        .body("totalRecords", equalTo(7));
+  }
+
+  @Test
+  public void testGetCounterReportsByCursorWithoutYearMonth(TestContext context) {
+    // reports without yearMonth are ordered first, they are saved to the table directly, as the
+    // API requires a yearMonth
+    List<CounterReport> reports =
+        Stream.of(null, null, "2012-01")
+            .map(
+                yearMonth ->
+                    new CounterReport()
+                        .withId(UUID.randomUUID().toString())
+                        .withRelease("4")
+                        .withProviderId(UUID.randomUUID().toString())
+                        .withYearMonth(yearMonth)
+                        .withReportName("JR1"))
+            .toList();
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, TENANT);
+    Async async = context.async(reports.size());
+    reports.forEach(
+        cr ->
+            pgClient
+                .save(Constants.TABLE_NAME_COUNTER_REPORTS, cr.getId(), cr)
+                .onComplete(context.asyncAssertSuccess(id -> async.countDown())));
+    async.await();
+    List<String> expectedIds =
+        Stream.concat(
+                reports.subList(0, 2).stream().map(CounterReport::getId).sorted(),
+                Stream.of(reports.get(2).getId()))
+            .toList();
+
+    List<String> ids = new ArrayList<>();
+    String cursor = "*";
+    while (cursor != null) {
+      CounterReports page =
+          given(counterReportsReqSpec)
+              .queryParam("cursor", cursor)
+              .queryParam("limit", 1)
+              .get()
+              .then()
+              .statusCode(200)
+              .extract()
+              .as(CounterReports.class);
+      page.getCounterReports().forEach(cr -> ids.add(cr.getId()));
+      cursor = page.getNextCursor();
+    }
+    assertThat(ids).isEqualTo(expectedIds);
+  }
+
+  @Test
+  public void testGetCounterReportsTotalRecords() {
+    IntStream.rangeClosed(1, 3)
+        .mapToObj(
+            i ->
+                new CounterReport()
+                    .withId(UUID.randomUUID().toString())
+                    .withDownloadTime(Date.from(Instant.now()))
+                    .withRelease("4")
+                    .withProviderId(UUID.randomUUID().toString())
+                    .withYearMonth("2012-0" + i)
+                    .withReportName("JR1"))
+        .forEach(cr -> given(counterReportsReqSpec).body(cr).post().then().statusCode(201));
+
+    given(counterReportsReqSpec)
+        .queryParam("query", "reportName=JR1")
+        .queryParam("limit", 1)
+        .queryParam("totalRecords", "none")
+        .get()
+        .then()
+        .statusCode(200)
+        .body("counterReports.size()", equalTo(1))
+        .body("totalRecords", nullValue());
+    // estimates of small results are replaced by an exact count
+    Stream.of("estimated", "exact")
+        .forEach(
+            totalRecords ->
+                given(counterReportsReqSpec)
+                    .queryParam("query", "reportName=JR1")
+                    .queryParam("limit", 1)
+                    .queryParam("totalRecords", totalRecords)
+                    .get()
+                    .then()
+                    .statusCode(200)
+                    .body("counterReports.size()", equalTo(1))
+                    .body("totalRecords", equalTo(3)));
+    given(counterReportsReqSpec)
+        .queryParam("cursor", "*")
+        .queryParam("totalRecords", "estimated")
+        .get()
+        .then()
+        .statusCode(200)
+        .body("totalRecords", equalTo(3));
+  }
+
+  @Test
+  public void testGetCounterReportsByInvalidCursor() {
+    given(counterReportsReqSpec).queryParam("cursor", "invalid").get().then().statusCode(400);
+    given(counterReportsReqSpec)
+        .queryParam("cursor", "*")
+        .queryParam("query", "cql.allRecords=1 sortBy yearMonth")
+        .get()
+        .then()
+        .statusCode(400);
+  }
+
+  @Test
+  public void testPostDuplicateMonthIsRejected() {
+    given(counterReportsReqSpec).body(Json.encode(report)).post().then().statusCode(201);
+
+    // counter_reports_custom_getcsv_idx is unique on providerId, reportName, release, yearMonth
+    CounterReport duplicate =
+        Json.decodeValue(Json.encode(report), CounterReport.class)
+            .withId(UUID.randomUUID().toString());
+    given(counterReportsReqSpec)
+        .body(Json.encode(duplicate))
+        .post()
+        .then()
+        .statusCode(both(greaterThanOrEqualTo(400)).and(lessThan(500)));
+  }
+
   @Test
   public void checkThatWeCanAddGetPutAndDeleteCounterReports() {
     // POST
@@ -428,6 +658,20 @@ public class CounterReportIT {
     assertThat(finalResult.getReportReleases()).containsExactly("5", "5.0");
   }
 
+  @Test
+  public void checkThatWeGetFacetCacheStats() {
+    FacetCacheStats initialStats =
+        given(counterReportsReqSpec).get(PATH_FACET_CACHE_STATS).as(FacetCacheStats.class);
+    given(counterReportsReqSpec).get(PATH_REPORT_RELEASES).then().statusCode(200);
+    given(counterReportsReqSpec).get(PATH_REPORT_TYPES).then().statusCode(200);
+
+    FacetCacheStats stats =
+        given(counterReportsReqSpec).get(PATH_FACET_CACHE_STATS).as(FacetCacheStats.class);
+    assertThat(stats.getHits() + stats.getMisses())
+        .isEqualTo(initialStats.getHits() + initialStats.getMisses() + 2);
+    assertThat(stats.getTenants()).isPositive();
+  }
+
   @Test
   public void checkThatWeGetReportTypes() throws IOException {
     // POST reports
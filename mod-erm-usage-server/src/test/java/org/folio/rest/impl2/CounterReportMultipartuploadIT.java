@@ -10,7 +10,7 @@ import static org.folio.rest.impl.CounterReportAPI.FORM_ATTR_EDITED;
 import static org.folio.rest.impl.CounterReportAPI.FORM_ATTR_REASON;
 import static org.folio.rest.util.ReportUploadErrorCode.INVALID_REPORT_CONTENT;
 import static org.folio.rest.util.ReportUploadErrorCode.MAXIMUM_FILESIZE_EXCEEDED;
-import static org.folio.rest.util.ReportUploadErrorCode.MULTIPLE_FILES_NOT_SUPPORTED;
+import static org.folio.rest.util.ReportUploadErrorCode.MAXIMUM_FILES_EXCEEDED;
 import static org.folio.rest.util.ReportUploadErrorCode.REPORTS_ALREADY_PRESENT;
 import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_FILE_FORMAT;
 import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_REPORT_TYPE;
@@ -22,8 +22,10 @@ import com.google.common.net.HttpHeaders;
 import io.restassured.RestAssured;
 import io.restassured.builder.MultiPartSpecBuilder;
 import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
 import io.restassured.parsing.Parser;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
@@ -37,15 +39,24 @@ import jakarta.xml.bind.JAXB;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.postgres.testing.PostgresTesterContainer;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.CounterReports;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.rest.jaxrs.model.ReportUploadFileResult;
+import org.folio.rest.jaxrs.model.ReportUploadJob;
+import org.folio.rest.jaxrs.model.ReportUploadJob.Status;
+import org.folio.rest.jaxrs.model.ReportUploadResults;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
@@ -230,16 +241,98 @@ public class CounterReportMultipartuploadIT {
   }
 
   @Test
-  public void testMultipleFiles(TestContext context) {
-    Async async = context.async();
-    Response response =
+  public void testMultipleFiles() {
+    ReportUploadResults results =
         given()
-            .header(HttpHeaders.CONTENT_TYPE, "multipart/form-data")
             .formParams(FORM_PARAMS)
             .multiPart(FILE_REPORT5_OK)
             .multiPart(FILE_REPORT_OK)
-            .post("/counter-reports/multipartupload/provider/" + PROVIDER_ID);
-    assertReportUploadErrorResponse(response, MULTIPLE_FILES_NOT_SUPPORTED);
+            .multiPart(FILE_NO_REPORT)
+            .post(PATH + PROVIDER_ID)
+            .then()
+            .statusCode(200)
+            .extract()
+            .as(ReportUploadResults.class);
+    assertThat(results.getResults())
+        .extracting(ReportUploadFileResult::getFileName)
+        .containsExactly(
+            FILE_REPORT5_OK.getName(), FILE_REPORT_OK.getName(), FILE_NO_REPORT.getName());
+    assertThat(results.getResults().get(0).getReportIds()).hasSize(1);
+    assertThat(results.getResults().get(1).getReportIds()).hasSize(1);
+    assertThat(results.getResults().get(2).getReportIds()).isEmpty();
+    assertThat(results.getResults().get(2).getError().getCode())
+        .isEqualTo(UNSUPPORTED_FILE_FORMAT.name());
+    testThatDBSizeIsSize(2);
+  }
+
+  @Test
+  public void testMultipleFilesWithSameMonths() {
+    ReportUploadResults results =
+        given()
+            .multiPart(FILE_REPORT_MULTI_COP4)
+            .multiPart(FILE_REPORT_OK)
+            .post(PATH + PROVIDER_ID)
+            .then()
+            .statusCode(200)
+            .extract()
+            .as(ReportUploadResults.class);
+    assertThat(results.getResults().get(0).getReportIds()).hasSize(2);
+    assertThat(results.getResults().get(0).getError()).isNull();
+    assertThat(results.getResults().get(1).getReportIds()).isEmpty();
+    assertThat(results.getResults().get(1).getError().getCode())
+        .isEqualTo(REPORTS_ALREADY_PRESENT.name());
+    testThatDBSizeIsSize(2);
+  }
+
+  @Test
+  public void testMultipleFilesWithExistingMonths() {
+    given().multiPart(FILE_REPORT_OK).post(PATH + PROVIDER_ID).then().statusCode(200);
+
+    ReportUploadResults results =
+        given()
+            .multiPart(FILE_REPORT5_OK)
+            .multiPart(FILE_REPORT_MULTI_COP4)
+            .queryParam("overwrite", false)
+            .post(PATH + PROVIDER_ID)
+            .then()
+            .statusCode(200)
+            .extract()
+            .as(ReportUploadResults.class);
+    assertThat(results.getResults().get(0).getReportIds()).hasSize(1);
+    assertThat(results.getResults().get(0).getError()).isNull();
+    assertThat(results.getResults().get(1).getFileName())
+        .isEqualTo(FILE_REPORT_MULTI_COP4.getName());
+    assertThat(results.getResults().get(1).getReportIds()).isEmpty();
+    assertThat(results.getResults().get(1).getError())
+        .satisfies(
+            error -> {
+              assertThat(error.getCode()).isEqualTo(REPORTS_ALREADY_PRESENT.name());
+              assertThat(error.getDetails()).contains("2018-03").doesNotContain("2018-04");
+            });
+    testThatDBSizeIsSize(2);
+  }
+
+  @Test
+  public void testMultipleFilesAllFailed() {
+    Response response =
+        given()
+            .multiPart(FILE_NO_REPORT)
+            .multiPart(FILE_REPORT_UNSUPPORTED)
+            .post(PATH + PROVIDER_ID);
+    assertReportUploadErrorResponse(response, UNSUPPORTED_FILE_FORMAT);
+    testThatDBIsEmpty();
+  }
+
+  @Test
+  public void testTooManyFiles(TestContext context) {
+    Async async = context.async();
+    RequestSpecification request = given();
+    for (int i = 0; i <= 24; i++) {
+      request.multiPart(FILE_REPORT_OK);
+    }
+    Response response = request.post(PATH + PROVIDER_ID);
+    assertReportUploadErrorResponse(
+        response, MAXIMUM_FILES_EXCEEDED, "The maximum number of files is 24");
 
     vertx.setTimer(
         2000,
@@ -327,6 +420,129 @@ public class CounterReportMultipartuploadIT {
     assertThat(reportFromXML).usingRecursiveComparison().isEqualTo(reportFromDB);
   }
 
+  private ReportUploadJob awaitUploadJob(String jobId) throws InterruptedException {
+    for (int i = 0; i < 100; i++) {
+      ReportUploadJob job =
+          get("/counter-reports/upload-jobs/" + jobId)
+              .then()
+              .statusCode(200)
+              .extract()
+              .as(ReportUploadJob.class);
+      if (job.getStatus() == Status.COMPLETED || job.getStatus() == Status.FAILED) {
+        return job;
+      }
+      Thread.sleep(100);
+    }
+    return fail("Upload job %s did not finish", jobId);
+  }
+
+  @Test
+  public void testAsyncUploadOk() throws InterruptedException {
+    ReportUploadJob job =
+        given()
+            .formParams(FORM_PARAMS)
+            .multiPart(FILE_REPORT_MULTI_COP4)
+            .queryParam("async", true)
+            .post(PATH + PROVIDER_ID)
+            .then()
+            .statusCode(202)
+            .extract()
+            .as(ReportUploadJob.class);
+    assertThat(job.getProviderId()).isEqualTo(PROVIDER_ID);
+    assertThat(job.getFileNames()).containsExactly(FILE_REPORT_MULTI_COP4.getName());
+
+    ReportUploadJob finishedJob = awaitUploadJob(job.getId());
+    assertThat(finishedJob.getStatus()).isEqualTo(Status.COMPLETED);
+    assertThat(finishedJob.getMonthsParsed()).isEqualTo(2);
+    assertThat(finishedJob.getMonthsSaved()).isEqualTo(2);
+    assertThat(finishedJob.getReportIds()).hasSize(2);
+    assertThat(finishedJob.getError()).isNull();
+    assertThat(finishedJob.getMetadata().getCreatedDate()).isNotNull();
+    assertThat(finishedJob.getMetadata().getUpdatedDate())
+        .isAfterOrEqualTo(finishedJob.getMetadata().getCreatedDate());
+    assertThat(finishedJob.getResults())
+        .singleElement()
+        .satisfies(r -> assertThat(r.getReportIds()).isEqualTo(finishedJob.getReportIds()));
+    testThatDBSizeIsSize(2);
+
+    CounterReport savedReport =
+        given()
+            .get("/counter-reports/" + finishedJob.getReportIds().get(0))
+            .then()
+            .extract()
+            .as(CounterReport.class);
+    assertThat(savedReport.getReportEditedManually()).isTrue();
+    assertThat(savedReport.getEditReason()).isEqualTo(EDIT_REASON);
+  }
+
+  @Test
+  public void testAsyncUploadFailed() throws InterruptedException {
+    ReportUploadJob job =
+        given()
+            .multiPart(FILE_REPORT_UNSUPPORTED)
+            .queryParam("async", true)
+            .post(PATH + PROVIDER_ID)
+            .then()
+            .statusCode(202)
+            .extract()
+            .as(ReportUploadJob.class);
+
+    ReportUploadJob finishedJob = awaitUploadJob(job.getId());
+    assertThat(finishedJob.getStatus()).isEqualTo(Status.FAILED);
+    assertThat(finishedJob.getError().getCode()).isEqualTo(UNSUPPORTED_REPORT_TYPE.name());
+    assertThat(finishedJob.getReportIds()).isEmpty();
+    testThatDBIsEmpty();
+  }
+
+  @Test
+  public void testAsyncUploadUnsupportedFileFormat() {
+    Response response =
+        given().multiPart(FILE_NO_REPORT).queryParam("async", true).post(PATH + PROVIDER_ID);
+    assertReportUploadErrorResponse(response, UNSUPPORTED_FILE_FORMAT);
+  }
+
+  @Test
+  public void testStaleAndExpiredUploadJobs(TestContext ctx) {
+    Date longAgo = Date.from(Instant.now().minus(Duration.ofDays(365)));
+    ReportUploadJob staleJob =
+        new ReportUploadJob()
+            .withId(UUID.randomUUID().toString())
+            .withProviderId(PROVIDER_ID)
+            .withStatus(Status.IN_PROGRESS)
+            .withMetadata(new Metadata().withCreatedDate(longAgo).withUpdatedDate(longAgo));
+    ReportUploadJob expiredJob =
+        new ReportUploadJob()
+            .withId(UUID.randomUUID().toString())
+            .withProviderId(PROVIDER_ID)
+            .withStatus(Status.COMPLETED)
+            .withMetadata(new Metadata().withCreatedDate(longAgo).withUpdatedDate(longAgo));
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, TENANT);
+    Async async = ctx.async();
+    pgClient
+        .save(Constants.TABLE_NAME_REPORT_UPLOAD_JOBS, staleJob.getId(), staleJob)
+        .compose(
+            id ->
+                pgClient.save(
+                    Constants.TABLE_NAME_REPORT_UPLOAD_JOBS, expiredJob.getId(), expiredJob))
+        .onComplete(ctx.asyncAssertSuccess(id -> async.complete()));
+    async.await();
+
+    ReportUploadJob failedJob =
+        get("/counter-reports/upload-jobs/" + staleJob.getId())
+            .then()
+            .statusCode(200)
+            .extract()
+            .as(ReportUploadJob.class);
+    assertThat(failedJob.getStatus()).isEqualTo(Status.FAILED);
+    assertThat(failedJob.getError().getCode()).isEqualTo(ReportUploadErrorCode.OTHER.name());
+    get("/counter-reports/upload-jobs/" + expiredJob.getId()).then().statusCode(404);
+  }
+
+  @Test
+  public void testUploadJobNotFound() {
+    get("/counter-reports/upload-jobs/" + PROVIDER_ID2).then().statusCode(404);
+  }
+
   @Test
   public void testR4UnsupportedReport() {
     Response response = given().multiPart(FILE_REPORT_UNSUPPORTED).post(PATH + PROVIDER_ID);
@@ -360,6 +576,37 @@ public class CounterReportMultipartuploadIT {
     testThatDBSizeIsSize(1);
   }
 
+  @Test
+  public void testOverwriteSkipsUnchangedMonths() {
+    given()
+        .multiPart(FILE_REPORT_MULTI_COP4)
+        .queryParam("overwrite", true)
+        .post(PATH + PROVIDER_ID)
+        .then()
+        .statusCode(200);
+
+    ReportUploadResults results =
+        given()
+            .accept(ContentType.JSON)
+            .multiPart(FILE_REPORT_MULTI_COP4)
+            .queryParam("overwrite", true)
+            .post(PATH + PROVIDER_ID)
+            .then()
+            .statusCode(200)
+            .extract()
+            .as(ReportUploadResults.class);
+    assertThat(results.getResults())
+        .singleElement()
+        .satisfies(
+            result -> {
+              assertThat(result.getReportIds()).hasSize(2);
+              assertThat(result.getNewMonths()).isEmpty();
+              assertThat(result.getChangedMonths()).isEmpty();
+              assertThat(result.getUnchangedMonths()).containsExactly("2018-03", "2018-04");
+            });
+    testThatDBSizeIsSize(2);
+  }
+
   @Test
   public void testR4OkOverwriteFalse() {
     given()
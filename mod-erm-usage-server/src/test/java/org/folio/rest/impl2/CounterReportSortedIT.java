@@ -29,7 +29,9 @@ import org.folio.rest.RestVerticle;
 import org.folio.rest.TestUtils;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.CounterReports;
+import org.folio.rest.jaxrs.model.CounterReportsPerYear;
 import org.folio.rest.jaxrs.model.CounterReportsSorted;
+import org.folio.rest.jaxrs.model.ReportsPerType;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.NetworkUtils;
@@ -172,4 +174,91 @@ public class CounterReportSortedIT {
                       });
             });
   }
+
+  @Test
+  public void testGetSortedOrder() {
+    counterReports.forEach(cr -> given().body(cr).post().then().statusCode(201));
+
+    CounterReportsSorted sortedResult =
+        given()
+            .pathParam("id", baseReport.getProviderId())
+            .get("/sorted/{id}")
+            .then()
+            .statusCode(200)
+            .extract()
+            .as(CounterReportsSorted.class);
+    assertThat(sortedResult.getCounterReportsPerYear())
+        .extracting(CounterReportsPerYear::getYear)
+        .containsExactly(2018, 2019);
+    sortedResult
+        .getCounterReportsPerYear()
+        .forEach(
+            counterReportsPerYear -> {
+              assertThat(counterReportsPerYear.getReportsPerType())
+                  .extracting(ReportsPerType::getReportType)
+                  .containsExactly(baseReport.getReportName(), "TR1");
+              counterReportsPerYear
+                  .getReportsPerType()
+                  .forEach(
+                      reportsPerType ->
+                          assertThat(reportsPerType.getCounterReports())
+                              .extracting(CounterReport::getYearMonth)
+                              .hasSize(12)
+                              .isSorted());
+            });
+  }
+
+  @Test
+  public void testGetSortedSkipsMalformedYearMonth(TestContext context) {
+    CounterReport valid =
+        Json.decodeValue(Json.encode(baseReport), CounterReport.class)
+            .withId(UUID.randomUUID().toString())
+            .withYearMonth("2019-01");
+    CounterReport malformed =
+        Json.decodeValue(Json.encode(baseReport), CounterReport.class)
+            .withId(UUID.randomUUID().toString())
+            .withYearMonth("01/2019");
+    // saved to the table directly, the API might reject the malformed yearMonth
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, TENANT);
+    Async async = context.async();
+    pgClient
+        .save(Constants.TABLE_NAME_COUNTER_REPORTS, valid.getId(), valid)
+        .compose(
+            v -> pgClient.save(Constants.TABLE_NAME_COUNTER_REPORTS, malformed.getId(), malformed))
+        .onComplete(context.asyncAssertSuccess(v -> async.complete()));
+    async.await();
+
+    CounterReportsSorted sortedResult =
+        given()
+            .pathParam("id", baseReport.getProviderId())
+            .get("/sorted/{id}")
+            .then()
+            .statusCode(200)
+            .extract()
+            .as(CounterReportsSorted.class);
+    assertThat(sortedResult.getCounterReportsPerYear())
+        .singleElement()
+        .satisfies(
+            perYear -> {
+              assertThat(perYear.getYear()).isEqualTo(2019);
+              assertThat(perYear.getReportsPerType())
+                  .flatExtracting(ReportsPerType::getCounterReports)
+                  .extracting(CounterReport::getId)
+                  .containsExactly(valid.getId());
+            });
+  }
+
+  @Test
+  public void testGetSortedWithoutReports() {
+    CounterReportsSorted sortedResult =
+        given()
+            .pathParam("id", UUID.randomUUID().toString())
+            .get("/sorted/{id}")
+            .then()
+            .statusCode(200)
+            .contentType(equalTo("application/json"))
+            .extract()
+            .as(CounterReportsSorted.class);
+    assertThat(sortedResult.getCounterReportsPerYear()).isEmpty();
+  }
 }
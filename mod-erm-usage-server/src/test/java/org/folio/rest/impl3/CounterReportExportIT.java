@@ -11,25 +11,33 @@ import static org.folio.rest.util.ReportExportHelper.NO_REPORT_DATA;
 import static org.folio.rest.util.ReportExportHelper.UNSUPPORTED_COUNTER_VERSION_MSG;
 import static org.folio.rest.util.ReportExportHelper.UNSUPPORTED_FORMAT_MSG;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import io.vertx.core.json.Json;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import org.folio.rest.Setup;
 import org.folio.rest.SetupTenant;
 import org.folio.rest.TestUtils;
 import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.CounterReportsBulkExport;
 import org.folio.rest.jaxrs.model.Report;
 import org.folio.rest.util.ClockProvider;
 import org.junit.jupiter.api.AfterAll;
@@ -47,6 +55,7 @@ class CounterReportExportIT {
   static final String PATH_EXPORT_REPORT_ID = "/export/{id}";
   static final String PATH_EXPORT_PROVIDER_ID =
       "/export/provider/{id}/report/{name}/version/{version}/from/{begin}/to/{end}";
+  static final String PATH_EXPORT_BULK = "/export/bulk";
   private static final String NON_EXISTENT_REPORT_ID = "13aa6f47-509b-4fe2-affb-c5a58cce69b4";
   private static final Report INVALID_REPORT =
       Json.decodeValue("{ \"abc\": \"123\" }", Report.class);
@@ -267,6 +276,34 @@ class CounterReportExportIT {
         .contains(getExpectedCsvStrings(testData.release, testData.expectedByProviderIdCsvLine));
   }
 
+  @ParameterizedTest
+  @MethodSource("provideTestDataAndExportFormatCombinations")
+  void testThatExportByProviderIdIsStreamed(TestData testData, ExportFormat exportFormat) {
+    getExportByProviderId(testData, exportFormat)
+        .then()
+        .statusCode(200)
+        .contentType(exportFormat.contentType)
+        .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+        .header(HttpHeaders.CONTENT_LENGTH, nullValue());
+  }
+
+  @ParameterizedTest
+  @EnumSource(TestData.class)
+  void testThatExportByProviderIdIsCompressed(TestData testData) {
+    // RestAssured accepts gzip by default and decompresses the response
+    String csv =
+        getExportByProviderId(testData, CSV)
+            .then()
+            .statusCode(200)
+            .contentType(CSV.contentType)
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .extract()
+            .asString();
+    assertThat(csv)
+        .contains(getExpectedCsvStrings(testData.release, testData.expectedByProviderIdCsvLine));
+  }
+
   @ParameterizedTest
   @EnumSource(TestData.class)
   void testThatExportByProviderIdReturnsCsvByDefault(TestData testData) {
@@ -332,6 +369,95 @@ class CounterReportExportIT {
         .body(equalTo("Merged report is null"));
   }
 
+  private static Response postBulkExport(CounterReportsBulkExport request) {
+    return given()
+        .contentType(MediaType.JSON_UTF_8.toString())
+        .body(Json.encode(request))
+        .post(PATH_EXPORT_BULK);
+  }
+
+  /** Reads the entries of a ZIP archive, entries in xlsx format are converted to CSV. */
+  private static Map<String, String> readZipEntries(InputStream inputStream) throws IOException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    try (ZipInputStream zip = new ZipInputStream(inputStream)) {
+      for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+        byte[] bytes = zip.readAllBytes();
+        entries.put(
+            entry.getName(),
+            entry.getName().endsWith(".xlsx")
+                ? ExcelUtil.toCSV(new ByteArrayInputStream(bytes))
+                : new String(bytes, StandardCharsets.UTF_8));
+      }
+    }
+    return entries;
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideTestDataAndExportFormatCombinations")
+  void testThatBulkExportReturnsZip(TestData testData, ExportFormat exportFormat)
+      throws IOException {
+    String nonExistentProviderId = UUID.randomUUID().toString();
+    CounterReportsBulkExport request =
+        new CounterReportsBulkExport()
+            .withProviderIds(List.of(testData.providerId, nonExistentProviderId))
+            .withReportName(testData.reportName)
+            .withVersion(testData.release)
+            .withBegin(testData.beginDate)
+            .withEnd(testData.endDate)
+            .withFormat(exportFormat.format);
+    InputStream inputStream =
+        postBulkExport(request)
+            .then()
+            .statusCode(200)
+            .contentType("application/zip")
+            .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+            .extract()
+            .asInputStream();
+
+    Map<String, String> entries = readZipEntries(inputStream);
+    assertThat(entries).hasSize(2).containsKey("errors.txt");
+    assertThat(entries.get("errors.txt")).contains(nonExistentProviderId);
+    entries.remove("errors.txt");
+    assertThat(entries.keySet())
+        .singleElement()
+        .asString()
+        .endsWith(
+            "_%s_%s_%s.%s"
+                .formatted(
+                    testData.reportName,
+                    testData.beginDate,
+                    testData.endDate,
+                    exportFormat.format));
+    assertThat(entries.values())
+        .singleElement()
+        .asString()
+        .contains(getExpectedCsvStrings(testData.release, testData.expectedByProviderIdCsvLine));
+  }
+
+  @ParameterizedTest
+  @EnumSource(ExportFormat.class)
+  void testBulkExportWithInvalidRequest(ExportFormat exportFormat) {
+    CounterReportsBulkExport request =
+        new CounterReportsBulkExport()
+            .withReportName("TR")
+            .withVersion("5")
+            .withBegin("2022-01")
+            .withEnd("2022-12")
+            .withFormat(exportFormat.format);
+    postBulkExport(request)
+        .then()
+        .statusCode(400)
+        .body(equalTo("Either providerIds or aggregatorId is required."));
+    postBulkExport(request.withProviderIds(List.of("1234")))
+        .then()
+        .statusCode(400)
+        .body(equalTo("providerIds must be UUIDs."));
+    postBulkExport(request.withProviderIds(List.of(UUID.randomUUID().toString())).withVersion("3"))
+        .then()
+        .statusCode(400)
+        .body(equalTo(UNSUPPORTED_COUNTER_VERSION_MSG.formatted("3")));
+  }
+
   enum TestData {
     REPORT_4_JR1(
         "4",
@@ -0,0 +1,69 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.folio.rest.jaxrs.model.CounterReportsBulkExport;
+import org.junit.jupiter.api.Test;
+
+class BulkExportHelperTest {
+
+  private static final String ID1 = "4b659cb9-e4bb-493d-ae30-5f5690c54802";
+  private static final String ID2 = "e0a0d7a4-0b5f-4c5d-a4b4-3f43d3f1ef7c";
+  private static final String ID3 = "0d4a8a88-7e38-4f0e-9e38-cf1f3bb1d0f5";
+
+  private static CounterReportsBulkExport createRequest() {
+    return new CounterReportsBulkExport()
+        .withProviderIds(List.of(ID1, ID2.toUpperCase(), ID2))
+        .withReportName("TR_J1")
+        .withVersion("5")
+        .withBegin("2021-01")
+        .withEnd("2021-12")
+        .withFormat("xlsx");
+  }
+
+  @Test
+  void testValidate() {
+    assertThat(BulkExportHelper.validate(createRequest())).isNull();
+    assertThat(BulkExportHelper.validate(createRequest().withProviderIds(List.of())))
+        .isEqualTo("Either providerIds or aggregatorId is required.");
+    assertThat(BulkExportHelper.validate(createRequest().withAggregatorId(ID3)))
+        .isEqualTo("Either providerIds or aggregatorId is required.");
+    assertThat(
+            BulkExportHelper.validate(
+                createRequest().withProviderIds(List.of()).withAggregatorId(ID3)))
+        .isNull();
+    assertThat(
+            BulkExportHelper.validate(createRequest().withProviderIds(List.of(ID1, "1-2-3-4-5"))))
+        .isEqualTo("providerIds must be UUIDs.");
+    assertThat(BulkExportHelper.validate(createRequest().withVersion("3")))
+        .isEqualTo(ReportExportHelper.UNSUPPORTED_COUNTER_VERSION_MSG.formatted("3"));
+    assertThat(BulkExportHelper.validate(createRequest().withFormat("tsv")))
+        .isEqualTo(ReportExportHelper.UNSUPPORTED_FORMAT_MSG.formatted("tsv"));
+    assertThat(BulkExportHelper.validate(createRequest().withBegin("2022-01")))
+        .isEqualTo("begin must not be after end.");
+    assertThat(BulkExportHelper.validate(createRequest().withEnd("2021-13")))
+        .isEqualTo("begin and end must be months formatted as yyyy-MM.");
+  }
+
+  @Test
+  void testGetProviderIds() {
+    assertThat(BulkExportHelper.getProviderIds(createRequest())).containsExactly(ID1, ID2);
+  }
+
+  @Test
+  void testCreateEntryNames() {
+    Map<String, String> providerLabels = new LinkedHashMap<>();
+    providerLabels.put(ID1, "Provider A/B");
+    providerLabels.put(ID2, "Provider A/B");
+    providerLabels.put(ID3, null);
+
+    assertThat(BulkExportHelper.createEntryNames(createRequest(), providerLabels))
+        .containsExactly(
+            Map.entry(ID1, "Provider A_B_TR_J1_2021-01_2021-12.xlsx"),
+            Map.entry(ID2, "Provider A_B_" + ID2 + "_TR_J1_2021-01_2021-12.xlsx"),
+            Map.entry(ID3, ID3 + "_TR_J1_2021-01_2021-12.xlsx"));
+  }
+}
@@ -0,0 +1,44 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ConfigUtilTest {
+
+  private static final String NAME = "POOL_SIZE";
+
+  @Test
+  void testParsePositiveInt() {
+    assertThat(ConfigUtil.parsePositiveInt(NAME, "4", 2)).isEqualTo(4);
+  }
+
+  @ParameterizedTest
+  @NullSource
+  @ValueSource(strings = {"", "0", "-1", "abc"})
+  void testParsePositiveIntDefault(String value) {
+    assertThat(ConfigUtil.parsePositiveInt(NAME, value, 2)).isEqualTo(2);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"true", "TRUE", " true "})
+  void testParseBooleanTrue(String value) {
+    assertThat(ConfigUtil.parseBoolean(NAME, value, false)).isTrue();
+  }
+
+  @ParameterizedTest
+  @NullSource
+  @ValueSource(strings = {"", "1", "yes", "abc"})
+  void testParseBooleanDefault(String value) {
+    assertThat(ConfigUtil.parseBoolean(NAME, value, true)).isTrue();
+    assertThat(ConfigUtil.parseBoolean(NAME, value, false)).isFalse();
+  }
+
+  @Test
+  void testParseBooleanFalse() {
+    assertThat(ConfigUtil.parseBoolean(NAME, "false", true)).isFalse();
+  }
+}
@@ -0,0 +1,70 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CounterReportCursorTest {
+
+  private static String base64(String value) {
+    return Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testEncodeAndDecode() {
+    UUID id = UUID.randomUUID();
+    String cursor = CounterReportCursor.encode("2021-03", id.toString());
+
+    assertThat(cursor).doesNotContain("2021-03", "/", "=");
+    assertThat(CounterReportCursor.decode(cursor))
+        .isEqualTo(new CounterReportCursor("2021-03", id));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "01/2021"})
+  void testEncodeAndDecodeOtherYearMonth(String yearMonth) {
+    UUID id = UUID.randomUUID();
+    String cursor = CounterReportCursor.encode(yearMonth, id.toString());
+
+    assertThat(CounterReportCursor.decode(cursor))
+        .isEqualTo(new CounterReportCursor(yearMonth, id));
+  }
+
+  @Test
+  void testEncodeWithoutYearMonth() {
+    UUID id = UUID.randomUUID();
+    String cursor = CounterReportCursor.encode(null, id.toString());
+
+    assertThat(CounterReportCursor.decode(cursor)).isEqualTo(new CounterReportCursor("", id));
+  }
+
+  @Test
+  void testDecodeFirst() {
+    assertThat(CounterReportCursor.decode(CounterReportCursor.FIRST)).isNull();
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "", "2021-03", "0b7b7ef4-bd7f-4b4e-9ee8-7bd52bb5bd7b", "2021-03/abc", "a/b/c"
+      })
+  void testDecodeInvalid(String value) {
+    String cursor = base64(value);
+    assertThatThrownBy(() -> CounterReportCursor.decode(cursor))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid cursor: " + cursor);
+  }
+
+  @Test
+  void testDecodeInvalidBase64() {
+    assertThatThrownBy(() -> CounterReportCursor.decode("%%%"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid cursor: %%%");
+  }
+}
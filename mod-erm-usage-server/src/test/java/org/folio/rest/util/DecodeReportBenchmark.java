@@ -0,0 +1,84 @@
+package org.folio.rest.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import io.vertx.core.json.Json;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.folio.rest.jaxrs.model.Report;
+import org.olf.erm.usage.counter41.Counter4Utils;
+import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter51.Counter51Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link ProcessorHelper#decodeReport} with encoding a split report as a JSON string and
+ * decoding the string, which the upload did before. The {@code gc} profiler reports the allocated
+ * bytes per operation ({@code gc.alloc.rate.norm}).
+ *
+ * <p>Benchmarks are not run by the tests, run this one with
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *   -Dexec.args="-cp %classpath org.openjdk.jmh.Main DecodeReportBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecodeReportBenchmark {
+
+  @Param({"R4", "R5", "R51"})
+  public ReportReleaseVersion version;
+
+  private Object report;
+
+  private static String readResource(String name) throws IOException {
+    return Resources.toString(Resources.getResource(name), StandardCharsets.UTF_8);
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    report =
+        switch (version) {
+          case R4 -> Counter4Utils.fromJSON(readResource("performance/JR1-2019-01.json"));
+          case R5 -> Counter5Utils.fromJSON(readResource("fileupload/reportCOP5TRMultiMonth.json"));
+          case R51 ->
+              Counter51Utils.getDefaultObjectMapper()
+                  .readTree(readResource("fileupload/DR_sample_r51.json"));
+        };
+  }
+
+  @Benchmark
+  public Report decodeReport() {
+    return ProcessorHelper.decodeReport(report, version);
+  }
+
+  @Benchmark
+  public Report decodeReportFromString() throws IOException {
+    return switch (version) {
+      case R4 ->
+          Json.decodeValue(
+              Counter4Utils.toJSON((org.niso.schemas.counter.Report) report), Report.class);
+      case R5 -> Json.decodeValue(Json.encode(report), Report.class);
+      case R51 -> {
+        ObjectMapper mapper = Counter51Utils.getDefaultObjectMapper();
+        yield mapper.readValue(mapper.writeValueAsString(report), Report.class);
+      }
+    };
+  }
+}
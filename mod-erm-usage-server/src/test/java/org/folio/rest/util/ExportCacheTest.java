@@ -0,0 +1,88 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.rest.util.ExportCache.Key;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExportCacheTest {
+
+  private static final byte[] EXPORT =
+      "Report_Name,Title Report\r\n".getBytes(StandardCharsets.UTF_8);
+
+  private static Key createKey(String tenant, String format) {
+    return ExportCache.createKey(
+        Map.of(XOkapiHeaders.TENANT, tenant),
+        "providerId",
+        "TR_J1",
+        "5",
+        "2021-01",
+        "2021-12",
+        format);
+  }
+
+  private static void writeCaptured(Key key, long providerVersion, byte[] export, boolean close)
+      throws IOException {
+    ByteArrayOutputStream response = new ByteArrayOutputStream();
+    OutputStream out = ExportCache.capture(key, providerVersion, response);
+    out.write(export, 0, export.length);
+    if (close) {
+      out.close();
+    }
+    assertThat(response.toByteArray()).isEqualTo(export);
+  }
+
+  @BeforeEach
+  void setUp() {
+    ExportCache.invalidateAll();
+  }
+
+  @Test
+  void testCapturedExportIsCached() throws IOException {
+    Key key = createKey("tenant1", "csv");
+    long misses = ExportCache.getMissCount();
+    long hits = ExportCache.getHitCount();
+
+    assertThat(ExportCache.get(key, 1)).isNull();
+    writeCaptured(key, 1, EXPORT, true);
+    assertThat(ExportCache.get(key, 1)).isEqualTo(EXPORT);
+    assertThat(ExportCache.get(createKey("tenant2", "csv"), 1)).isNull();
+    assertThat(ExportCache.get(createKey("tenant1", "xlsx"), 1)).isNull();
+
+    assertThat(ExportCache.getHitCount() - hits).isEqualTo(1);
+    assertThat(ExportCache.getMissCount() - misses).isEqualTo(3);
+  }
+
+  @Test
+  void testExportOfOtherProviderVersionIsStale() throws IOException {
+    Key key = createKey("tenant1", "csv");
+    writeCaptured(key, 1, EXPORT, true);
+
+    assertThat(ExportCache.get(key, 2)).isNull();
+    // stale entries are removed
+    assertThat(ExportCache.get(key, 1)).isNull();
+  }
+
+  @Test
+  void testIncompleteExportIsNotCached() throws IOException {
+    Key key = createKey("tenant1", "csv");
+    writeCaptured(key, 1, EXPORT, false);
+
+    assertThat(ExportCache.get(key, 1)).isNull();
+  }
+
+  @Test
+  void testLargeExportIsNotCached() throws IOException {
+    Key key = createKey("tenant1", "xlsx");
+    writeCaptured(key, 1, new byte[64 * 1024 * 1024], true);
+
+    assertThat(ExportCache.get(key, 1)).isNull();
+  }
+}
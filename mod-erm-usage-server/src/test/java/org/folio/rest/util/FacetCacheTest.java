@@ -0,0 +1,170 @@
+package org.folio.rest.util;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.ws.rs.core.Response;
+import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.rest.util.FacetCache.Facets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FacetCacheTest {
+
+  private static final long MAX_AGE = TimeUnit.MINUTES.toNanos(1);
+  private static final Facets FACETS =
+      new Facets(List.of("3030", "other"), List.of("JR1", "TR"), List.of("4", "5"));
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private Supplier<Future<Facets>> load(Future<Facets> result) {
+    return () -> {
+      loads.incrementAndGet();
+      return result;
+    };
+  }
+
+  @BeforeEach
+  void setUp() {
+    FacetCache.invalidateAll();
+  }
+
+  @Test
+  void testFacetsAreCachedPerTenant() {
+    long misses = FacetCache.getMissCount();
+    long hits = FacetCache.getHitCount();
+
+    assertThat(FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS))).result())
+        .isEqualTo(FACETS);
+    assertThat(FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS))).result())
+        .isEqualTo(FACETS);
+    FacetCache.get("tenant2", 1, MAX_AGE, load(succeededFuture(FACETS)));
+
+    assertThat(loads).hasValue(2);
+    assertThat(FacetCache.getHitCount() - hits).isEqualTo(1);
+    assertThat(FacetCache.getMissCount() - misses).isEqualTo(2);
+  }
+
+  @Test
+  void testConcurrentRequestsShareLoad() {
+    Promise<Facets> promise = Promise.promise();
+    Future<Facets> first = FacetCache.get("tenant1", 1, MAX_AGE, load(promise.future()));
+    Future<Facets> second = FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    promise.complete(FACETS);
+
+    assertThat(loads).hasValue(1);
+    assertThat(first.result()).isEqualTo(FACETS);
+    assertThat(second.result()).isEqualTo(FACETS);
+  }
+
+  @Test
+  void testFacetsOlderThanMaxAgeAreLoaded() {
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.get("tenant1", 1, -1, load(succeededFuture(FACETS)));
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testFacetsOfOlderVersionAreLoaded() {
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.get("tenant1", 2, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.get("tenant1", 2, MAX_AGE, load(succeededFuture(FACETS)));
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testCheckedFacetsAreServedWithoutVersion() {
+    assertThat(FacetCache.getChecked("tenant1", MAX_AGE, MAX_AGE)).isNull();
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+
+    assertThat(FacetCache.getChecked("tenant1", MAX_AGE, MAX_AGE).result()).isEqualTo(FACETS);
+    // the version must be read again once the check interval or the maximum age has passed
+    assertThat(FacetCache.getChecked("tenant1", -1, MAX_AGE)).isNull();
+    assertThat(FacetCache.getChecked("tenant1", MAX_AGE, -1)).isNull();
+    assertThat(FacetCache.getChecked("tenant2", MAX_AGE, MAX_AGE)).isNull();
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void testInvalidatedFacetsAreNotServedWithoutVersion() {
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.invalidate("tenant1");
+
+    assertThat(FacetCache.getChecked("tenant1", MAX_AGE, MAX_AGE)).isNull();
+  }
+
+  @Test
+  void testStats() {
+    long hits = FacetCache.getStats().getHits();
+    long misses = FacetCache.getStats().getMisses();
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.getChecked("tenant1", MAX_AGE, MAX_AGE);
+
+    assertThat(FacetCache.getStats())
+        .satisfies(
+            stats -> {
+              assertThat(stats.getHits() - hits).isEqualTo(2);
+              assertThat(stats.getMisses() - misses).isEqualTo(1);
+              assertThat(stats.getTenants()).isEqualTo(1);
+              assertThat(stats.getOldestEntryAgeSeconds()).isZero();
+            });
+  }
+
+  @Test
+  void testFailedLoadIsNotCached() {
+    assertThat(FacetCache.get("tenant1", 1, MAX_AGE, load(failedFuture("error"))).failed())
+        .isTrue();
+    assertThat(FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS))).result())
+        .isEqualTo(FACETS);
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testInvalidate() {
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.get("tenant2", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.invalidate("tenant1");
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.get("tenant2", 1, MAX_AGE, load(succeededFuture(FACETS)));
+
+    assertThat(loads).hasValue(3);
+  }
+
+  @Test
+  void testInvalidateDiscardsLoadInProgress() {
+    Promise<Facets> promise = Promise.promise();
+    FacetCache.get("tenant1", 1, MAX_AGE, load(promise.future()));
+    FacetCache.invalidate("tenant1");
+    promise.complete(FACETS);
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testInvalidateOnSuccess() {
+    Map<String, String> okapiHeaders = Map.of(XOkapiHeaders.TENANT, "tenant1");
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    FacetCache.invalidateOnSuccess(okapiHeaders, ar -> {})
+        .handle(succeededFuture(Response.status(400).build()));
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    assertThat(loads).hasValue(1);
+
+    FacetCache.invalidateOnSuccess(okapiHeaders, ar -> {})
+        .handle(succeededFuture(Response.status(201).build()));
+    FacetCache.get("tenant1", 1, MAX_AGE, load(succeededFuture(FACETS)));
+    assertThat(loads).hasValue(2);
+  }
+}
@@ -0,0 +1,52 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MergeAccumulatorTest {
+
+  /** Merges two lists, counting the elements copied as the work done. */
+  private static MergeAccumulator<List<Integer>> createAccumulator(AtomicLong work) {
+    return new MergeAccumulator<>(
+        (l1, l2) -> {
+          work.addAndGet(l1.size() + l2.size());
+          List<Integer> merged = new ArrayList<>(l1);
+          merged.addAll(l2);
+          return merged;
+        });
+  }
+
+  @Test
+  void testResultEmpty() {
+    assertThat(createAccumulator(new AtomicLong()).result()).isNull();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 7, 12, 13, 120})
+  void testResultKeepsOrder(int months) {
+    MergeAccumulator<List<Integer>> accumulator = createAccumulator(new AtomicLong());
+    IntStream.range(0, months).forEach(i -> accumulator.add(List.of(i)));
+    assertThat(accumulator.result())
+        .containsExactlyElementsOf(IntStream.range(0, months).boxed().toList());
+  }
+
+  @Test
+  void testWorkGrowsLinearithmic() {
+    int months = 1024;
+    AtomicLong work = new AtomicLong();
+    MergeAccumulator<List<Integer>> accumulator = createAccumulator(work);
+    IntStream.range(0, months).forEach(i -> accumulator.add(List.of(i)));
+    assertThat(accumulator.result()).hasSize(months);
+
+    // merging every month into one growing result copies about months^2 / 2 elements
+    long log2 = 32 - Integer.numberOfLeadingZeros(months - 1);
+    assertThat(work.get()).isLessThanOrEqualTo(months * (log2 + 1)).isLessThan(months * months / 2);
+  }
+}
@@ -0,0 +1,147 @@
+package org.folio.rest.util;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.Resources;
+import io.vertx.core.json.jackson.DatabindCodec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.niso.schemas.counter.Report;
+import org.olf.erm.usage.counter41.Counter4Utils;
+import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter51.Counter51Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares accumulating the months of an export with a {@link ReportMonthAccumulator} with merging
+ * them by the merge of the COUNTER library in a {@link MergeAccumulator}, which the export did
+ * before. Both decode the JSON text of each month. The months are copies of one month in
+ * consecutive years, so every item occurs in every month. The time per export should grow about
+ * linearly with {@code months} for the accumulator.
+ *
+ * <p>Benchmarks are not run by the tests, run this one with
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *   -Dexec.args="-cp %classpath org.openjdk.jmh.Main MergeBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MergeBenchmark {
+
+  @Param({"R4", "R5", "R51"})
+  public ReportReleaseVersion version;
+
+  @Param({"12", "48"})
+  public int months;
+
+  // the JSON text of each month, as selected by the export
+  private List<String> reports;
+
+  private static String readResource(String name) throws IOException {
+    return Resources.toString(Resources.getResource(name), StandardCharsets.UTF_8);
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    String report =
+        switch (version) {
+          case R4 -> readResource("performance/JR1-2019-01.json");
+          case R5 -> readResource("standardviews/karger_tr_2021-01.json");
+          case R51 ->
+              Counter51Utils.splitReport(
+                      (ObjectNode)
+                          Counter51Utils.getDefaultObjectMapper()
+                              .readTree(readResource("fileupload/DR_sample_r51.json")))
+                  .get(0)
+                  .toString();
+        };
+    String yearMonth =
+        switch (version) {
+          case R4 -> "2019-01";
+          case R5 -> "2021-01";
+          case R51 -> "2022-01";
+        };
+    int year = Integer.parseInt(yearMonth.substring(0, 4));
+    reports = new ArrayList<>(months);
+    for (int i = 0; i < months; i++) {
+      reports.add(report.replace(yearMonth, (year - months + i + 1) + yearMonth.substring(4)));
+    }
+  }
+
+  @Benchmark
+  public Object accumulate() throws Exception {
+    return switch (version) {
+      case R4 -> {
+        ReportMonthAccumulator<Report> accumulator = RowStreamHandlerR4.createAccumulator();
+        for (String report : reports) {
+          accumulator.add(RowStreamHandlerR4.splitReport(report));
+        }
+        yield RowStreamHandlerR4.joinReport(accumulator.report(), accumulator.items());
+      }
+      case R5 -> {
+        ReportMonthAccumulator<Object> accumulator = RowStreamHandlerR5.createAccumulator();
+        for (String report : reports) {
+          accumulator.add(
+              RowStreamHandlerR5.splitReport(
+                  (ObjectNode) DatabindCodec.mapper().readTree(report)));
+        }
+        yield RowStreamHandlerR5.joinReport(accumulator.report(), accumulator.items());
+      }
+      case R51 -> {
+        ReportMonthAccumulator<ObjectNode> accumulator = RowStreamHandlerR51.createAccumulator();
+        for (String report : reports) {
+          accumulator.add(
+              RowStreamHandlerR51.splitReport(RowStreamHandlerR51.decodeReport(report)));
+        }
+        yield RowStreamHandlerR51.joinReport(accumulator.report(), accumulator.items());
+      }
+    };
+  }
+
+  @Benchmark
+  public Object merge() throws Exception {
+    return switch (version) {
+      case R4 -> {
+        MergeAccumulator<Report> accumulator = new MergeAccumulator<>(Counter4Utils::merge);
+        for (String report : reports) {
+          accumulator.add(RowStreamHandlerR4.decodeReport(report));
+        }
+        yield accumulator.result();
+      }
+      case R5 -> {
+        MergeAccumulator<Object> accumulator =
+            new MergeAccumulator<>((r1, r2) -> Counter5Utils.merge(List.of(r1, r2)));
+        for (String report : reports) {
+          accumulator.add(RowStreamHandlerR5.decodeReport(report));
+        }
+        yield accumulator.result();
+      }
+      case R51 -> {
+        MergeAccumulator<ObjectNode> accumulator =
+            new MergeAccumulator<>((r1, r2) -> Counter51Utils.mergeReports(List.of(r1, r2)));
+        for (String report : reports) {
+          accumulator.add(RowStreamHandlerR51.decodeReport(report));
+        }
+        yield accumulator.result();
+      }
+    };
+  }
+}
@@ -3,28 +3,33 @@ package org.folio.rest.util;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.folio.rest.util.Constants.TABLE_NAME_COUNTER_REPORTS;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Spliterator;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.Stream.Builder;
 import java.util.stream.StreamSupport;
 import org.folio.okapi.common.XOkapiHeaders;
 import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.Report;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.util.CounterReportsSaveResult.Status;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -35,6 +40,9 @@ public class PgHelperIT {
 
   private static final String providerId = "81932a44-82ef-437e-8f53-c3fa508c0fb1";
   private static final String providerId2 = "6c0b057b-0bad-4559-93b8-b4d9b1062f40";
+  private static final String providerId3 = "0f0cde39-8b07-4b3e-9d6e-2f8c0b3cb2a7";
+  private static final String providerId4 = "5d0e3a4c-3c6f-4f0e-9f0a-7f6f1d8a2b61";
+  private static final String providerId5 = "b7c1e2d4-6a0f-4e8b-8d3c-1f2a9e4b5c60";
   private static final String tenant = "tenant1";
   private static final Map<String, String> okapiHeaders =
       Collections.singletonMap(XOkapiHeaders.TENANT, tenant);
@@ -247,7 +255,7 @@ public class PgHelperIT {
         .onComplete(
             ar -> {
               if (ar.succeeded()) {
-                assertThat(ar.result()).hasSize(2);
+                assertThat(ar.result().getIds()).hasSize(2);
                 PostgresClient.getInstance(vertx, tenant)
                     .get(
                         TABLE_NAME_COUNTER_REPORTS,
@@ -263,7 +271,7 @@ public class PgHelperIT {
                                           result.result().getResults().stream()
                                               .map(CounterReport::getId))
                                       .containsExactlyInAnyOrder(
-                                          ar.result().toArray(new String[0]));
+                                          ar.result().getIds().toArray(new String[0]));
                                   assertThat(result.result().getResults())
                                       .allSatisfy(
                                           cr -> assertThat(cr.getFailedAttempts()).isEqualTo(5));
@@ -288,7 +296,7 @@ public class PgHelperIT {
         .onComplete(
             ar -> {
               if (ar.succeeded()) {
-                assertThat(ar.result()).hasSize(2);
+                assertThat(ar.result().getIds()).hasSize(2);
                 PostgresClient.getInstance(vertx, tenant)
                     .get(
                         TABLE_NAME_COUNTER_REPORTS,
@@ -304,7 +312,7 @@ public class PgHelperIT {
                                           result.result().getResults().stream()
                                               .map(CounterReport::getId))
                                       .containsExactlyInAnyOrder(
-                                          ar.result().toArray(new String[0]));
+                                          ar.result().getIds().toArray(new String[0]));
                                 });
                             async.complete();
                           } else {
@@ -317,6 +325,148 @@ public class PgHelperIT {
             });
   }
 
+  private static CounterReport createTitleReport(String yearMonth, String content) {
+    return new CounterReport()
+        .withProviderId(providerId3)
+        .withRelease("5")
+        .withReportName("TR")
+        .withYearMonth(yearMonth)
+        .withReport(new Report().withAdditionalProperty("Report_Items", List.of(content)));
+  }
+
+  @Test
+  public void testSaveReportsToDbSkipsUnchanged(TestContext context) {
+    List<CounterReport> firstUpload =
+        List.of(createTitleReport("2021-01", "a"), createTitleReport("2021-02", "b"));
+    List<CounterReport> secondUpload =
+        List.of(
+            createTitleReport("2021-01", "a").withEditReason("re-uploaded"),
+            createTitleReport("2021-02", "changed"),
+            createTitleReport("2021-03", "c"));
+
+    PgHelper.saveCounterReportsToDb(vertx.getOrCreateContext(), okapiHeaders, firstUpload, true)
+        .compose(
+            firstResult -> {
+              context.verify(
+                  v ->
+                      assertThat(firstResult.getIds())
+                          .extracting(firstResult::getStatus)
+                          .containsOnly(Status.NEW));
+              return PgHelper.saveCounterReportsToDb(
+                      vertx.getOrCreateContext(), okapiHeaders, secondUpload, true)
+                  .onSuccess(
+                      secondResult ->
+                          context.verify(
+                              v -> {
+                                assertThat(secondResult.getIds())
+                                    .startsWith(firstResult.getIds().toArray(new String[0]))
+                                    .extracting(secondResult::getStatus)
+                                    .containsExactly(
+                                        Status.UNCHANGED, Status.CHANGED, Status.NEW);
+                                assertThat(secondResult.getNewOrChangedCount()).isEqualTo(2);
+                              }));
+            })
+        .compose(
+            v ->
+                PostgresClient.getInstance(vertx, tenant)
+                    .get(
+                        Constants.VIEW_NAME_COUNTER_REPORTS_WITH_REPORT,
+                        CounterReport.class,
+                        new Criterion(
+                            new Criteria()
+                                .addField(Constants.FIELD_NAME_PROVIDER_ID)
+                                .setJSONB(true)
+                                .setOperation("=")
+                                .setVal(providerId3)),
+                        false))
+        .onComplete(
+            context.asyncAssertSuccess(
+                results -> {
+                  assertThat(results.getResults())
+                      .hasSize(3)
+                      .allSatisfy(cr -> assertThat(cr.getContentHash()).isNotBlank());
+                  // the metadata of the unchanged report is updated, its report data is kept
+                  assertThat(results.getResults())
+                      .filteredOn(cr -> cr.getYearMonth().equals("2021-01"))
+                      .singleElement()
+                      .satisfies(
+                          cr -> {
+                            assertThat(cr.getEditReason()).isEqualTo("re-uploaded");
+                            assertThat(cr.getReport().getAdditionalProperties())
+                                .containsEntry("Report_Items", List.of("a"));
+                          });
+                }));
+  }
+
+  @Test
+  public void testSaveReportsToDbLeavesIdenticalReportsUntouched(TestContext context) {
+    CounterReport report = createTitleReport("2021-01", "a").withProviderId(providerId5);
+
+    PgHelper.saveCounterReportsToDb(vertx.getOrCreateContext(), okapiHeaders, List.of(report), true)
+        .compose(
+            firstResult ->
+                getRowVersion(firstResult.getIds().get(0))
+                    .compose(
+                        rowVersion ->
+                            PgHelper.saveCounterReportsToDb(
+                                    vertx.getOrCreateContext(),
+                                    okapiHeaders,
+                                    List.of(report),
+                                    true)
+                                .onSuccess(
+                                    secondResult ->
+                                        context.verify(
+                                            v -> {
+                                              assertThat(secondResult.getIds())
+                                                  .isEqualTo(firstResult.getIds());
+                                              assertThat(
+                                                      secondResult.getStatus(
+                                                          secondResult.getIds().get(0)))
+                                                  .isEqualTo(Status.UNCHANGED);
+                                            }))
+                                .compose(v -> getRowVersion(firstResult.getIds().get(0)))
+                                .onSuccess(
+                                    newRowVersion ->
+                                        context.verify(
+                                            v -> assertThat(newRowVersion).isEqualTo(rowVersion)))))
+        .onComplete(context.asyncAssertSuccess());
+  }
+
+  private static Future<String> getRowVersion(String id) {
+    return PostgresClient.getInstance(vertx, tenant)
+        .execute(
+            "SELECT xmin::text FROM "
+                + PostgresClient.convertToPsqlStandard(tenant)
+                + "."
+                + TABLE_NAME_COUNTER_REPORTS
+                + " WHERE id = $1",
+            Tuple.of(UUID.fromString(id)))
+        .map(rows -> rows.iterator().next().getString(0));
+  }
+
+  @Test
+  public void testProviderVersionChangesWithReports(TestContext context) {
+    ExportCache.getProviderVersion(vertx.getOrCreateContext(), okapiHeaders, providerId4)
+        .onSuccess(version -> context.verify(v -> assertThat(version).isZero()))
+        .compose(v -> saveAndGetProviderVersion("a"))
+        .onSuccess(version -> context.verify(v -> assertThat(version).isEqualTo(1)))
+        // saving an unchanged report does not change the version
+        .compose(v -> saveAndGetProviderVersion("a"))
+        .onSuccess(version -> context.verify(v -> assertThat(version).isEqualTo(1)))
+        .compose(v -> saveAndGetProviderVersion("b"))
+        .onComplete(context.asyncAssertSuccess(version -> assertThat(version).isEqualTo(2)));
+  }
+
+  private static Future<Long> saveAndGetProviderVersion(String content) {
+    CounterReport report = createTitleReport("2021-01", content).withProviderId(providerId4);
+    return PgHelper.saveCounterReportsToDb(
+            vertx.getOrCreateContext(), okapiHeaders, List.of(report), true)
+        .compose(
+            v ->
+                ExportCache.getProviderVersion(
+                    vertx.getOrCreateContext(), okapiHeaders, providerId4));
+  }
+
   private CQLWrapper createGetCounterReportCQL(
       String providerId, String release, String reportName) {
     Criteria idCrit =
@@ -0,0 +1,136 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.folio.rest.util.ReportUploadErrorCode.INVALID_REPORT_CONTENT;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.Resources;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.jackson.DatabindCodec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.folio.rest.jaxrs.model.Report;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.olf.erm.usage.counter41.Counter4Utils;
+import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter50.Counter5Utils.Counter5UtilsException;
+import org.olf.erm.usage.counter51.Counter51Utils;
+
+class ProcessorHelperTest {
+
+  private static Vertx vertx;
+  private static WorkerExecutor executor;
+
+  @BeforeAll
+  static void beforeAll() {
+    vertx = Vertx.vertx();
+    executor = vertx.createSharedWorkerExecutor("test-decode", 4);
+  }
+
+  @AfterAll
+  static void afterAll() {
+    vertx.close();
+  }
+
+  @Test
+  void testMapInOrderKeepsOrder() {
+    List<Integer> items = IntStream.range(0, 60).boxed().toList();
+    List<String> result =
+        ProcessorHelper.mapInOrder(
+            items,
+            i -> {
+              // let earlier items finish later
+              sleep(60 - i);
+              return String.valueOf(i);
+            },
+            executor);
+    assertThat(result).containsExactlyElementsOf(items.stream().map(String::valueOf).toList());
+  }
+
+  @Test
+  void testMapInOrderSequential() {
+    assertThat(ProcessorHelper.mapInOrder(List.of(1, 2, 3), i -> i * 2, null))
+        .containsExactly(2, 4, 6);
+  }
+
+  @Test
+  void testMapInOrderRethrowsFirstFailure() {
+    List<Integer> items = IntStream.range(0, 10).boxed().toList();
+    assertThatThrownBy(
+            () ->
+                ProcessorHelper.mapInOrder(
+                    items,
+                    i -> {
+                      if (i == 3 || i == 7) {
+                        // let the later failure happen first
+                        sleep(i == 3 ? 50 : 0);
+                        throw new ReportUploadException(INVALID_REPORT_CONTENT, "item " + i);
+                      }
+                      return i;
+                    },
+                    executor))
+        .isInstanceOf(ReportUploadException.class)
+        .extracting(t -> ((ReportUploadException) t).getReportUploadError().getDetails())
+        .isEqualTo("item 3");
+  }
+
+  @Test
+  void testDecodeReportR4() throws IOException {
+    Object report = Counter4Utils.fromJSON(readResource("performance/JR1-2019-01.json"));
+    Report decoded = ProcessorHelper.decodeReport(report, ReportReleaseVersion.R4);
+    Report roundTripped =
+        Json.decodeValue(
+            Counter4Utils.toJSON((org.niso.schemas.counter.Report) report), Report.class);
+    assertThat(Json.encode(decoded)).isEqualTo(Json.encode(roundTripped));
+  }
+
+  @Test
+  void testDecodeReportR5() throws IOException, Counter5UtilsException {
+    Object report =
+        Counter5Utils.fromJSON(readResource("fileupload/reportCOP5TRMultiMonth.json"));
+    Report decoded = ProcessorHelper.decodeReport(report, ReportReleaseVersion.R5);
+    Report roundTripped = Json.decodeValue(Json.encode(report), Report.class);
+    assertThat(Json.encode(decoded)).isEqualTo(Json.encode(roundTripped));
+  }
+
+  @Test
+  void testDecodeReportR51() throws IOException {
+    ObjectMapper mapper = Counter51Utils.getDefaultObjectMapper();
+    ObjectNode report = (ObjectNode) mapper.readTree(readResource("fileupload/DR_sample_r51.json"));
+    Report decoded = ProcessorHelper.decodeReport(report, ReportReleaseVersion.R51);
+    Report roundTripped = mapper.readValue(mapper.writeValueAsString(report), Report.class);
+    assertThat(Json.encode(decoded)).isEqualTo(Json.encode(roundTripped));
+  }
+
+  @Test
+  void testGetDecodeMapper() {
+    // reports are converted object-to-object, without a JSON string round trip
+    assertThat(ProcessorHelper.getDecodeMapper(ReportReleaseVersion.R5))
+        .isSameAs(DatabindCodec.mapper());
+    assertThat(ProcessorHelper.getDecodeMapper(ReportReleaseVersion.R51))
+        .isSameAs(Counter51Utils.getDefaultObjectMapper());
+    assertThat(ProcessorHelper.getDecodeMapper(ReportReleaseVersion.R4))
+        .isNotNull()
+        .isSameAs(ProcessorHelper.getDecodeMapper(ReportReleaseVersion.R4));
+  }
+
+  private static String readResource(String name) throws IOException {
+    return Resources.toString(Resources.getResource(name), StandardCharsets.UTF_8);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
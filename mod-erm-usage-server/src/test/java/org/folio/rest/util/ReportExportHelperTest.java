@@ -7,6 +7,9 @@ import static org.folio.rest.util.ReportExportHelper.createDownloadResponseByRep
 import static org.folio.rest.util.ReportExportHelper.replaceCreated;
 import static org.folio.rest.util.ReportExportHelper.replaceCreatedBy;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import javax.ws.rs.core.MediaType;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.Report;
@@ -54,11 +57,81 @@ public class ReportExportHelperTest {
         .isEqualTo("abc\nabcCreated,2021-01-02T14:24:34Z\nabc\n");
   }
 
+  @Test
+  public void testCsvReportHeaderWriter() throws IOException {
+    ClockProvider.setFixedClock();
+    String csv =
+        "Report_Name,Title Master Report\r\n"
+            + "Created,2021-01-02T14:24:34Z\r\n"
+            + "Created_By,\"Provider, named abc\"\r\n"
+            + ",,\r\n"
+            + "Title,Metric_Type\r\n"
+            + "Created,Total_Item_Requests\r\n";
+    StringWriter stringWriter = new StringWriter();
+    try (Writer writer = new CsvReportHeaderWriter(stringWriter)) {
+      // write in small pieces, so lines are split across writes
+      for (int i = 0; i < csv.length(); i += 7) {
+        writer.write(csv, i, Math.min(7, csv.length() - i));
+      }
+    }
+    assertThat(stringWriter)
+        .hasToString(
+            "Report_Name,Title Master Report\r\n"
+                + "Created,"
+                + FIXED_CLOCK_STRING
+                + "\r\n"
+                + "Created_By,\"Provider, named abc "
+                + CREATED_BY_SUFFIX
+                + "\"\r\n"
+                + ",,\r\n"
+                + "Title,Metric_Type\r\n"
+                + "Created,Total_Item_Requests\r\n");
+  }
+
+  @Test
+  public void testCsvReportHeaderWriterWithoutLineTerminator() throws IOException {
+    StringWriter stringWriter = new StringWriter();
+    try (Writer writer = new CsvReportHeaderWriter(stringWriter)) {
+      writer.write("Created_By,Provider");
+    }
+    assertThat(stringWriter).hasToString("Created_By,Provider " + CREATED_BY_SUFFIX);
+  }
+
+  @Test
+  public void testRewriteCsvHeader() throws IOException {
+    ClockProvider.setFixedClock();
+    assertThat(
+            ReportExportHelper.rewriteCsvHeader(
+                "Report_Name,Title Master Report\n"
+                    + "Created,2021-01-02T14:24:34Z\n"
+                    + "Created_By,Provider\n"
+                    + "\n"
+                    + "Title,Metric_Type\n"
+                    + "Created_By,Total_Item_Requests\n"))
+        .isEqualTo(
+            "Report_Name,Title Master Report\n"
+                + "Created,"
+                + FIXED_CLOCK_STRING
+                + "\n"
+                + "Created_By,Provider "
+                + CREATED_BY_SUFFIX
+                + "\n"
+                + "\n"
+                + "Title,Metric_Type\n"
+                + "Created_By,Total_Item_Requests\n");
+    // item rows are not rewritten if the header has no Created_By line
+    assertThat(
+            ReportExportHelper.rewriteCsvHeader(
+                "Report_Name,Title Master Report\n\nTitle,Metric_Type\nCreated_By,Total\n"))
+        .isEqualTo("Report_Name,Title Master Report\n\nTitle,Metric_Type\nCreated_By,Total\n");
+    assertThat(ReportExportHelper.rewriteCsvHeader(null)).isNull();
+  }
+
   @Test
   public void testCreateDownloadResponseByReportVersion() {
     assertThat(
             createDownloadResponseByReportVersion(
-                new CounterReport().withRelease("4").withReport(new Report())))
+                new CounterReport().withRelease("4").withReport(new Report()), true))
         .satisfies(
             response -> {
               assertThat(response.getMediaType()).isEqualTo(MediaType.APPLICATION_XML_TYPE);
@@ -67,21 +140,27 @@ public class ReportExportHelperTest {
 
     assertThat(
             createDownloadResponseByReportVersion(
-                new CounterReport().withRelease("4").withReport(null)))
+                new CounterReport().withRelease("4").withReport(null), true))
         .isNull();
 
     assertThat(
             createDownloadResponseByReportVersion(
-                new CounterReport().withRelease("5").withReport(new Report())))
+                new CounterReport().withRelease("5").withReport(new Report()), true))
         .satisfies(
             response -> {
               assertThat(response.getMediaType()).isEqualTo(MediaType.APPLICATION_JSON_TYPE);
               assertThat(response.getEntity()).isEqualTo("{ }");
             });
 
+    // JSON is only pretty printed on request
+    assertThat(
+            createDownloadResponseByReportVersion(
+                new CounterReport().withRelease("5").withReport(new Report()), false))
+        .satisfies(response -> assertThat(response.getEntity()).isEqualTo("{}"));
+
     assertThat(
             createDownloadResponseByReportVersion(
-                new CounterReport().withRelease("5").withReport(null)))
+                new CounterReport().withRelease("5").withReport(null), true))
         .isNull();
   }
 }
@@ -0,0 +1,175 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.Resources;
+import io.vertx.core.json.jackson.DatabindCodec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.folio.rest.util.ReportMonthAccumulator.Month;
+import org.junit.jupiter.api.Test;
+import org.niso.schemas.counter.Report;
+import org.olf.erm.usage.counter41.Counter4Utils;
+import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter51.Counter51Utils;
+
+class ReportMonthAccumulatorTest {
+
+  private static String readResource(String name) throws IOException {
+    return Resources.toString(Resources.getResource(name), StandardCharsets.UTF_8);
+  }
+
+  private static ArrayNode json(String json) throws IOException {
+    return (ArrayNode) DatabindCodec.mapper().readTree(json.replace('\'', '"'));
+  }
+
+  @Test
+  void testResultEmpty() {
+    ReportMonthAccumulator<String> accumulator =
+        new ReportMonthAccumulator<>(String::concat, "Performance");
+    assertThat(accumulator.report()).isNull();
+    assertThat(accumulator.items()).isEmpty();
+  }
+
+  @Test
+  void testAppendsPerformances() throws IOException {
+    ReportMonthAccumulator<String> accumulator =
+        new ReportMonthAccumulator<>(String::concat, "Performance");
+    accumulator.add(
+        new Month<>(
+            "a",
+            json(
+                """
+                [{'Title':'t1','Platform':'p','Performance':[{'Period':'2021-01','Count':1}]},
+                 {'Title':'t2','Platform':'p','Performance':[{'Period':'2021-01','Count':2}]}]
+                """)));
+    accumulator.add(
+        new Month<>(
+            "b",
+            json(
+                """
+                [{'Title':'t3','Platform':'p','Performance':[{'Period':'2021-02','Count':3}]},
+                 {'Title':'t1','Platform':'p','Performance':[{'Period':'2021-02','Count':4}]}]
+                """)));
+
+    assertThat(accumulator.report()).isEqualTo("ab");
+    assertThat(accumulator.items())
+        .isEqualTo(
+            json(
+                """
+                [{'Title':'t1','Platform':'p','Performance':[
+                    {'Period':'2021-01','Count':1},{'Period':'2021-02','Count':4}]},
+                 {'Title':'t2','Platform':'p','Performance':[{'Period':'2021-01','Count':2}]},
+                 {'Title':'t3','Platform':'p','Performance':[{'Period':'2021-02','Count':3}]}]
+                """));
+  }
+
+  @Test
+  void testAddsMonthsOfNestedItems() throws IOException {
+    ReportMonthAccumulator<String> accumulator =
+        new ReportMonthAccumulator<>(String::concat, "Performance", "Attribute_Performance");
+    accumulator.add(
+        new Month<>(
+            "a",
+            json(
+                """
+                [{'Database':'d','Attribute_Performance':[
+                    {'Access_Method':'Regular','Performance':{'Searches':{'2021-01':1}}}]}]
+                """)));
+    accumulator.add(
+        new Month<>(
+            "b",
+            json(
+                """
+                [{'Database':'d','Attribute_Performance':[
+                    {'Access_Method':'TDM','Performance':{'Searches':{'2021-02':2}}},
+                    {'Access_Method':'Regular','Performance':{
+                        'Searches':{'2021-02':3},'Views':{'2021-02':4}}}]}]
+                """)));
+
+    assertThat(accumulator.items())
+        .isEqualTo(
+            json(
+                """
+                [{'Database':'d','Attribute_Performance':[
+                    {'Access_Method':'Regular','Performance':{
+                        'Searches':{'2021-01':1,'2021-02':3},'Views':{'2021-02':4}}},
+                    {'Access_Method':'TDM','Performance':{'Searches':{'2021-02':2}}}]}]
+                """));
+  }
+
+  @Test
+  void testMonthWithoutItems() throws IOException {
+    ReportMonthAccumulator<String> accumulator =
+        new ReportMonthAccumulator<>(String::concat, "Performance");
+    accumulator.add(new Month<>("a", null));
+    accumulator.add(new Month<>("b", json("[{'Title':'t1','Performance':[]}]")));
+
+    assertThat(accumulator.report()).isEqualTo("ab");
+    assertThat(accumulator.items()).isEqualTo(json("[{'Title':'t1','Performance':[]}]"));
+  }
+
+  @Test
+  void testSameAsMergeR4() throws Exception {
+    ReportMonthAccumulator<Report> accumulator = RowStreamHandlerR4.createAccumulator();
+    Report expected = null;
+    for (String month : List.of("2019-01", "2019-02", "2019-03")) {
+      String report = readResource("performance/JR1-" + month + ".json");
+      accumulator.add(RowStreamHandlerR4.splitReport(report));
+      Report decoded = Counter4Utils.fromJSON(report);
+      expected = (expected == null) ? decoded : Counter4Utils.merge(expected, decoded);
+    }
+
+    assertThat(RowStreamHandlerR4.joinReport(accumulator.report(), accumulator.items()))
+        .usingRecursiveComparison()
+        .ignoringCollectionOrder()
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void testSameAsMergeR5() throws Exception {
+    List<Object> months =
+        new ArrayList<>(
+            Counter5Utils.split(
+                Counter5Utils.fromJSON(readResource("fileupload/reportCOP5TRMultiMonth.json"))));
+    ReportMonthAccumulator<Object> accumulator = RowStreamHandlerR5.createAccumulator();
+    for (Object month : months) {
+      accumulator.add(RowStreamHandlerR5.splitReport(DatabindCodec.mapper().valueToTree(month)));
+    }
+
+    assertThat(months).hasSizeGreaterThan(1);
+    assertThat(RowStreamHandlerR5.joinReport(accumulator.report(), accumulator.items()))
+        .usingRecursiveComparison()
+        .ignoringCollectionOrder()
+        .isEqualTo(Counter5Utils.merge(months));
+  }
+
+  @Test
+  void testSameAsMergeR51() throws Exception {
+    List<ObjectNode> months =
+        Counter51Utils.splitReport(
+                (ObjectNode)
+                    Counter51Utils.getDefaultObjectMapper()
+                        .readTree(readResource("fileupload/DR_sample_r51.json")))
+            .stream()
+            .map(ObjectNode.class::cast)
+            .toList();
+    ObjectNode expected =
+        Counter51Utils.mergeReports(months.stream().map(ObjectNode::deepCopy).toList());
+    ReportMonthAccumulator<ObjectNode> accumulator = RowStreamHandlerR51.createAccumulator();
+    for (ObjectNode month : months) {
+      accumulator.add(RowStreamHandlerR51.splitReport(month));
+    }
+    ObjectNode actual = RowStreamHandlerR51.joinReport(accumulator.report(), accumulator.items());
+
+    assertThat(months).hasSizeGreaterThan(1);
+    assertThat(actual.get("Report_Header")).isEqualTo(expected.get("Report_Header"));
+    assertThat((Iterable<JsonNode>) actual.get("Report_Items"))
+        .containsExactlyInAnyOrderElementsOf(expected.get("Report_Items"));
+  }
+}
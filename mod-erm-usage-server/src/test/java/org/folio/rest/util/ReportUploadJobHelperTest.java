@@ -0,0 +1,24 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.folio.rest.util.ReportUploadErrorCode.OTHER;
+import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_REPORT_TYPE;
+
+import org.folio.rest.jaxrs.model.ReportUploadError;
+import org.junit.jupiter.api.Test;
+
+class ReportUploadJobHelperTest {
+
+  @Test
+  void testToReportUploadError() {
+    ReportUploadError error =
+        ReportUploadJobHelper.toReportUploadError(
+            new ReportUploadException(UNSUPPORTED_REPORT_TYPE, "details"));
+    assertThat(error.getCode()).isEqualTo(UNSUPPORTED_REPORT_TYPE.name());
+    assertThat(error.getDetails()).isEqualTo("details");
+
+    error = ReportUploadJobHelper.toReportUploadError(new IllegalStateException("failure"));
+    assertThat(error.getCode()).isEqualTo(OTHER.name());
+    assertThat(error.getDetails()).contains("failure");
+  }
+}
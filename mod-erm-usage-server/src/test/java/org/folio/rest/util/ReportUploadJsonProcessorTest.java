@@ -0,0 +1,63 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.folio.rest.util.ReportUploadErrorCode.INVALID_REPORT_CONTENT;
+import static org.folio.rest.util.ReportUploadErrorCode.UNSUPPORTED_REPORT_RELEASE;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ReportUploadJsonProcessorTest {
+
+  private static ReportReleaseVersion getReleaseVersion(String json) throws IOException {
+    try (JsonParser parser = new JsonFactory().createParser(json)) {
+      return ReportUploadJsonProcessor.getReportReleaseVersionFromJson(parser);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = '|',
+      value = {
+        "{\"Report_Header\":{\"Report_ID\":\"TR\",\"Release\":\"5\"},\"Report_Items\":[]}|R5",
+        "{\"Report_Items\":[{\"Title\":\"a\"}],\"Report_Header\":{\"Release\":\"5.1\"}}|R51",
+        "{\"Report_Header\":{\"Report_Filters\":{\"Release\":\"x\"},\"Release\":\"4\"}}|R4"
+      })
+  void getReportReleaseVersionFromJsonShouldReadHeader(
+      String json, ReportReleaseVersion expected) throws IOException {
+    assertThat(getReleaseVersion(json)).isEqualTo(expected);
+  }
+
+  @Test
+  void getReportReleaseVersionFromJsonShouldFailForMissingHeader() {
+    assertThatThrownBy(() -> getReleaseVersion("{\"Report_Items\":[]}"))
+        .isInstanceOfSatisfying(
+            ReportUploadException.class,
+            e ->
+                assertThat(e.getReportUploadError().getCode())
+                    .isEqualTo(INVALID_REPORT_CONTENT.name()));
+    assertThatThrownBy(() -> getReleaseVersion("[]"))
+        .isInstanceOfSatisfying(
+            ReportUploadException.class,
+            e ->
+                assertThat(e.getReportUploadError().getCode())
+                    .isEqualTo(INVALID_REPORT_CONTENT.name()));
+  }
+
+  @Test
+  void getReportReleaseVersionFromJsonShouldFailForUnsupportedRelease() {
+    assertThatThrownBy(() -> getReleaseVersion("{\"Report_Header\":{\"Release\":\"6\"}}"))
+        .isInstanceOfSatisfying(
+            ReportUploadException.class,
+            e ->
+                assertThat(e.getReportUploadError().getCode())
+                    .isEqualTo(UNSUPPORTED_REPORT_RELEASE.name()));
+    assertThatThrownBy(() -> getReleaseVersion("{\"Report_Header\":{}}"))
+        .isInstanceOf(ReportUploadException.class);
+  }
+}
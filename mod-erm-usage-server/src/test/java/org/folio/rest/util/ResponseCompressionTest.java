@@ -0,0 +1,35 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ResponseCompressionTest {
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = '|',
+      nullValues = "null",
+      value = {
+        "gzip                   | true",
+        "GZIP                   | true",
+        "deflate, gzip, br      | true",
+        "x-gzip                 | true",
+        "gzip;q=0.5             | true",
+        "gzip; q=1.0, *;q=0     | true",
+        "*                      | true",
+        "br, *;q=0.1            | true",
+        "gzip;q=0               | false",
+        "gzip;q=0.0, *          | false",
+        "*;q=0                  | false",
+        "gzip;q=abc             | false",
+        "deflate, br            | false",
+        "identity               | false",
+        "''                     | false",
+        "null                   | false"
+      })
+  void testAcceptsGzip(String acceptEncoding, boolean expected) {
+    assertThat(ResponseCompression.acceptsGzip(acceptEncoding)).isEqualTo(expected);
+  }
+}
@@ -0,0 +1,84 @@
+package org.folio.rest.util;
+
+import com.google.common.io.Resources;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.olf.erm.usage.counter41.Counter4Utils;
+import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter51.Counter51Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares decoding the JSON text of {@code report::text} into the COUNTER library model, which
+ * the export does for each month, with decoding the whole jsonb into a CounterReport and encoding
+ * its report again, which the export did before. The {@code gc} profiler reports the allocated
+ * bytes per operation ({@code gc.alloc.rate.norm}), see {@link RowStreamHandlerDecodeTest} for the
+ * equality of the results.
+ *
+ * <p>Benchmarks are not run by the tests, run this one with
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *   -Dexec.args="-cp %classpath org.openjdk.jmh.Main RowStreamDecodeBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowStreamDecodeBenchmark {
+
+  @Param({"R4", "R5", "R51"})
+  public ReportReleaseVersion version;
+
+  // the JSON text of a report, as selected by the export
+  private String report;
+
+  @Setup
+  public void setUp() throws IOException {
+    String resource =
+        switch (version) {
+          case R4 -> "performance/JR1-2019-01.json";
+          case R5 -> "standardviews/karger_tr_2021-01.json";
+          case R51 -> "fileupload/DR_sample_r51.json";
+        };
+    report = Resources.toString(Resources.getResource(resource), StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Object decodeReportText() throws Exception {
+    return switch (version) {
+      case R4 -> RowStreamHandlerR4.decodeReport(report);
+      case R5 -> RowStreamHandlerR5.decodeReport(report);
+      case R51 -> RowStreamHandlerR51.decodeReport(report);
+    };
+  }
+
+  @Benchmark
+  public Object decodeCounterReport() throws Exception {
+    // the export selected the whole jsonb, which holds the report and the metadata
+    Object counterReport =
+        new JsonObject("{\"report\":" + report + "}").mapTo(CounterReport.class).getReport();
+    return switch (version) {
+      case R4 -> Counter4Utils.fromJSON(Json.encode(counterReport));
+      case R5 -> Counter5Utils.fromJSON(Json.encode(counterReport));
+      case R51 -> Counter51Utils.getDefaultObjectMapper().valueToTree(counterReport);
+    };
+  }
+}
@@ -0,0 +1,71 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.Resources;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.junit.jupiter.api.Test;
+import org.niso.schemas.counter.Report;
+import org.olf.erm.usage.counter41.Counter4Utils;
+import org.olf.erm.usage.counter50.Counter5Utils;
+import org.olf.erm.usage.counter51.Counter51Utils;
+
+/**
+ * Checks that decoding the JSON text of {@code report::text} gives the same report as decoding the
+ * whole jsonb into a CounterReport and encoding its report again, which the export used to do for
+ * each month. Their allocations and throughput are compared by {@link RowStreamDecodeBenchmark}.
+ */
+class RowStreamHandlerDecodeTest {
+
+  private static String readReport(String resource) throws IOException {
+    return Resources.toString(Resources.getResource(resource), StandardCharsets.UTF_8);
+  }
+
+  /** Returns the {@code report} of a CounterReport decoded from the jsonb column, as before. */
+  private static Object reportOfJsonb(String report) {
+    return new JsonObject("{\"report\":" + report + "}").mapTo(CounterReport.class).getReport();
+  }
+
+  @Test
+  void testDecodeReportR4() throws Exception {
+    String report = readReport("performance/JR1-2019-01.json");
+    Callable<Object> before = () -> Counter4Utils.fromJSON(Json.encode(reportOfJsonb(report)));
+    Callable<Object> after = () -> RowStreamHandlerR4.decodeReport(report);
+
+    assertThat(Counter4Utils.toJSON((Report) after.call()))
+        .isEqualTo(Counter4Utils.toJSON((Report) before.call()));
+  }
+
+  @Test
+  void testDecodeReportR5() throws Exception {
+    String report = readReport("standardviews/karger_tr_2021-01.json");
+    Callable<Object> before = () -> Counter5Utils.fromJSON(Json.encode(reportOfJsonb(report)));
+    Callable<Object> after = () -> RowStreamHandlerR5.decodeReport(report);
+
+    assertThat(Json.encode(after.call())).isEqualTo(Json.encode(before.call()));
+  }
+
+  @Test
+  void testDecodeReportR51() throws Exception {
+    String report = readReport("fileupload/DR_sample_r51.json");
+    Callable<Object> before =
+        () -> Counter51Utils.getDefaultObjectMapper().valueToTree(reportOfJsonb(report));
+    Callable<Object> after = () -> RowStreamHandlerR51.decodeReport(report);
+
+    assertThat(after.call()).isInstanceOf(ObjectNode.class).isEqualTo(before.call());
+  }
+
+  @Test
+  void testDecodeInvalidReportR51() {
+    assertThatThrownBy(() -> RowStreamHandlerR51.decodeReport("{\"Report_Header\":"))
+        .isInstanceOf(JsonProcessingException.class);
+  }
+}
@@ -0,0 +1,187 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.RowStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class RowStreamPipelineTest {
+
+  private static final int PREFETCH_DEPTH = 4;
+  private static Vertx vertx;
+
+  @BeforeAll
+  static void beforeAll() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterAll
+  static void afterAll() {
+    vertx.close();
+  }
+
+  private static void process(
+      Context context, RowStreamPipeline<Integer, Integer> pipeline, RowStream<Integer> rowStream)
+      throws Exception {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    context.runOnContext(
+        v ->
+            pipeline
+                .process(rowStream)
+                .onSuccess(result::complete)
+                .onFailure(result::completeExceptionally));
+    result.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void testProcessDecodesInParallelAndConsumesInOrder() throws Exception {
+    Context context = vertx.getOrCreateContext();
+    AtomicInteger decoding = new AtomicInteger();
+    AtomicInteger maxDecoding = new AtomicInteger();
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+    RowStreamPipeline<Integer, Integer> pipeline =
+        new RowStreamPipeline<>(
+            context,
+            PREFETCH_DEPTH,
+            row -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              maxDecoding.accumulateAndGet(decoding.incrementAndGet(), Math::max);
+              // finish out of order
+              Thread.sleep(ThreadLocalRandom.current().nextInt(20));
+              decoding.decrementAndGet();
+              return row;
+            },
+            row -> {
+              consumed.add(row);
+              inFlight.decrementAndGet();
+            });
+
+    List<Integer> rows = IntStream.range(0, 50).boxed().toList();
+    process(context, pipeline, new ListRowStream(context, rows));
+
+    assertThat(consumed).containsExactlyElementsOf(rows);
+    assertThat(maxDecoding.get()).isGreaterThan(1);
+    assertThat(maxInFlight.get()).isLessThanOrEqualTo(PREFETCH_DEPTH);
+  }
+
+  @Test
+  void testProcessFailsOnDecoderFailure() {
+    Context context = vertx.getOrCreateContext();
+    ListRowStream rowStream = new ListRowStream(context, IntStream.range(0, 50).boxed().toList());
+    RowStreamPipeline<Integer, Integer> pipeline =
+        new RowStreamPipeline<>(
+            context,
+            PREFETCH_DEPTH,
+            row -> {
+              if (row == 10) {
+                throw new IllegalStateException("decoding failed");
+              }
+              return row;
+            },
+            row -> {});
+
+    assertThatThrownBy(() -> process(context, pipeline, rowStream))
+        .isInstanceOf(ExecutionException.class)
+        .hasRootCauseMessage("decoding failed");
+    assertThat(rowStream.closed).isTrue();
+  }
+
+  @Test
+  void testProcessEmptyStream() throws Exception {
+    Context context = vertx.getOrCreateContext();
+    List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+    RowStreamPipeline<Integer, Integer> pipeline =
+        new RowStreamPipeline<>(context, PREFETCH_DEPTH, row -> row, consumed::add);
+
+    process(context, pipeline, new ListRowStream(context, List.of()));
+    assertThat(consumed).isEmpty();
+  }
+
+  /** A {@link RowStream} emitting the rows of a list on a context, honoring pause and resume. */
+  private static class ListRowStream implements RowStream<Integer> {
+
+    private final Context context;
+    private final Iterator<Integer> rows;
+    private Handler<Integer> handler;
+    private Handler<Void> endHandler;
+    private boolean paused = false;
+    private boolean ended = false;
+    private boolean closed = false;
+
+    ListRowStream(Context context, List<Integer> rows) {
+      this.context = context;
+      this.rows = rows.iterator();
+    }
+
+    private void emit() {
+      while (!paused && !closed && rows.hasNext()) {
+        handler.handle(rows.next());
+      }
+      if (!closed && !ended && !rows.hasNext() && endHandler != null) {
+        ended = true;
+        endHandler.handle(null);
+      }
+    }
+
+    @Override
+    public RowStream<Integer> exceptionHandler(Handler<Throwable> handler) {
+      return this;
+    }
+
+    @Override
+    public RowStream<Integer> handler(Handler<Integer> handler) {
+      this.handler = handler;
+      context.runOnContext(v -> emit());
+      return this;
+    }
+
+    @Override
+    public RowStream<Integer> pause() {
+      paused = true;
+      return this;
+    }
+
+    @Override
+    public RowStream<Integer> resume() {
+      paused = false;
+      context.runOnContext(v -> emit());
+      return this;
+    }
+
+    @Override
+    public RowStream<Integer> endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+
+    @Override
+    public RowStream<Integer> fetch(long amount) {
+      return resume();
+    }
+
+    @Override
+    public Future<Void> close() {
+      closed = true;
+      return Future.succeededFuture();
+    }
+  }
+}
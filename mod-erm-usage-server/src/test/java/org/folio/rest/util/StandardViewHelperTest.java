@@ -0,0 +1,72 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.io.Resources;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.Report;
+import org.junit.jupiter.api.Test;
+import org.olf.erm.usage.counter50.Counter5Utils.Counter5UtilsException;
+
+class StandardViewHelperTest {
+
+  private static CounterReport readCounterReport(String resource, String reportName)
+      throws IOException {
+    String report = Resources.toString(Resources.getResource(resource), StandardCharsets.UTF_8);
+    return new CounterReport()
+        .withId("9a0c5e6e-1c52-4a4c-9d3c-3c4f8b6b3f0a")
+        .withRelease("5")
+        .withReportName(reportName)
+        .withYearMonth("2021-01")
+        .withReport(Json.decodeValue(report, Report.class));
+  }
+
+  @Test
+  void testGetViewNames() {
+    assertThat(StandardViewHelper.getViewNames("5", "TR"))
+        .containsExactly("TR_B1", "TR_B3", "TR_J1", "TR_J3", "TR_J4");
+    assertThat(StandardViewHelper.getViewNames("5", "dr")).containsExactly("DR_D1");
+    assertThat(StandardViewHelper.getViewNames("5.1", "TR")).contains("TR_B1", "TR_J1");
+    assertThat(StandardViewHelper.getViewNames("5", "TR_J1")).isEmpty();
+    assertThat(StandardViewHelper.getViewNames("4", "JR1")).isEmpty();
+    assertThat(StandardViewHelper.getViewNames("5", null)).isEmpty();
+  }
+
+  @Test
+  void testCreateSelectViewSql() {
+    assertThat(StandardViewHelper.createSelectViewSql("WHERE true", "tr_j1"))
+        .contains("v.view_name = 'TR_J1' WHERE true");
+    assertThat(StandardViewHelper.createSelectViewSql("WHERE true", "x'y"))
+        .contains("v.view_name = 'X''Y' WHERE true");
+  }
+
+  @Test
+  void testDeriveViews() throws IOException, Counter5UtilsException {
+    CounterReport counterReport = readCounterReport("standardviews/karger_tr_2021-01.json", "TR");
+    String masterReport = Json.encode(counterReport.getReport());
+
+    Map<String, Report> views = StandardViewHelper.deriveViews(counterReport);
+
+    assertThat(views).containsOnlyKeys("TR_B1", "TR_B3", "TR_J1", "TR_J3", "TR_J4");
+    views.forEach(
+        (viewName, report) ->
+            assertThat(
+                    JsonObject.mapFrom(report)
+                        .getJsonObject("Report_Header")
+                        .getString("Report_ID"))
+                .isEqualTo(viewName));
+    // the master report is left unchanged
+    assertThat(Json.encode(counterReport.getReport())).isEqualTo(masterReport);
+  }
+
+  @Test
+  void testDeriveViewsOfReportWithoutViews() throws IOException, Counter5UtilsException {
+    CounterReport counterReport = readCounterReport("standardviews/tr_j1.json", "TR_J1");
+    assertThat(StandardViewHelper.deriveViews(counterReport)).isEmpty();
+  }
+}
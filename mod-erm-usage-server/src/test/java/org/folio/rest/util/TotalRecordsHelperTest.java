@@ -0,0 +1,45 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.json.JsonArray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class TotalRecordsHelperTest {
+
+  private static final String PLAN =
+      """
+      [{"Plan": {"Node Type": "Seq Scan", "Relation Name": "counter_reports",
+        "Startup Cost": 0.00, "Total Cost": 1234.56, "Plan Rows": 98765, "Plan Width": 4}}]""";
+
+  @ParameterizedTest
+  @CsvSource(
+      value = {
+        "none, true, false",
+        "estimated, true, true",
+        "exact, true, true",
+        "auto, false, false",
+        "EXACT, false, false",
+        "NULL, false, false"
+      },
+      nullValues = "NULL")
+  void testIsSupportedAndIsCounted(String totalRecords, boolean supported, boolean counted) {
+    assertThat(TotalRecordsHelper.isSupported(totalRecords)).isEqualTo(supported);
+    assertThat(TotalRecordsHelper.isCounted(totalRecords)).isEqualTo(counted);
+  }
+
+  @Test
+  void testCountWithoutCount() {
+    // neither queries the database nor parses the query
+    assertThat(TotalRecordsHelper.count(null, "counter_reports", "(", "none").result()).isNull();
+    assertThat(TotalRecordsHelper.count(null, "counter_reports", "(", "auto").result()).isNull();
+  }
+
+  @Test
+  void testGetPlanRows() {
+    assertThat(TotalRecordsHelper.getPlanRows(PLAN)).isEqualTo(98765);
+    assertThat(TotalRecordsHelper.getPlanRows(new JsonArray(PLAN))).isEqualTo(98765);
+  }
+}
@@ -0,0 +1,37 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.io.Resources;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class UploadHelperFileTest {
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "fileupload/reportJSTORMultiMonth.xml",
+        "fileupload/reportCOP5TRMultiMonth.json",
+        "fileupload/DR_sample_r51.json",
+        "fileupload/TR_sample_r51.tsv",
+        "fileupload/TR_sample_r51.xlsx"
+      })
+  void getCounterReportsFromFileShouldEqualFromBuffer(String filename) throws Exception {
+    Path file = Path.of(Resources.getResource(filename).toURI());
+    ReportFileFormat format = ReportFileFormat.fromFilename(filename);
+
+    List<CounterReport> fromFile = UploadHelper.getCounterReportsFromFile(format, file);
+    List<CounterReport> fromBuffer =
+        UploadHelper.getCounterReportsFromBuffer(format, Buffer.buffer(Files.readAllBytes(file)));
+
+    assertThat(fromFile).isNotEmpty();
+    assertThat(Json.encode(fromFile)).isEqualTo(Json.encode(fromBuffer));
+  }
+}
@@ -0,0 +1,131 @@
+package org.folio.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+class XlsxCsvWriterTest {
+
+  private static List<List<String>> readRows(byte[] xlsx) throws IOException {
+    return readCells(xlsx, new DataFormatter()::formatCellValue);
+  }
+
+  private static Double getNumericCellValue(Cell cell) {
+    return cell.getCellType() == CellType.NUMERIC ? cell.getNumericCellValue() : null;
+  }
+
+  private static <T> List<List<T>> readCells(byte[] xlsx, Function<Cell, T> mapper)
+      throws IOException {
+    List<List<T>> rows = new ArrayList<>();
+    try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx))) {
+      Sheet sheet = workbook.getSheetAt(0);
+      for (int i = 0; i <= sheet.getLastRowNum(); i++) {
+        Row row = sheet.getRow(i);
+        List<T> values = new ArrayList<>();
+        for (int j = 0; row != null && j < row.getLastCellNum(); j++) {
+          Cell cell = row.getCell(j);
+          values.add(cell == null ? null : mapper.apply(cell));
+        }
+        rows.add(values);
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  void testToXlsx() throws IOException {
+    String csv =
+        "Report_Name,Title Master Report\r\n"
+            + "Created_By,\"Provider, named \"\"abc\"\"\"\r\n"
+            + ",,\r\n"
+            + "\r\n"
+            + "Title,\"multi\nline\",123,\n"
+            + "last,line";
+    assertThat(readRows(XlsxCsvWriter.toXlsx(csv)))
+        .containsExactly(
+            List.of("Report_Name", "Title Master Report"),
+            List.of("Created_By", "Provider, named \"abc\""),
+            List.of("", "", ""),
+            List.of(""),
+            List.of("Title", "multi\nline", "123", ""),
+            List.of("last", "line"));
+  }
+
+  @Test
+  void testToXlsxCellTypes() throws IOException {
+    String csv =
+        "Total,\"123\",0,1.5,-7,0.25\r\n"
+            + "Id,0012-3456,0123,1234567890123456,1.,\" 1\",1e3,12a\r\n";
+    byte[] xlsx = XlsxCsvWriter.toXlsx(csv);
+    assertThat(readCells(xlsx, Cell::getCellType))
+        .containsExactly(
+            List.of(
+                CellType.STRING,
+                CellType.NUMERIC,
+                CellType.NUMERIC,
+                CellType.NUMERIC,
+                CellType.NUMERIC,
+                CellType.NUMERIC),
+            Collections.nCopies(8, CellType.STRING));
+    assertThat(readCells(xlsx, XlsxCsvWriterTest::getNumericCellValue).get(0))
+        .containsExactly(null, 123.0, 0.0, 1.5, -7.0, 0.25);
+    assertThat(readRows(xlsx).get(1))
+        .containsExactly("Id", "0012-3456", "0123", "1234567890123456", "1.", " 1", "1e3", "12a");
+  }
+
+  @Test
+  void testToXlsxEmpty() throws IOException {
+    assertThat(readRows(XlsxCsvWriter.toXlsx(""))).isEmpty();
+  }
+
+  @Test
+  void testWriteInPiecesBeyondRowWindow() throws IOException {
+    // enough rows to be parsed in several chunks and to exceed the row window
+    int rowCount =
+        Math.max(XlsxCsvWriter.ROW_ACCESS_WINDOW_SIZE * 3, XlsxCsvWriter.PARSE_THRESHOLD / 10);
+    StringBuilder csv = new StringBuilder();
+    for (int i = 0; i < rowCount; i++) {
+      csv.append("row ").append(i).append(",\"a, \"\"quoted\"\" value\"\r\n");
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (XlsxCsvWriter writer = new XlsxCsvWriter(out)) {
+      // write in small pieces, so records, quotes and line terminators are split across writes
+      for (int i = 0; i < csv.length(); i += 3) {
+        writer.write(csv.toString(), i, Math.min(3, csv.length() - i));
+      }
+    }
+
+    List<List<String>> rows = readRows(out.toByteArray());
+    assertThat(rows).hasSize(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      assertThat(rows.get(i)).containsExactly("row " + i, "a, \"quoted\" value");
+    }
+  }
+
+  @Test
+  void testDiscard() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    XlsxCsvWriter writer = new XlsxCsvWriter(out);
+    writer.write("a,b\r\n");
+    writer.discard();
+    writer.close();
+    assertThat(out.size()).isZero();
+    assertThatThrownBy(() -> writer.write("c")).isInstanceOf(IOException.class);
+  }
+}
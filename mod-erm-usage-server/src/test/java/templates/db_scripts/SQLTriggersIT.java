@@ -14,9 +14,12 @@ import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import org.folio.rest.jaxrs.model.AccountConfig;
 import org.folio.rest.jaxrs.model.Aggregator;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
@@ -37,6 +40,7 @@ import org.junit.runner.RunWith;
  *
  * <ul>
  *   <li>{@code templates/db_scripts/aggregatorsettings_triggers.sql}
+ *   <li>{@code templates/db_scripts/counter_report_data.sql}
  *   <li>{@code templates/db_scripts/counterreports_triggers.sql}
  *   <li>{@code templates/db_scripts/usagedataproviders_triggers.sql}
  * </ul>
@@ -47,8 +51,11 @@ public class SQLTriggersIT {
   public static final String AGGREGATOR_TBL = "aggregator_settings";
   public static final String UDP_TABLE = "usage_data_providers";
   public static final String REPORTS_TBL = "counter_reports";
+  public static final String REPORT_STATISTICS_TBL = "udp_report_statistics";
   private static final String AGGREGATOR_ID = "5ea343c7-5aac-4648-bb37-c4f72a6c2836";
   private static final String PROVIDER_ID = "af802f18-116d-4553-a5da-84db410c1eac";
+  private static final String PROVIDER_ID2 = "0a5b3d4e-3c1f-4e7a-9d0b-0e3c1f2a7b6d";
+  private static final String REPORT_ID = "9a1d2b4c-6f3e-4a8b-9c7d-2e5f1a3b4c6d";
   private static final String TENANT = "tenant";
   private static final Vertx vertx = Vertx.vertx();
   private static final AggregatorSetting AGGREGATOR =
@@ -232,6 +239,63 @@ public class SQLTriggersIT {
                 }));
   }
 
+  @Test
+  public void testReportStatisticsUpdateOnCounterReportChanges(TestContext context) {
+    succeededFuture()
+        .compose(v -> insertEntity(UDP_TABLE, PROVIDER))
+        .compose(v -> insertEntities(REPORTS_TBL, sampleReports))
+        .compose(v -> getRowCount(REPORT_STATISTICS_TBL))
+        .compose(
+            count -> {
+              assertThat(count).isEqualTo(sampleReports.size());
+              return updateEntities(REPORTS_TBL, updatedReports);
+            })
+        .compose(v -> getRowCount(REPORT_STATISTICS_TBL))
+        .compose(
+            count -> {
+              assertThat(count).isEqualTo(updatedReports.size());
+              return deleteEntities(REPORTS_TBL, updatedReports);
+            })
+        .compose(v -> getRowCount(REPORT_STATISTICS_TBL))
+        .onComplete(context.asyncAssertSuccess(count -> assertThat(count).isZero()));
+  }
+
+  @Test
+  public void testStatisticsUpdateOnMultiRowProviderChange(TestContext context) {
+    UsageDataProvider provider2 = deepClone(PROVIDER).withId(PROVIDER_ID2).withLabel("Provider 2");
+    succeededFuture()
+        .compose(v -> insertEntities(UDP_TABLE, List.of(PROVIDER, provider2)))
+        .compose(v -> insertEntities(REPORTS_TBL, sampleReports))
+        .compose(
+            v ->
+                pgClient.execute(
+                    "UPDATE "
+                        + REPORTS_TBL
+                        + " SET jsonb = jsonb_set(jsonb, '{providerId}', to_jsonb($1::text))",
+                    Tuple.of(PROVIDER_ID2)))
+        .compose(
+            v ->
+                Future.all(
+                    getTestProvider(),
+                    pgClient.getById(UDP_TABLE, PROVIDER_ID2, UsageDataProvider.class)))
+        .onComplete(
+            context.asyncAssertSuccess(
+                cf -> {
+                  UsageDataProvider udp = cf.resultAt(0);
+                  assertThat(udp.getEarliestReport()).isNull();
+                  assertThat(udp.getLatestReport()).isNull();
+                  assertThat(udp.getReportTypes()).isEmpty();
+                  assertThat(udp.getReportReleases()).isEmpty();
+
+                  UsageDataProvider udp2 = cf.resultAt(1);
+                  assertThat(udp2.getEarliestReport()).isEqualTo("2020-01");
+                  assertThat(udp2.getLatestReport()).isEqualTo("2020-02");
+                  assertThat(udp2.getHasFailedReport()).isEqualTo(YES);
+                  assertThat(udp2.getReportTypes()).containsExactly("IR", "JR1", "TR");
+                  assertThat(udp2.getReportReleases()).containsExactly("4", "5", "5.1");
+                }));
+  }
+
   @Test
   public void testAggregatorNameUpdatesOnAggregatorUpdate(TestContext context) {
     AggregatorSetting updatedAggregator = deepClone(AGGREGATOR).withLabel("new label");
@@ -281,6 +345,54 @@ public class SQLTriggersIT {
                         .isEqualTo(aggregator2.getLabel())));
   }
 
+  @Test
+  public void testReportDataIsMovedToReportColumn(TestContext context) {
+    CounterReport report = createReport(REPORT_ID, "2020-01", "4", "JR1", null);
+    JsonObject reportData = new JsonObject().put("Report_Header", new JsonObject().put("x", 1));
+    JsonObject document = JsonObject.mapFrom(report).put("report", reportData);
+    Tuple id = Tuple.of(UUID.fromString(REPORT_ID));
+
+    succeededFuture()
+        .compose(v -> insertEntity(UDP_TABLE, PROVIDER))
+        .compose(
+            v ->
+                pgClient.execute(
+                    "INSERT INTO " + REPORTS_TBL + " (id, jsonb) VALUES ($1, $2)",
+                    Tuple.of(UUID.fromString(REPORT_ID), document)))
+        .compose(v -> selectReportColumns(id))
+        .compose(
+            row -> {
+              assertThat(row.getBoolean(0)).isFalse();
+              assertThat(row.getJsonObject(1)).isEqualTo(reportData);
+              return pgClient.execute(
+                  "SELECT jsonb FROM counter_reports_with_report WHERE id = $1", id);
+            })
+        .compose(
+            rowSet -> {
+              JsonObject jsonb = rowSet.iterator().next().getJsonObject(0);
+              assertThat(jsonb.getJsonObject("report")).isEqualTo(reportData);
+              assertThat(jsonb.getString("yearMonth")).isEqualTo("2020-01");
+              // updates not writing jsonb keep the report data
+              return pgClient.execute("UPDATE " + REPORTS_TBL + " SET id = id WHERE id = $1", id);
+            })
+        .compose(v -> selectReportColumns(id))
+        .compose(
+            row -> {
+              assertThat(row.getJsonObject(1)).isEqualTo(reportData);
+              // a document without report data removes the report data
+              return pgClient.execute(
+                  "UPDATE " + REPORTS_TBL + " SET jsonb = jsonb WHERE id = $1", id);
+            })
+        .compose(v -> selectReportColumns(id))
+        .onComplete(context.asyncAssertSuccess(row -> assertThat(row.getValue(1)).isNull()));
+  }
+
+  private Future<Row> selectReportColumns(Tuple id) {
+    return pgClient
+        .execute("SELECT jsonb ? 'report', report FROM " + REPORTS_TBL + " WHERE id = $1", id)
+        .map(rowSet -> rowSet.iterator().next());
+  }
+
   @Test
   public void testReportsAreDeletedOnUDPDelete(TestContext context) {
     succeededFuture()